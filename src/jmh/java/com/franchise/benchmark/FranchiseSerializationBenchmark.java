@@ -0,0 +1,61 @@
+package com.franchise.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.franchise.model.Franchise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson serialization of a franchise with its branches and products,
+ * the body written by GET /franchises/{id}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FranchiseSerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int branches;
+
+    @Param({"20"})
+    private int productsPerBranch;
+
+    private ObjectMapper objectMapper;
+    private Franchise franchise;
+
+    /**
+     * Builds the franchise and an ObjectMapper with the defaults Spring Boot applies.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        franchise = SyntheticFranchises.franchise(branches, productsPerBranch);
+    }
+
+    /**
+     * Serializes the franchise graph.
+     * @return byte[] The JSON body.
+     * @throws JsonProcessingException If the franchise cannot be serialized.
+     */
+    @Benchmark
+    public byte[] serializeFranchise() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(franchise);
+    }
+}
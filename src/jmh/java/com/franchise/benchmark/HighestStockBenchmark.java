@@ -0,0 +1,111 @@
+package com.franchise.benchmark;
+
+import com.franchise.config.BulkProperties;
+import com.franchise.config.LowStockAlertProperties;
+import com.franchise.config.StockEventProperties;
+import com.franchise.config.StockRankingProperties;
+import com.franchise.config.WriteBehindProperties;
+import com.franchise.dto.ProductDetailsDTO;
+import com.franchise.model.Franchise;
+import com.franchise.repository.BranchRepository;
+import com.franchise.repository.LowStockAlertRepository;
+import com.franchise.repository.LowStockRuleRepository;
+import com.franchise.repository.ProductRepository;
+import com.franchise.service.cache.NoOpReactiveCache;
+import com.franchise.service.impl.ProductServiceImpl;
+import com.franchise.service.support.LowStockAlertEngine;
+import com.franchise.service.support.RequestCoalescer;
+import com.franchise.service.support.StockEventPublisher;
+import com.franchise.service.support.StockRankingIndex;
+import com.franchise.service.support.StockWriteBehindBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ProductServiceImpl.getProductsWithHighestStockPerBranch.
+ * The "index" source answers from the in-process ranking index; the "repository" source
+ * disables the index so the call falls through to an in-memory replica of the aggregation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HighestStockBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int branches;
+
+    @Param({"20"})
+    private int productsPerBranch;
+
+    @Param({"1", "10"})
+    private int top;
+
+    @Param({"index", "repository"})
+    private String source;
+
+    private ProductServiceImpl productService;
+    private String franchiseId;
+
+    /**
+     * Builds the franchise and wires the service against the in-memory stubs.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Franchise franchise = SyntheticFranchises.franchise(branches, productsPerBranch);
+        franchiseId = franchise.getId();
+
+        BranchRepository branchRepository = RepositoryStubs.branchRepository(franchise.getBranches());
+        StockRankingProperties rankingProperties = new StockRankingProperties();
+        rankingProperties.setEnabled("index".equals(source));
+        StockRankingIndex stockRankingIndex = new StockRankingIndex(branchRepository, rankingProperties);
+        if (rankingProperties.isEnabled()) {
+            stockRankingIndex.rebuild().block();
+        }
+
+        productService = new ProductServiceImpl(
+                RepositoryStubs.unsupported(ProductRepository.class),
+                branchRepository,
+                stockRankingIndex,
+                new StockEventPublisher(new StockEventProperties()),
+                new StockWriteBehindBuffer(new WriteBehindProperties()),
+                new LowStockAlertEngine(
+                        RepositoryStubs.unsupported(LowStockRuleRepository.class),
+                        RepositoryStubs.unsupported(LowStockAlertRepository.class),
+                        new LowStockAlertProperties()),
+                new NoOpReactiveCache<>("products"),
+                new NoOpReactiveCache<>("branches"),
+                new NoOpReactiveCache<>("franchises"),
+                new RequestCoalescer<>("highest-stock", true, new SimpleMeterRegistry()),
+                RepositoryStubs.unsupported(Validator.class),
+                new BulkProperties());
+    }
+
+    /**
+     * Runs the highest stock report for the whole franchise.
+     * @return List<ProductDetailsDTO> The report rows.
+     */
+    @Benchmark
+    public List<ProductDetailsDTO> highestStockPerBranch() {
+        return productService.getProductsWithHighestStockPerBranch(franchiseId, top)
+                .collectList()
+                .block();
+    }
+}
@@ -0,0 +1,121 @@
+package com.franchise.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.franchise.model.Franchise;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the WebFlux encoders writing a franchise, a branch and a product as JSON, CBOR and Smile.
+ * The payloads are the bodies of GET /franchises/{id}, GET /branches/{id} and GET /products/{id},
+ * and the encoders are built like BinaryCodecsConfig builds them, from copies of one ObjectMapper.
+ * The encoded size is reported as the secondary metric "bytes", so the results, JSON ones included,
+ * show encode time and size side by side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PayloadEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"franchise", "branch", "product"})
+    private String payload;
+
+    @Param({"100"})
+    private int branches;
+
+    @Param({"20"})
+    private int productsPerBranch;
+
+    private AbstractJackson2Encoder encoder;
+    private MimeType mimeType;
+    private Object value;
+    private ResolvableType valueType;
+
+    /**
+     * Builds the payload and the encoder of the format.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        switch (format) {
+            case "json" -> {
+                mimeType = MediaType.APPLICATION_JSON;
+                encoder = new Jackson2JsonEncoder(objectMapper, mimeType);
+            }
+            case "cbor" -> {
+                mimeType = MediaType.APPLICATION_CBOR;
+                encoder = new Jackson2CborEncoder(objectMapper.copyWith(new CBORFactory()), mimeType);
+            }
+            case "smile" -> {
+                mimeType = new MediaType("application", "x-jackson-smile");
+                encoder = new Jackson2SmileEncoder(objectMapper.copyWith(new SmileFactory()), mimeType);
+            }
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        Franchise franchise = SyntheticFranchises.franchise(branches, productsPerBranch);
+        value = switch (payload) {
+            case "franchise" -> franchise;
+            case "branch" -> franchise.getBranches().get(0);
+            case "product" -> franchise.getBranches().get(0).getProducts().get(0);
+            default -> throw new IllegalArgumentException("Unknown payload: " + payload);
+        };
+        valueType = ResolvableType.forInstance(value);
+    }
+
+    /**
+     * Encodes the payload into a buffer, as the response writer does.
+     * @param size Secondary metric receiving the encoded size.
+     * @return int The encoded size in bytes.
+     */
+    @Benchmark
+    public int encode(EncodedSize size) {
+        DataBuffer buffer = encoder.encodeValue(value, DefaultDataBufferFactory.sharedInstance, valueType, mimeType, null);
+        size.bytes = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size.bytes;
+    }
+
+    /**
+     * Encoded size of the payload, reported next to the encode time.
+     * The counter holds the size of the last encoding rather than a sum, since every encoding of the
+     * payload has the same size.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class EncodedSize {
+
+        public int bytes;
+    }
+}
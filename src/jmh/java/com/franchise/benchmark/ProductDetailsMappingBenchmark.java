@@ -0,0 +1,66 @@
+package com.franchise.benchmark;
+
+import com.franchise.dto.ProductDetailsDTO;
+import com.franchise.model.Branch;
+import com.franchise.model.Franchise;
+import com.franchise.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the mapping of a whole franchise inventory into ProductDetailsDTO rows,
+ * the per-row cost paid by every highest stock report.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductDetailsMappingBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int branches;
+
+    @Param({"20"})
+    private int productsPerBranch;
+
+    private Franchise franchise;
+
+    /**
+     * Builds the franchise.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        franchise = SyntheticFranchises.franchise(branches, productsPerBranch);
+    }
+
+    /**
+     * Maps every product of every branch to its report row.
+     * @return List<ProductDetailsDTO> The report rows.
+     */
+    @Benchmark
+    public List<ProductDetailsDTO> mapInventory() {
+        List<ProductDetailsDTO> rows = new ArrayList<>(branches * productsPerBranch);
+        for (Branch branch : franchise.getBranches()) {
+            for (Product product : branch.getProducts()) {
+                rows.add(RepositoryStubs.toDetails(branch, product));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,113 @@
+package com.franchise.benchmark;
+
+import com.franchise.dto.ProductDetailsDTO;
+import com.franchise.model.Branch;
+import com.franchise.model.Product;
+import com.franchise.repository.BranchRepository;
+import reactor.core.publisher.Flux;
+
+import java.lang.reflect.Proxy;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for the repositories, built with dynamic proxies.
+ * Only the methods a benchmark needs are answered; any other call fails loudly,
+ * so a benchmark can never silently measure an unexpected code path.
+ */
+final class RepositoryStubs {
+
+    // Same ordering as the highest stock aggregation: stock descending, ties broken by ID
+    private static final Comparator<Product> STOCK_ORDER = Comparator
+            .comparing(Product::getStock, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+            .reversed()
+            .thenComparing(Product::getId);
+
+    private RepositoryStubs() {
+    }
+
+    /**
+     * Builds a BranchRepository serving the given hydrated branches from memory.
+     * The highest stock aggregation is replaced by an equivalent in-memory ranking.
+     * @param branches The hydrated branches.
+     * @return BranchRepository The stub.
+     */
+    static BranchRepository branchRepository(List<Branch> branches) {
+        List<Branch> ordered = branches.stream()
+                .sorted(Comparator.comparing(Branch::getId))
+                .toList();
+        return stub(BranchRepository.class, Map.of(
+                "findAllHydrated", arguments -> Flux.fromIterable(ordered),
+                "findTopProductsByStockPerBranch", arguments -> topProductsByStockPerBranch(
+                        ordered, (String) arguments[0], (Integer) arguments[1])));
+    }
+
+    /**
+     * Builds a stub of the given interface answering no method at all.
+     * @param type The interface.
+     * @param <T> Type of the interface.
+     * @return T The stub.
+     */
+    static <T> T unsupported(Class<T> type) {
+        return stub(type, Map.of());
+    }
+
+    /**
+     * Maps a ranked product of a branch to its report row.
+     * @param branch The branch holding the product.
+     * @param product The product.
+     * @return ProductDetailsDTO The report row.
+     */
+    static ProductDetailsDTO toDetails(Branch branch, Product product) {
+        return ProductDetailsDTO.builder()
+                .productId(product.getId())
+                .productName(product.getName())
+                .stock(product.getStock())
+                .branchId(branch.getId())
+                .branchName(branch.getName())
+                .build();
+    }
+
+    /**
+     * Ranks the products of every branch of a franchise in memory, like the aggregation does.
+     * @param branches The branches, ordered by ID.
+     * @param franchiseId ID of the franchise.
+     * @param top Maximum number of products returned per branch.
+     * @return Flux<ProductDetailsDTO> The top products of every branch, ordered by branch.
+     */
+    private static Flux<ProductDetailsDTO> topProductsByStockPerBranch(List<Branch> branches, String franchiseId, int top) {
+        return Flux.fromIterable(branches)
+                .filter(branch -> franchiseId.equals(branch.getFranchiseId()))
+                .concatMapIterable(branch -> branch.getProducts().stream()
+                        .sorted(STOCK_ORDER)
+                        .limit(top)
+                        .map(product -> toDetails(branch, product))
+                        .toList());
+    }
+
+    /**
+     * Builds a proxy answering the named methods and rejecting every other call.
+     * @param type The interface.
+     * @param answers Answers keyed by method name, receiving the call arguments.
+     * @param <T> Type of the interface.
+     * @return T The stub.
+     */
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (self, method, arguments) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(arguments);
+            }
+            return switch (method.getName()) {
+                case "toString" -> "Stub of " + type.getSimpleName();
+                case "hashCode" -> System.identityHashCode(self);
+                case "equals" -> self == arguments[0];
+                default -> throw new UnsupportedOperationException(
+                        type.getSimpleName() + "." + method.getName() + " is not stubbed");
+            };
+        });
+        return type.cast(proxy);
+    }
+}
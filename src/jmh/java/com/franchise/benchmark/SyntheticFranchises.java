@@ -0,0 +1,60 @@
+package com.franchise.benchmark;
+
+import com.franchise.model.Branch;
+import com.franchise.model.Franchise;
+import com.franchise.model.Product;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds synthetic franchise graphs for the benchmarks.
+ * IDs are ObjectId hex strings like the ones MongoDB generates, and stocks come from a
+ * seeded generator, so every fork of a benchmark sees the same data.
+ */
+final class SyntheticFranchises {
+
+    private static final long SEED = 42L;
+    private static final int MAX_STOCK = 10_000;
+
+    private SyntheticFranchises() {
+    }
+
+    /**
+     * Builds a franchise with its branches and products fully populated.
+     * @param branches Number of branches of the franchise.
+     * @param productsPerBranch Number of products of every branch.
+     * @return Franchise The franchise graph.
+     */
+    static Franchise franchise(int branches, int productsPerBranch) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String franchiseId = new ObjectId().toHexString();
+        List<Branch> branchList = new ArrayList<>(branches);
+        for (int b = 0; b < branches; b++) {
+            String branchId = new ObjectId().toHexString();
+            List<Product> products = new ArrayList<>(productsPerBranch);
+            for (int p = 0; p < productsPerBranch; p++) {
+                products.add(Product.builder()
+                        .id(new ObjectId().toHexString())
+                        .name("Product " + b + "-" + p)
+                        .stock(random.nextInt(MAX_STOCK))
+                        .branchId(branchId)
+                        .franchiseId(franchiseId)
+                        .build());
+            }
+            branchList.add(Branch.builder()
+                    .id(branchId)
+                    .name("Branch " + b)
+                    .franchiseId(franchiseId)
+                    .products(products)
+                    .build());
+        }
+        return Franchise.builder()
+                .id(franchiseId)
+                .name("Franchise with " + branches + " branches")
+                .branches(branchList)
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.franchise.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * IDs of the seeded documents, from which the traffic picks its targets.
+ * @param franchiseIds IDs of the seeded franchises.
+ * @param branchIds IDs of the seeded branches.
+ * @param productIds IDs of the seeded products.
+ */
+record Dataset(List<String> franchiseIds, List<String> branchIds, List<String> productIds) {
+
+    /**
+     * Picks a random franchise.
+     * @return String The ID of the franchise.
+     */
+    String anyFranchise() {
+        return pick(franchiseIds);
+    }
+
+    /**
+     * Picks a random branch.
+     * @return String The ID of the branch.
+     */
+    String anyBranch() {
+        return pick(branchIds);
+    }
+
+    /**
+     * Picks a random product.
+     * @return String The ID of the product.
+     */
+    String anyProduct() {
+        return pick(productIds);
+    }
+
+    private static String pick(List<String> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
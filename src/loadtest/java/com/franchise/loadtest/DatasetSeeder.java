@@ -0,0 +1,85 @@
+package com.franchise.loadtest;
+
+import com.franchise.dto.BranchDTO;
+import com.franchise.dto.BulkProductResultDTO;
+import com.franchise.dto.FranchiseDTO;
+import com.franchise.dto.ProductDTO;
+import com.franchise.model.Branch;
+import com.franchise.model.Franchise;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Seeds the dataset through the public API, so the stored documents look exactly like production ones.
+ * Products are uploaded per branch through the NDJSON bulk endpoint.
+ */
+final class DatasetSeeder {
+
+    private static final int CONCURRENCY = 8;
+    private static final int MAX_STOCK = 1_000;
+
+    private final WebClient client;
+    private final LoadTestSettings settings;
+
+    DatasetSeeder(WebClient client, LoadTestSettings settings) {
+        this.client = client;
+        this.settings = settings;
+    }
+
+    /**
+     * Creates the configured number of franchises, branches and products.
+     * @return Mono<Dataset> The IDs of the created documents.
+     */
+    Mono<Dataset> seed() {
+        List<String> franchiseIds = new CopyOnWriteArrayList<>();
+        List<String> branchIds = new CopyOnWriteArrayList<>();
+        List<String> productIds = new CopyOnWriteArrayList<>();
+        return Flux.range(0, settings.franchises())
+                .concatMap(f -> createFranchise("Franchise " + f))
+                .doOnNext(franchiseIds::add)
+                .concatMap(franchiseId -> Flux.range(0, settings.branchesPerFranchise())
+                        .flatMap(b -> createBranch(franchiseId, "Branch " + b), CONCURRENCY))
+                .doOnNext(branchIds::add)
+                .flatMap(this::createProducts, CONCURRENCY)
+                .doOnNext(productIds::add)
+                .then(Mono.fromSupplier(() -> new Dataset(List.copyOf(franchiseIds), List.copyOf(branchIds), List.copyOf(productIds))));
+    }
+
+    private Mono<String> createFranchise(String name) {
+        return client.post().uri("/franchises")
+                .bodyValue(FranchiseDTO.builder().name(name).build())
+                .retrieve()
+                .bodyToMono(Franchise.class)
+                .map(Franchise::getId);
+    }
+
+    private Mono<String> createBranch(String franchiseId, String name) {
+        return client.post().uri("/branches/franchise/{franchiseId}", franchiseId)
+                .bodyValue(BranchDTO.builder().name(name).build())
+                .retrieve()
+                .bodyToMono(Branch.class)
+                .map(Branch::getId);
+    }
+
+    private Flux<String> createProducts(String branchId) {
+        Flux<ProductDTO> products = Flux.range(0, settings.productsPerBranch())
+                .map(p -> ProductDTO.builder()
+                        .name("Product " + p)
+                        .stock(ThreadLocalRandom.current().nextInt(MAX_STOCK))
+                        .build());
+        return client.post().uri("/products/branch/{branchId}/bulk", branchId)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(products, ProductDTO.class)
+                .retrieve()
+                .bodyToFlux(BulkProductResultDTO.class)
+                .filter(result -> result.getStatus() == BulkProductResultDTO.Status.CREATED)
+                .map(BulkProductResultDTO::getProductId);
+    }
+}
@@ -0,0 +1,56 @@
+package com.franchise.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and status counts of one endpoint.
+ * Latencies are recorded in microseconds from the moment the request was scheduled,
+ * not from when it was sent, so queueing behind a saturated server is part of the result.
+ */
+final class EndpointStats {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Histogram latencies = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * Records a completed request.
+     * @param latencyNanos Time from the scheduled start to the end of the response.
+     * @param status HTTP status code, or -1 if the request failed without a response.
+     */
+    void record(long latencyNanos, int status) {
+        latencies.recordValue(Math.max(1, latencyNanos / 1_000));
+        statuses.computeIfAbsent(status, code -> new LongAdder()).increment();
+        if (status < 200 || status >= 300) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Adds the recorded latencies to another histogram.
+     * @param target The histogram to add to.
+     */
+    void addTo(Histogram target) {
+        target.add(latencies);
+    }
+
+    /**
+     * Summarizes the endpoint.
+     * @param endpoint Name of the endpoint.
+     * @param elapsedSeconds Duration of the measured phase.
+     * @return LoadTestReport.EndpointReport The summary.
+     */
+    LoadTestReport.EndpointReport report(String endpoint, double elapsedSeconds) {
+        Map<String, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(String.valueOf(status), count.sum()));
+        return LoadTestReport.EndpointReport.of(endpoint, latencies, errors.sum(), statusCounts, elapsedSeconds);
+    }
+}
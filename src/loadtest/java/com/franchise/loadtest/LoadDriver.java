@@ -0,0 +1,125 @@
+package com.franchise.loadtest;
+
+import org.HdrHistogram.Histogram;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open-loop load generator.
+ * Requests are scheduled at a fixed rate regardless of how fast the server answers, and their
+ * latency is measured from the scheduled start. A closed loop that waits for responses before
+ * sending more would slow down together with the server and hide its queueing delay
+ * (coordinated omission). Requests that cannot be sent because the in-flight limit is reached
+ * wait for a slot, and that wait is part of their latency.
+ */
+final class LoadDriver {
+
+    private static final Duration TICK = Duration.ofMillis(1);
+    private static final int NO_RESPONSE = -1;
+
+    private final TrafficMix traffic;
+    private final int rps;
+    private final int maxInFlight;
+
+    LoadDriver(TrafficMix traffic, int rps, int maxInFlight) {
+        this.traffic = traffic;
+        this.rps = rps;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Sends traffic without recording it, so caches, JIT and connection pools settle.
+     * @param duration Duration of the warmup.
+     * @return Mono<Void> A Mono completing once every warmup request has finished.
+     */
+    Mono<Void> warmup(Duration duration) {
+        return drive(duration, new ConcurrentHashMap<>()).then();
+    }
+
+    /**
+     * Sends traffic for the given duration and records it.
+     * @param settings The load test settings.
+     * @return Mono<LoadTestReport> The report of the run.
+     */
+    Mono<LoadTestReport> measure(LoadTestSettings settings) {
+        Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+        return drive(settings.duration(), stats)
+                .map(elapsedNanos -> report(settings, stats, elapsedNanos / 1e9));
+    }
+
+    /**
+     * Schedules requests at the target rate until the duration has passed.
+     * @param duration How long requests are scheduled.
+     * @param stats Statistics per endpoint the results are recorded to.
+     * @return Mono<Long> Nanoseconds from the start until the last response.
+     */
+    private Mono<Long> drive(Duration duration, Map<String, EndpointStats> stats) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            long end = start + duration.toNanos();
+            double interval = 1e9 / rps;
+            long[] scheduled = {0};
+            return Flux.interval(TICK)
+                    .onBackpressureDrop()
+                    .map(tick -> System.nanoTime())
+                    .takeUntil(now -> now >= end)
+                    .concatMapIterable(now -> {
+                        // Every request whose scheduled start has passed since the previous tick
+                        long due = Math.min(now, end);
+                        List<Long> intendedStarts = new ArrayList<>();
+                        for (long next = start + (long) (scheduled[0] * interval); next < due;
+                             next = start + (long) (++scheduled[0] * interval)) {
+                            intendedStarts.add(next);
+                        }
+                        return intendedStarts;
+                    })
+                    .flatMap(intendedStart -> execute(intendedStart, stats), maxInFlight)
+                    .then(Mono.fromSupplier(() -> System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Sends one request and records its latency from the scheduled start.
+     * @param intendedStart When the request should have been sent.
+     * @param stats Statistics per endpoint the result is recorded to.
+     * @return Mono<Void> A Mono completing once the response has been recorded.
+     */
+    private Mono<Void> execute(long intendedStart, Map<String, EndpointStats> stats) {
+        TrafficMix.Operation operation = traffic.next();
+        EndpointStats endpoint = stats.computeIfAbsent(operation.endpoint(), name -> new EndpointStats());
+        return operation.call().get()
+                .onErrorReturn(NO_RESPONSE)
+                .doOnNext(status -> endpoint.record(System.nanoTime() - intendedStart, status))
+                .then();
+    }
+
+    /**
+     * Summarizes the recorded statistics.
+     * @param settings The load test settings.
+     * @param stats Statistics per endpoint.
+     * @param elapsedSeconds Duration of the measured phase.
+     * @return LoadTestReport The report.
+     */
+    private static LoadTestReport report(LoadTestSettings settings, Map<String, EndpointStats> stats, double elapsedSeconds) {
+        Histogram all = new Histogram(3);
+        long errors = 0;
+        Map<String, Long> statuses = new TreeMap<>();
+        List<LoadTestReport.EndpointReport> endpoints = new ArrayList<>();
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(stats).entrySet()) {
+            LoadTestReport.EndpointReport endpoint = entry.getValue().report(entry.getKey(), elapsedSeconds);
+            entry.getValue().addTo(all);
+            errors += endpoint.errors();
+            endpoint.statuses().forEach((status, count) -> statuses.merge(status, count, Long::sum));
+            endpoints.add(endpoint);
+        }
+        LoadTestReport.EndpointReport total = LoadTestReport.EndpointReport.of("TOTAL", all, errors, statuses, elapsedSeconds);
+        return new LoadTestReport(settings.rps(), settings.maxInFlight(), settings.writeRatio(), elapsedSeconds, total, endpoints);
+    }
+}
@@ -0,0 +1,119 @@
+package com.franchise.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable result of a load test run, written as JSON.
+ * @param targetRps Target requests per second.
+ * @param maxInFlight Maximum number of requests in flight.
+ * @param writeRatio Fraction of the requests that were writes.
+ * @param durationSeconds Duration of the measured phase, until the last response.
+ * @param total Summary of all requests together.
+ * @param endpoints Summary of every endpoint.
+ */
+record LoadTestReport(
+        int targetRps,
+        int maxInFlight,
+        double writeRatio,
+        double durationSeconds,
+        EndpointReport total,
+        List<EndpointReport> endpoints) {
+
+    /**
+     * Summary of the requests of one endpoint. Latencies are in milliseconds.
+     * @param endpoint Name of the endpoint.
+     * @param requests Number of completed requests.
+     * @param errors Number of requests without a 2xx response.
+     * @param throughputRps Completed requests per second.
+     * @param p50 Median latency.
+     * @param p90 90th percentile latency.
+     * @param p99 99th percentile latency.
+     * @param p999 99.9th percentile latency.
+     * @param max Maximum latency.
+     * @param mean Mean latency.
+     * @param statuses Number of responses per HTTP status code, -1 meaning no response.
+     */
+    record EndpointReport(
+            String endpoint,
+            long requests,
+            long errors,
+            double throughputRps,
+            double p50,
+            double p90,
+            double p99,
+            double p999,
+            double max,
+            double mean,
+            Map<String, Long> statuses) {
+
+        /**
+         * Builds the summary of a histogram recorded in microseconds.
+         * @param endpoint Name of the endpoint.
+         * @param latencies Latencies in microseconds.
+         * @param errors Number of requests without a 2xx response.
+         * @param statuses Number of responses per HTTP status code.
+         * @param elapsedSeconds Duration of the measured phase.
+         * @return EndpointReport The summary.
+         */
+        static EndpointReport of(String endpoint, Histogram latencies, long errors,
+                                 Map<String, Long> statuses, double elapsedSeconds) {
+            long requests = latencies.getTotalCount();
+            return new EndpointReport(
+                    endpoint,
+                    requests,
+                    errors,
+                    elapsedSeconds > 0 ? requests / elapsedSeconds : 0,
+                    millis(latencies.getValueAtPercentile(50)),
+                    millis(latencies.getValueAtPercentile(90)),
+                    millis(latencies.getValueAtPercentile(99)),
+                    millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue()),
+                    latencies.getMean() / 1_000,
+                    statuses);
+        }
+
+        private static double millis(long micros) {
+            return micros / 1_000.0;
+        }
+    }
+
+    /**
+     * Writes the report as JSON.
+     * @param path Path of the report file.
+     * @throws IOException If the file cannot be written.
+     */
+    void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(path.toFile(), this);
+    }
+
+    /**
+     * Formats the report as a table for the console.
+     * @return String The table.
+     */
+    String toTable() {
+        StringBuilder table = new StringBuilder(String.format("%-58s %9s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p90 ms", "p99 ms", "Max ms"));
+        endpoints.forEach(endpoint -> appendRow(table, endpoint));
+        appendRow(table, total);
+        return table.toString();
+    }
+
+    private static void appendRow(StringBuilder table, EndpointReport row) {
+        table.append(String.format("%-58s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                row.endpoint(), row.requests(), row.errors(), row.throughputRps(),
+                row.p50(), row.p90(), row.p99(), row.max()));
+    }
+}
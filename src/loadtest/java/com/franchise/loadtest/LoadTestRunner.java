@@ -0,0 +1,77 @@
+package com.franchise.loadtest;
+
+import com.franchise.FranchiseApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Entry point of the load test.
+ * Starts MongoDB and the application on a random port, seeds a dataset through the API,
+ * drives a warmup and a measured phase of mixed traffic, then prints the latency
+ * percentiles per endpoint and writes them to the JSON report.
+ * Run it with "mvn -Ploadtest verify".
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    /**
+     * Runs the load test with the settings given as "loadtest.*" system properties.
+     * @param args Unused.
+     * @throws Exception If the load test cannot be run or the report cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        try (LocalMongo mongo = LocalMongo.start(settings);
+             ConfigurableApplicationContext application = startApplication(mongo.uri())) {
+            int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+            ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                    .maxConnections(settings.maxInFlight())
+                    .pendingAcquireMaxCount(-1)
+                    .build();
+            try {
+                WebClient client = WebClient.builder()
+                        .baseUrl("http://localhost:" + port + "/api")
+                        .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                        .build();
+
+                System.out.println("Seeding the dataset...");
+                Dataset dataset = new DatasetSeeder(client, settings).seed().block();
+                System.out.printf("Seeded %d franchises, %d branches and %d products%n",
+                        dataset.franchiseIds().size(), dataset.branchIds().size(), dataset.productIds().size());
+
+                LoadDriver driver = new LoadDriver(new TrafficMix(client, dataset, settings.writeRatio()),
+                        settings.rps(), settings.maxInFlight());
+                System.out.printf("Warming up for %s...%n", settings.warmup());
+                driver.warmup(settings.warmup()).block();
+                System.out.printf("Measuring %d req/s for %s...%n", settings.rps(), settings.duration());
+                LoadTestReport report = driver.measure(settings).block();
+
+                report.write(settings.report());
+                System.out.print(report.toTable());
+                System.out.println("Report written to " + settings.report().toAbsolutePath());
+            } finally {
+                connections.dispose();
+            }
+        }
+    }
+
+    /**
+     * Starts the application on a random port against the given MongoDB.
+     * @param mongoUri URI of the MongoDB.
+     * @return ConfigurableApplicationContext The running application.
+     */
+    private static ConfigurableApplicationContext startApplication(String mongoUri) {
+        return new SpringApplicationBuilder(FranchiseApplication.class).run(
+                "--server.port=0",
+                "--spring.data.mongodb.uri=" + mongoUri,
+                "--logging.level.org.springframework.data.mongodb=INFO",
+                "--logging.level.com.franchise=INFO");
+    }
+}
@@ -0,0 +1,56 @@
+package com.franchise.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings of a load test run, read from "loadtest.*" system properties.
+ * The Maven profile passes every property with its default, so they can be overridden with -D.
+ * @param mongoUri URI of the MongoDB to use, or blank to start a local mongod.
+ * @param mongoVersion Version of the local mongod, as a flapdoodle Version.Main constant.
+ * @param franchises Number of franchises seeded.
+ * @param branchesPerFranchise Number of branches seeded per franchise.
+ * @param productsPerBranch Number of products seeded per branch.
+ * @param rps Target requests per second.
+ * @param maxInFlight Maximum number of requests in flight.
+ * @param writeRatio Fraction of the requests that are writes.
+ * @param warmup Duration of the unrecorded warmup phase.
+ * @param duration Duration of the recorded phase.
+ * @param report Path of the JSON report.
+ */
+record LoadTestSettings(
+        String mongoUri,
+        String mongoVersion,
+        int franchises,
+        int branchesPerFranchise,
+        int productsPerBranch,
+        int rps,
+        int maxInFlight,
+        double writeRatio,
+        Duration warmup,
+        Duration duration,
+        Path report) {
+
+    /**
+     * Reads the settings from the system properties, falling back to the profile defaults.
+     * @return LoadTestSettings The settings.
+     */
+    static LoadTestSettings fromSystemProperties() {
+        LoadTestSettings settings = new LoadTestSettings(
+                System.getProperty("loadtest.mongo-uri", ""),
+                System.getProperty("loadtest.mongo-version", "V6_0"),
+                Integer.getInteger("loadtest.franchises", 5),
+                Integer.getInteger("loadtest.branches-per-franchise", 20),
+                Integer.getInteger("loadtest.products-per-branch", 50),
+                Integer.getInteger("loadtest.rps", 200),
+                Integer.getInteger("loadtest.max-in-flight", 256),
+                Double.parseDouble(System.getProperty("loadtest.write-ratio", "0.2")),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json")));
+        if (settings.rps() < 1 || settings.maxInFlight() < 1 || settings.writeRatio() < 0 || settings.writeRatio() > 1) {
+            throw new IllegalArgumentException("Invalid load test settings: " + settings);
+        }
+        return settings;
+    }
+}
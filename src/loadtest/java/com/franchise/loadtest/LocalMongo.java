@@ -0,0 +1,58 @@
+package com.franchise.loadtest;
+
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+/**
+ * MongoDB the application under test connects to.
+ * Either an existing instance given by URI, such as the mongodb service of docker-compose,
+ * or a throwaway mongod downloaded and started by flapdoodle.
+ */
+final class LocalMongo implements AutoCloseable {
+
+    private static final String DATABASE = "franchise_loadtest";
+
+    private final String uri;
+    private final TransitionWalker.ReachedState<RunningMongodProcess> process;
+
+    private LocalMongo(String uri, TransitionWalker.ReachedState<RunningMongodProcess> process) {
+        this.uri = uri;
+        this.process = process;
+    }
+
+    /**
+     * Connects to the configured MongoDB, starting a local mongod if no URI is configured.
+     * @param settings The load test settings.
+     * @return LocalMongo The running MongoDB.
+     */
+    static LocalMongo start(LoadTestSettings settings) {
+        if (!settings.mongoUri().isBlank()) {
+            return new LocalMongo(settings.mongoUri(), null);
+        }
+        TransitionWalker.ReachedState<RunningMongodProcess> process = Mongod.instance()
+                .start(Version.Main.valueOf(settings.mongoVersion()));
+        ServerAddress address = process.current().getServerAddress();
+        return new LocalMongo("mongodb://" + address.getHost() + ":" + address.getPort() + "/" + DATABASE, process);
+    }
+
+    /**
+     * Returns the connection URI.
+     * @return String The URI of the MongoDB.
+     */
+    String uri() {
+        return uri;
+    }
+
+    /**
+     * Stops the local mongod, if one was started.
+     */
+    @Override
+    public void close() {
+        if (process != null) {
+            process.close();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.franchise.loadtest;
+
+import com.franchise.dto.ProductDTO;
+import com.franchise.dto.StockDeltaDTO;
+import com.franchise.dto.StockUpdateDTO;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Mixed read/write traffic against the API.
+ * Each request is a write with the configured probability; within reads and writes
+ * the operations are picked uniformly. Responses are drained so the measured latency
+ * covers the whole body.
+ */
+final class TrafficMix {
+
+    /**
+     * One kind of request.
+     * @param endpoint Endpoint template the request is reported under.
+     * @param call Issues the request and emits its HTTP status code.
+     */
+    record Operation(String endpoint, Supplier<Mono<Integer>> call) {
+    }
+
+    private final WebClient client;
+    private final Dataset dataset;
+    private final double writeRatio;
+    private final List<Operation> reads;
+    private final List<Operation> writes;
+
+    TrafficMix(WebClient client, Dataset dataset, double writeRatio) {
+        this.client = client;
+        this.dataset = dataset;
+        this.writeRatio = writeRatio;
+        this.reads = List.of(
+                new Operation("GET /api/franchises", () -> get("/franchises?limit=20")),
+                new Operation("GET /api/franchises/{id}", () -> get("/franchises/{id}", dataset.anyFranchise())),
+                new Operation("GET /api/franchises/summary", () -> get("/franchises/summary?limit=50")),
+                new Operation("GET /api/branches/{id}", () -> get("/branches/{id}", dataset.anyBranch())),
+                new Operation("GET /api/branches/franchise/{franchiseId}",
+                        () -> get("/branches/franchise/{franchiseId}?limit=20", dataset.anyFranchise())),
+                new Operation("GET /api/products/{productId}", () -> get("/products/{id}", dataset.anyProduct())),
+                new Operation("GET /api/products/highest-stock/franchise/{franchiseId}",
+                        () -> get("/products/highest-stock/franchise/{franchiseId}?top=3", dataset.anyFranchise())));
+        this.writes = List.of(
+                new Operation("PATCH /api/products/{productId}/stock", () -> patch("/products/{id}/stock",
+                        StockUpdateDTO.builder().stock(ThreadLocalRandom.current().nextInt(1_000)).build())),
+                new Operation("PATCH /api/products/{productId}/stock/delta", () -> patch("/products/{id}/stock/delta",
+                        StockDeltaDTO.builder().delta(1 + ThreadLocalRandom.current().nextInt(5)).build())),
+                new Operation("POST /api/products/branch/{branchId}", () -> exchange(client.post()
+                        .uri("/products/branch/{branchId}", dataset.anyBranch())
+                        .bodyValue(ProductDTO.builder().name("Load test product").stock(10).build()))));
+    }
+
+    /**
+     * Picks the next request to issue.
+     * @return Operation The operation.
+     */
+    Operation next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Operation> operations = random.nextDouble() < writeRatio ? writes : reads;
+        return operations.get(random.nextInt(operations.size()));
+    }
+
+    private Mono<Integer> get(String uri, Object... variables) {
+        return exchange(client.get().uri(uri, variables));
+    }
+
+    private Mono<Integer> patch(String uri, Object body) {
+        return exchange(client.patch().uri(uri, dataset.anyProduct()).bodyValue(body));
+    }
+
+    private static Mono<Integer> exchange(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.releaseBody()
+                .thenReturn(response.statusCode().value()));
+    }
+}
@@ -2,6 +2,7 @@ package com.franchise;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
 
 /**
@@ -9,6 +10,7 @@ import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
  * This class bootstraps the Spring Boot application.
  */
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableReactiveMongoAuditing
 public class FranchiseApplication {
 
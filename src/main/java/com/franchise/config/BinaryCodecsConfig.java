@@ -0,0 +1,102 @@
+package com.franchise.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of the binary body formats offered next to JSON.
+ * Every endpoint exchanging JSON values also accepts and produces CBOR (application/cbor) and
+ * Smile (application/x-jackson-smile), chosen through the Accept and Content-Type headers.
+ * Both formats encode the same object model as JSON, so they need no schema, and they skip the
+ * text encoding of numbers and repeated field names, which makes large franchise graphs cheaper
+ * to write and smaller on the wire. The streaming bodies (NDJSON, CSV, Server-Sent Events) keep
+ * their own formats.
+ * The binary mappers are copies of the application's ObjectMapper, so modules, date handling
+ * and features stay identical across the three formats.
+ * JSON stays the format of the requests that accept any type or send no Accept header.
+ */
+@Configuration
+public class BinaryCodecsConfig {
+
+    private static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    private static final MediaType APPLICATION_STREAM_SMILE = new MediaType("application", "stream+x-jackson-smile");
+
+    /**
+     * Registers the CBOR codecs and replaces the default Smile codecs with ones built from the application's ObjectMapper.
+     * Custom writers are consulted before the default ones, so a JSON encoder is registered ahead
+     * of the CBOR encoder to keep JSON first when the request accepts any type.
+     * @param objectMapper The ObjectMapper configured by Spring Boot.
+     * @return CodecCustomizer The customizer applied to the server and client codecs.
+     */
+    @Bean
+    public CodecCustomizer binaryCodecsCustomizer(ObjectMapper objectMapper) {
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(
+                    new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE, APPLICATION_STREAM_SMILE));
+            configurer.defaultCodecs().jackson2SmileDecoder(
+                    new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE, APPLICATION_STREAM_SMILE));
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2JsonEncoder(objectMapper));
+            configurer.customCodecs().registerWithDefaultConfig(new CollectingCborEncoder(cborMapper));
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+        };
+    }
+
+    /**
+     * CBOR encoder that also writes Flux bodies, as a single CBOR array like the JSON encoder does.
+     * Jackson's CBOR encoder only encodes single values, so the elements are collected first.
+     */
+    static final class CollectingCborEncoder extends Jackson2CborEncoder {
+
+        /**
+         * Constructor for CollectingCborEncoder.
+         * @param cborMapper The ObjectMapper writing CBOR.
+         */
+        CollectingCborEncoder(ObjectMapper cborMapper) {
+            super(cborMapper, MediaType.APPLICATION_CBOR);
+        }
+
+        /**
+         * Encodes a single value, or all the elements of a stream as one array.
+         * @param inputStream The value or elements to encode.
+         * @param bufferFactory Factory of the buffer.
+         * @param elementType Type of the value or of each element.
+         * @param mimeType The media type being written.
+         * @param hints Encoding hints.
+         * @return Flux<DataBuffer> The encoded body, in a single buffer.
+         */
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (inputStream instanceof Mono<?> mono) {
+                return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+            }
+            ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+            return Flux.from(inputStream)
+                    .collectList()
+                    .map(values -> encodeValue(values, bufferFactory, listType, mimeType, hints))
+                    .flux();
+        }
+    }
+}
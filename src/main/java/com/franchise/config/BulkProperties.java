@@ -0,0 +1,23 @@
+package com.franchise.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the bulk endpoints.
+ * Bound from the "franchise.bulk" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "franchise.bulk")
+public class BulkProperties {
+
+    /**
+     * Number of entries sent to MongoDB in a single bulk write.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Maximum number of guarded single-document updates in flight per batch.
+     */
+    private int concurrency = 16;
+}
@@ -0,0 +1,104 @@
+package com.franchise.config;
+
+import com.franchise.model.Branch;
+import com.franchise.model.Franchise;
+import com.franchise.model.Product;
+import com.franchise.dto.ProductDetailsDTO;
+import com.franchise.service.cache.CaffeineReactiveCache;
+import com.franchise.service.cache.CoalescingReactiveCache;
+import com.franchise.service.cache.EntityCopies;
+import com.franchise.service.cache.NoOpReactiveCache;
+import com.franchise.service.cache.ReactiveCache;
+import com.franchise.service.support.RequestCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Configuration of the entity caches used by the services.
+ * Each cache is a separate bean, so any of them can be replaced by another ReactiveCache implementation.
+ * Concurrent misses of the same key are coalesced into a single load, even when caching is disabled.
+ */
+@Configuration
+public class CacheConfig {
+
+    // Injecting the CoalescingProperties and the MeterRegistry using constructor injection
+    private final CoalescingProperties coalescingProperties;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor for CacheConfig.
+     * @param coalescingProperties The coalescing configuration properties.
+     * @param meterRegistry The meter registry the coalescing metrics are registered to.
+     */
+    public CacheConfig(CoalescingProperties coalescingProperties, MeterRegistry meterRegistry) {
+        this.coalescingProperties = coalescingProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Cache of hydrated franchises keyed by franchise ID.
+     * @param properties The cache configuration properties.
+     * @return ReactiveCache<String, Franchise> The franchise cache.
+     */
+    @Bean
+    public ReactiveCache<String, Franchise> franchiseCache(CacheProperties properties) {
+        return createCache("franchises", properties, EntityCopies::copyOf);
+    }
+
+    /**
+     * Cache of hydrated branches keyed by branch ID.
+     * @param properties The cache configuration properties.
+     * @return ReactiveCache<String, Branch> The branch cache.
+     */
+    @Bean
+    public ReactiveCache<String, Branch> branchCache(CacheProperties properties) {
+        return createCache("branches", properties, EntityCopies::copyOf);
+    }
+
+    /**
+     * Cache of products keyed by product ID.
+     * @param properties The cache configuration properties.
+     * @return ReactiveCache<String, Product> The product cache.
+     */
+    @Bean
+    public ReactiveCache<String, Product> productCache(CacheProperties properties) {
+        return createCache("products", properties, EntityCopies::copyOf);
+    }
+
+    /**
+     * Coalescer of the highest stock report queries, keyed by franchise ID and number of products.
+     * The report is not cached, so concurrent identical requests are only shared while in flight.
+     * @return RequestCoalescer<String, List<ProductDetailsDTO>> The highest stock coalescer.
+     */
+    @Bean
+    public RequestCoalescer<String, List<ProductDetailsDTO>> highestStockCoalescer() {
+        return createCoalescer("highest-stock");
+    }
+
+    /**
+     * Creates a cache following the configuration properties.
+     * @param name Name of the cache.
+     * @param properties The cache configuration properties.
+     * @param copier Deep copy of a cached value, so callers never share the cached instance.
+     * @return ReactiveCache<String, V> A Caffeine backed cache, or a no-op cache if caching is disabled, coalescing concurrent misses.
+     */
+    private <V> ReactiveCache<String, V> createCache(String name, CacheProperties properties, UnaryOperator<V> copier) {
+        ReactiveCache<String, V> cache = properties.isEnabled()
+                ? new CaffeineReactiveCache<>(name, properties.getMaximumSize(), properties.getTtl(), copier)
+                : new NoOpReactiveCache<>(name);
+        return new CoalescingReactiveCache<>(cache, createCoalescer(name));
+    }
+
+    /**
+     * Creates a coalescer following the configuration properties.
+     * @param name Name of the coalesced load.
+     * @return RequestCoalescer<String, V> The coalescer.
+     */
+    private <V> RequestCoalescer<String, V> createCoalescer(String name) {
+        return new RequestCoalescer<>(name, coalescingProperties.isEnabled(), meterRegistry);
+    }
+}
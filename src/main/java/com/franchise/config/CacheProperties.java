@@ -0,0 +1,30 @@
+package com.franchise.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the entity caches of the service tier.
+ * Bound from the "franchise.cache" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "franchise.cache")
+public class CacheProperties {
+
+    /**
+     * Whether franchise, branch and product reads are cached.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of entries kept by each cache.
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * Time after which a cached entry expires, counted from when it was written.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+}
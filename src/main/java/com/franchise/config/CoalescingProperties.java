@@ -0,0 +1,18 @@
+package com.franchise.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the coalescing of identical concurrent reads.
+ * Bound from the "franchise.coalescing" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "franchise.coalescing")
+public class CoalescingProperties {
+
+    /**
+     * Whether concurrent callers loading the same key share a single load.
+     */
+    private boolean enabled = true;
+}
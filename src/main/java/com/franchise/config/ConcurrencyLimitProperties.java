@@ -0,0 +1,102 @@
+package com.franchise.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the adaptive concurrency limits of the API.
+ * Bound from the "franchise.concurrency-limit" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "franchise.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    /**
+     * Whether requests over the concurrency limits are rejected.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Value of the Retry-After header of rejected requests, rounded up to whole seconds.
+     */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /**
+     * Path patterns, relative to the base path, that are never limited.
+     * Long-lived streams must be listed here, since they would hold a slot for their whole life.
+     */
+    private List<String> exemptPaths = new ArrayList<>(List.of(
+            "/actuator/**", "/products/stock-events/**", "/franchises/*/inventory/export"));
+
+    /**
+     * Path patterns, relative to the base path, of the streaming bulk writes.
+     * They run for as long as their upload lasts, so they get their own budget instead of
+     * reporting every large import as a slow write and shrinking the limit of the single writes.
+     */
+    private List<String> bulkPaths = new ArrayList<>(List.of(
+            "/products/branch/*/bulk", "/products/branch/*/snapshot", "/products/stock/bulk"));
+
+    /**
+     * Budget of the GET and HEAD requests.
+     */
+    private Budget reads = new Budget(200, 10, 2000, Duration.ofMillis(250));
+
+    /**
+     * Budget of the requests that modify data.
+     */
+    private Budget writes = new Budget(50, 4, 500, Duration.ofMillis(250));
+
+    /**
+     * Budget of the streaming bulk writes listed in bulkPaths.
+     */
+    private Budget bulkWrites = new Budget(4, 1, 16, Duration.ofSeconds(30));
+
+    /**
+     * Limits of one kind of request.
+     * The limit grows by one with every request answered within the latency threshold while
+     * at least half of it is in use, and is multiplied by the backoff ratio when a request is
+     * slower than the threshold or fails with a server error.
+     */
+    @Data
+    public static class Budget {
+
+        /**
+         * Concurrency limit at startup.
+         */
+        private int initialLimit;
+
+        /**
+         * Lowest value the limit can shrink to.
+         */
+        private int minLimit;
+
+        /**
+         * Highest value the limit can grow to.
+         */
+        private int maxLimit;
+
+        /**
+         * Latency above which a request is taken as a sign of overload.
+         */
+        private Duration latencyThreshold;
+
+        /**
+         * Factor the limit is multiplied by on overload.
+         */
+        private double backoffRatio = 0.9;
+
+        public Budget() {
+        }
+
+        public Budget(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyThreshold = latencyThreshold;
+        }
+    }
+}
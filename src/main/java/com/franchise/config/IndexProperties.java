@@ -0,0 +1,18 @@
+package com.franchise.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the MongoDB indexes.
+ * Bound from the "franchise.indexes" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "franchise.indexes")
+public class IndexProperties {
+
+    /**
+     * Whether the indexes declared on the entities are created at startup.
+     */
+    private boolean createOnStartup = true;
+}
@@ -0,0 +1,23 @@
+package com.franchise.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the inventory summary of a franchise.
+ * Bound from the "franchise.inventory" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "franchise.inventory")
+public class InventoryProperties {
+
+    /**
+     * Stock at or below which an available product counts as low stock, unless the request sets another one.
+     */
+    private int lowStockThreshold = 5;
+
+    /**
+     * Maximum number of out-of-stock products listed per branch.
+     */
+    private int outOfStockListLimit = 100;
+}
@@ -0,0 +1,23 @@
+package com.franchise.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the low-stock alerts.
+ * Bound from the "franchise.low-stock-alerts" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "franchise.low-stock-alerts")
+public class LowStockAlertProperties {
+
+    /**
+     * Whether stock changes are evaluated against the low-stock rules.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Recovery margin of the rules that do not set one.
+     */
+    private int defaultRecoveryMargin = 2;
+}
@@ -0,0 +1,24 @@
+package com.franchise.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the data migrations run at startup.
+ * Bound from the "franchise.migration" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "franchise.migration")
+public class MigrationProperties {
+
+    /**
+     * Whether the legacy DBRef arrays are migrated to back-references once the application has started.
+     * The migration runs in the background while requests are served and is a no-op once done.
+     */
+    private boolean backReferencesOnStartup = true;
+
+    /**
+     * Maximum number of documents read or updated together by a migration step.
+     */
+    private int batchSize = 500;
+}
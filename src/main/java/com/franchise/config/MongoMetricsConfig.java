@@ -0,0 +1,28 @@
+package com.franchise.config;
+
+import com.franchise.repository.support.ConnectionCheckoutTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the MongoDB driver metrics.
+ * Actuator already registers a command listener timing every command by command name and
+ * collection ("mongodb.driver.commands") and a pool listener with size, in-use and wait queue
+ * gauges ("mongodb.driver.pool.*"); this adds the time spent waiting for a pooled connection.
+ */
+@Configuration
+public class MongoMetricsConfig {
+
+    /**
+     * Adds the checkout wait timer to the connection pool of the reactive client.
+     * @param registry The meter registry.
+     * @return MongoClientSettingsBuilderCustomizer The customizer registering the pool listener.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionCheckoutTimerCustomizer(MeterRegistry registry) {
+        ConnectionCheckoutTimer timer = new ConnectionCheckoutTimer(registry);
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(timer));
+    }
+}
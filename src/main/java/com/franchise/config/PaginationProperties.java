@@ -0,0 +1,23 @@
+package com.franchise.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the paginated listings.
+ * Bound from the "franchise.pagination" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "franchise.pagination")
+public class PaginationProperties {
+
+    /**
+     * Page size used when the request does not specify a limit.
+     */
+    private int defaultLimit = 50;
+
+    /**
+     * Largest page size a request may ask for.
+     */
+    private int maxLimit = 500;
+}
@@ -0,0 +1,37 @@
+package com.franchise.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the stock change event streams.
+ * Bound from the "franchise.stock-events" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "franchise.stock-events")
+public class StockEventProperties {
+
+    /**
+     * What happens to a subscriber that does not keep up with the events.
+     */
+    public enum SlowSubscriberPolicy {
+        /**
+         * Drop the oldest buffered events and keep the subscriber connected.
+         */
+        DROP_OLDEST,
+        /**
+         * Close the subscriber's stream once its buffer is full.
+         */
+        DISCONNECT
+    }
+
+    /**
+     * Maximum number of events buffered for a single subscriber.
+     */
+    private int bufferSize = 256;
+
+    /**
+     * Policy applied when a subscriber's buffer is full.
+     */
+    private SlowSubscriberPolicy slowSubscriberPolicy = SlowSubscriberPolicy.DROP_OLDEST;
+}
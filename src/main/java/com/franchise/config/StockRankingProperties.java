@@ -0,0 +1,20 @@
+package com.franchise.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the in-process stock ranking index.
+ * Bound from the "franchise.stock-ranking" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "franchise.stock-ranking")
+public class StockRankingProperties {
+
+    /**
+     * Whether the highest stock report is served from the in-process ranking index.
+     * Only writes made through this node are seen by the index, so it should be
+     * disabled when several nodes write to the same database.
+     */
+    private boolean enabled = true;
+}
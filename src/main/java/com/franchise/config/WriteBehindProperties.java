@@ -0,0 +1,35 @@
+package com.franchise.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the write-behind of stock updates.
+ * Bound from the "franchise.write-behind" prefix.
+ */
+@Data
+@ConfigurationProperties(prefix = "franchise.write-behind")
+public class WriteBehindProperties {
+
+    /**
+     * Whether stock updates are accumulated in memory and flushed periodically instead of written one by one.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Time between two flushes of the accumulated stock updates.
+     */
+    private Duration flushInterval = Duration.ofMillis(50);
+
+    /**
+     * Number of independently locked stripes the pending updates are spread over.
+     */
+    private int stripes = 64;
+
+    /**
+     * Maximum time the last flush may take when the application shuts down.
+     */
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+}
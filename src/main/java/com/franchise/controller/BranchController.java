@@ -1,15 +1,20 @@
 package com.franchise.controller;
 
 import com.franchise.dto.BranchDTO;
+import com.franchise.dto.BranchSummaryDTO;
 import com.franchise.model.Branch;
 import com.franchise.service.BranchService;
+import com.franchise.service.support.EntityTags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/branches")
 @RequiredArgsConstructor
@@ -34,32 +39,85 @@ public class BranchController {
 
     /**
      * Endpoint to update the name of a specific branch.
+     * With an If-Match header the update only applies if the branch still has the version of the given tag.
      * @param id ID of the branch to be updated.
      * @param newName New name for the branch.
-     * @return Mono<Branch> The updated branch.
+     * @param ifMatch Tag of the branch as last read (optional).
+     * @return Mono<ResponseEntity<Branch>> The updated branch, with its ETag.
      */
     @PutMapping("/{id}/name")
-    public Mono<Branch> updateBranchName(@PathVariable String id, @RequestBody String newName) {
-        return branchService.updateBranchName(id, newName);
+    public Mono<ResponseEntity<Branch>> updateBranchName(
+            @PathVariable String id,
+            @RequestBody String newName,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ConditionalResponses.tagged(branchService.updateBranchName(id, newName, ifMatch), EntityTags::ofGraph);
     }
 
     /**
      * Endpoint to get a branch by its ID.
+     * Answers 304 (Not Modified) while the branch and its products keep the tag given in If-None-Match.
      * @param id ID of the branch to be retrieved.
-     * @return Mono<Branch> The found branch.
+     * @param ifNoneMatch Tag of the branch as last read (optional).
+     * @return Mono<ResponseEntity<Branch>> The found branch, with its ETag.
      */
     @GetMapping("/{id}")
-    public Mono<Branch> getBranchById(@PathVariable String id) {
-        return branchService.getBranchById(id);
+    public Mono<ResponseEntity<Branch>> getBranchById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.read(ifNoneMatch,
+                () -> branchService.getBranchTag(id),
+                () -> branchService.getBranchById(id),
+                EntityTags::ofGraph);
     }
 
     /**
-     * Endpoint to get all branches of a specific franchise.
+     * Endpoint to get the summary of a branch, without its products.
+     * Answers 304 (Not Modified) while the branch keeps the tag given in If-None-Match.
+     * @param id ID of the branch to be retrieved.
+     * @param ifNoneMatch Tag of the summary as last read (optional).
+     * @return Mono<ResponseEntity<BranchSummaryDTO>> The summary of the branch, with its ETag.
+     */
+    @GetMapping("/{id}/summary")
+    public Mono<ResponseEntity<BranchSummaryDTO>> getBranchSummaryById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.read(ifNoneMatch,
+                () -> branchService.getBranchSummaryTag(id),
+                () -> branchService.getBranchSummaryById(id),
+                summary -> EntityTags.of(summary.getVersion()));
+    }
+
+    /**
+     * Endpoint to get one page of the branches of a specific franchise, ordered by ID.
+     * The cursor of the next page is returned in the X-Next-Cursor header, absent on the last page.
      * @param franchiseId ID of the franchise.
-     * @return Flux<Branch> List of branches of the franchise.
+     * @param after Cursor returned with the previous page (optional).
+     * @param limit Maximum number of branches in the page (optional).
+     * @return Mono<ResponseEntity<List<Branch>>> The branches of the page.
      */
     @GetMapping("/franchise/{franchiseId}")
-    public Flux<Branch> getBranchesByFranchiseId(@PathVariable String franchiseId) {
-        return branchService.getBranchesByFranchiseId(franchiseId);
+    public Mono<ResponseEntity<List<Branch>>> getBranchesByFranchiseId(
+            @PathVariable String franchiseId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return branchService.getBranchesByFranchiseId(franchiseId, after, limit)
+                .map(PageResponses::of);
+    }
+
+    /**
+     * Endpoint to get one page of the branch summaries of a specific franchise, ordered by ID.
+     * The cursor of the next page is returned in the X-Next-Cursor header, absent on the last page.
+     * @param franchiseId ID of the franchise.
+     * @param after Cursor returned with the previous page (optional).
+     * @param limit Maximum number of branches in the page (optional).
+     * @return Mono<ResponseEntity<List<BranchSummaryDTO>>> The summaries of the page.
+     */
+    @GetMapping("/franchise/{franchiseId}/summary")
+    public Mono<ResponseEntity<List<BranchSummaryDTO>>> getBranchSummariesByFranchiseId(
+            @PathVariable String franchiseId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return branchService.getBranchSummariesByFranchiseId(franchiseId, after, limit)
+                .map(PageResponses::of);
     }
 }
\ No newline at end of file
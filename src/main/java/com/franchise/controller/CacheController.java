@@ -0,0 +1,29 @@
+package com.franchise.controller;
+
+import com.franchise.dto.CacheStatsDTO;
+import com.franchise.service.cache.ReactiveCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/cache")
+@RequiredArgsConstructor
+public class CacheController {
+
+    // Injecting every ReactiveCache bean using constructor injection
+    private final List<ReactiveCache<?, ?>> caches;
+
+    /**
+     * Endpoint to get the statistics of the entity caches.
+     * @return Flux<CacheStatsDTO> Hit, miss and eviction statistics of every cache.
+     */
+    @GetMapping("/stats")
+    public Flux<CacheStatsDTO> getCacheStats() {
+        return Flux.fromIterable(caches).map(ReactiveCache::stats);
+    }
+}
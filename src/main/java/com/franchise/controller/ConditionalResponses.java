@@ -0,0 +1,54 @@
+package com.franchise.controller;
+
+import com.franchise.service.support.EntityTags;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Builds the responses of the reads and writes carrying an ETag.
+ * A read sent with If-None-Match is first checked against the current tag, computed from
+ * version-only projections, and answered with 304 (Not Modified) without loading the resource
+ * when the tag still matches. Otherwise the resource is loaded and returned with its tag; a tag
+ * matching only once loaded is still answered with 304 by WebFlux itself.
+ */
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Builds the response of a conditional read.
+     * @param ifNoneMatch If-None-Match header of the request, or null.
+     * @param currentTag Supplier of the current tag, empty if the resource does not exist.
+     * @param body Supplier of the resource.
+     * @param tagOf Computes the tag of the loaded resource.
+     * @param <T> Type of the resource.
+     * @return Mono<ResponseEntity<T>> 304 with the tag if it still matches, otherwise the resource with its tag.
+     */
+    static <T> Mono<ResponseEntity<T>> read(String ifNoneMatch, Supplier<Mono<String>> currentTag,
+                                            Supplier<Mono<T>> body, Function<T, String> tagOf) {
+        Mono<ResponseEntity<T>> full = tagged(Mono.defer(body), tagOf);
+        if (ifNoneMatch == null) {
+            return full;
+        }
+        return currentTag.get()
+                .filter(tag -> EntityTags.matches(ifNoneMatch, tag, true))
+                .map(tag -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).<T>build())
+                .switchIfEmpty(full);
+    }
+
+    /**
+     * Builds the response of a resource with its tag, such as the result of a write.
+     * @param body The resource.
+     * @param tagOf Computes the tag of the resource.
+     * @param <T> Type of the resource.
+     * @return Mono<ResponseEntity<T>> The resource with its tag.
+     */
+    static <T> Mono<ResponseEntity<T>> tagged(Mono<T> body, Function<T, String> tagOf) {
+        return body.map(value -> ResponseEntity.ok().eTag(tagOf.apply(value)).body(value));
+    }
+}
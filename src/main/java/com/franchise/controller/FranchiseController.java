@@ -1,22 +1,33 @@
 package com.franchise.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.franchise.dto.FranchiseDTO;
+import com.franchise.dto.FranchiseSummaryDTO;
+import com.franchise.dto.InventorySummaryDTO;
 import com.franchise.model.Franchise;
 import com.franchise.service.FranchiseService;
+import com.franchise.service.support.EntityTags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/franchises")
 @RequiredArgsConstructor
 public class FranchiseController {
 
-    // Injecting the FranchiseService using constructor injection
+    // Injecting the FranchiseService and ObjectMapper using constructor injection
     private final FranchiseService franchiseService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Endpoint to create a new franchise.
@@ -31,31 +42,111 @@ public class FranchiseController {
 
     /**
      * Endpoint to update the name of a specific franchise.
+     * With an If-Match header the update only applies if the franchise still has the version of the given tag.
      * @param id ID of the franchise to be updated.
      * @param newName New name for the franchise.
-     * @return Mono<Franchise> The updated franchise.
+     * @param ifMatch Tag of the franchise as last read (optional).
+     * @return Mono<ResponseEntity<Franchise>> The updated franchise, with its ETag.
      */
     @PutMapping("/{id}/name")
-    public Mono<Franchise> updateFranchiseName(@PathVariable String id, @RequestBody String newName) {
-        return franchiseService.updateFranchiseName(id, newName);
+    public Mono<ResponseEntity<Franchise>> updateFranchiseName(
+            @PathVariable String id,
+            @RequestBody String newName,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ConditionalResponses.tagged(franchiseService.updateFranchiseName(id, newName, ifMatch), EntityTags::ofGraph);
     }
 
     /**
      * Endpoint to get a franchise by its ID.
+     * Answers 304 (Not Modified) while the franchise, its branches and their products keep the tag given in If-None-Match.
      * @param id ID of the franchise to be retrieved.
-     * @return Mono<Franchise> The found franchise.
+     * @param ifNoneMatch Tag of the franchise as last read (optional).
+     * @return Mono<ResponseEntity<Franchise>> The found franchise, with its ETag.
      */
     @GetMapping("/{id}")
-    public Mono<Franchise> getFranchiseById(@PathVariable String id) {
-        return franchiseService.getFranchiseById(id);
+    public Mono<ResponseEntity<Franchise>> getFranchiseById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.read(ifNoneMatch,
+                () -> franchiseService.getFranchiseTag(id),
+                () -> franchiseService.getFranchiseById(id),
+                EntityTags::ofGraph);
+    }
+
+    /**
+     * Endpoint to get the summary of a franchise, without its branches.
+     * Answers 304 (Not Modified) while the franchise keeps the tag given in If-None-Match.
+     * @param id ID of the franchise to be retrieved.
+     * @param ifNoneMatch Tag of the summary as last read (optional).
+     * @return Mono<ResponseEntity<FranchiseSummaryDTO>> The summary of the franchise, with its ETag.
+     */
+    @GetMapping("/{id}/summary")
+    public Mono<ResponseEntity<FranchiseSummaryDTO>> getFranchiseSummaryById(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.read(ifNoneMatch,
+                () -> franchiseService.getFranchiseSummaryTag(id),
+                () -> franchiseService.getFranchiseSummaryById(id),
+                summary -> EntityTags.of(summary.getVersion()));
+    }
+
+    /**
+     * Endpoint to get the inventory summary of a franchise: stock totals, low stock counts and out-of-stock products per branch.
+     * @param id ID of the franchise.
+     * @param lowStockThreshold Stock at or below which an available product counts as low stock (optional).
+     * @return Mono<InventorySummaryDTO> The inventory summary of the franchise.
+     */
+    @GetMapping("/{id}/inventory-summary")
+    public Mono<InventorySummaryDTO> getInventorySummary(
+            @PathVariable String id,
+            @RequestParam(required = false) Integer lowStockThreshold) {
+        return franchiseService.getInventorySummary(id, lowStockThreshold);
+    }
+
+    /**
+     * Endpoint to export the full inventory of a franchise, one row per product with its branch.
+     * The rows are streamed from a MongoDB cursor as they are written, so exports of any size use constant memory.
+     * @param id ID of the franchise.
+     * @param format Format of the export, "csv" (default) or "ndjson".
+     * @param response The response, providing the buffers the rows are written into.
+     * @return ResponseEntity<Flux<DataBuffer>> The streamed export, as an attachment.
+     */
+    @GetMapping("/{id}/inventory/export")
+    public ResponseEntity<Flux<DataBuffer>> exportInventory(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "csv") String format,
+            ServerHttpResponse response) {
+        return InventoryExports.of(id, format, franchiseService.exportInventory(id),
+                response.bufferFactory(), objectMapper);
     }
 
     /**
-     * Endpoint to get all franchises.
-     * @return Flux<Franchise> List of all franchises.
+     * Endpoint to get one page of franchises, ordered by ID.
+     * The cursor of the next page is returned in the X-Next-Cursor header, absent on the last page.
+     * @param after Cursor returned with the previous page (optional).
+     * @param limit Maximum number of franchises in the page (optional).
+     * @return Mono<ResponseEntity<List<Franchise>>> The franchises of the page.
      */
     @GetMapping
-    public Flux<Franchise> getAllFranchises() {
-        return franchiseService.getAllFranchises();
+    public Mono<ResponseEntity<List<Franchise>>> getAllFranchises(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return franchiseService.getAllFranchises(after, limit)
+                .map(PageResponses::of);
+    }
+
+    /**
+     * Endpoint to get one page of franchise summaries, ordered by ID.
+     * The cursor of the next page is returned in the X-Next-Cursor header, absent on the last page.
+     * @param after Cursor returned with the previous page (optional).
+     * @param limit Maximum number of franchises in the page (optional).
+     * @return Mono<ResponseEntity<List<FranchiseSummaryDTO>>> The summaries of the page.
+     */
+    @GetMapping("/summary")
+    public Mono<ResponseEntity<List<FranchiseSummaryDTO>>> getFranchiseSummaries(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return franchiseService.getFranchiseSummaries(after, limit)
+                .map(PageResponses::of);
     }
 }
\ No newline at end of file
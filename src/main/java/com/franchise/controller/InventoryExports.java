@@ -0,0 +1,132 @@
+package com.franchise.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.franchise.dto.ProductDetailsDTO;
+import com.franchise.exception.BadRequestException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Builds the responses of the inventory exports.
+ * Rows are encoded straight into DataBuffers, a fixed number of rows per buffer, so the memory
+ * held by an export does not depend on its size. Nothing is written before the first rows arrive,
+ * so a missing franchise still gets a regular error response instead of a truncated export.
+ */
+final class InventoryExports {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final int ROWS_PER_BUFFER = 256;
+    private static final int BYTES_PER_ROW = 96;
+    private static final String CSV_HEADER = "branchId,branchName,productId,productName,stock\n";
+
+    private InventoryExports() {
+    }
+
+    /**
+     * Builds the response streaming the inventory rows in the requested format.
+     * @param franchiseId ID of the exported franchise, used in the file name.
+     * @param format Either "csv" or "ndjson".
+     * @param rows The inventory rows.
+     * @param bufferFactory Factory of the response buffers.
+     * @param objectMapper Mapper writing the NDJSON rows.
+     * @return ResponseEntity<Flux<DataBuffer>> The streamed export, as an attachment.
+     */
+    static ResponseEntity<Flux<DataBuffer>> of(String franchiseId, String format, Flux<ProductDetailsDTO> rows,
+                                               DataBufferFactory bufferFactory, ObjectMapper objectMapper) {
+        Flux<DataBuffer> body;
+        MediaType contentType;
+        switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv" -> {
+                contentType = TEXT_CSV;
+                body = rows.buffer(ROWS_PER_BUFFER)
+                        .index((index, chunk) -> writeCsv(chunk, index == 0, bufferFactory))
+                        .switchIfEmpty(Flux.defer(() -> Flux.just(writeCsv(List.of(), true, bufferFactory))));
+            }
+            case "ndjson" -> {
+                contentType = MediaType.APPLICATION_NDJSON;
+                body = rows.buffer(ROWS_PER_BUFFER).map(chunk -> writeNdjson(chunk, bufferFactory, objectMapper));
+            }
+            default -> throw new BadRequestException("Unsupported export format: " + format);
+        }
+        String fileName = "inventory-" + franchiseId + "." + format.toLowerCase(Locale.ROOT);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body.doOnDiscard(DataBuffer.class, DataBufferUtils::release));
+    }
+
+    /**
+     * Encodes a chunk of rows as CSV lines.
+     * @param chunk The rows.
+     * @param header Whether the chunk is the first one and starts with the header line.
+     * @param bufferFactory Factory of the buffer.
+     * @return DataBuffer The encoded lines.
+     */
+    private static DataBuffer writeCsv(List<ProductDetailsDTO> chunk, boolean header, DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer((chunk.size() + 1) * BYTES_PER_ROW);
+        if (header) {
+            buffer.write(CSV_HEADER, StandardCharsets.UTF_8);
+        }
+        for (ProductDetailsDTO row : chunk) {
+            buffer.write(csvField(row.getBranchId()), StandardCharsets.UTF_8).write((byte) ',');
+            buffer.write(csvField(row.getBranchName()), StandardCharsets.UTF_8).write((byte) ',');
+            buffer.write(csvField(row.getProductId()), StandardCharsets.UTF_8).write((byte) ',');
+            buffer.write(csvField(row.getProductName()), StandardCharsets.UTF_8).write((byte) ',');
+            buffer.write(row.getStock() != null ? row.getStock().toString() : "", StandardCharsets.UTF_8);
+            buffer.write((byte) '\n');
+        }
+        return buffer;
+    }
+
+    /**
+     * Encodes a chunk of rows as NDJSON lines, serializing them directly into the buffer.
+     * @param chunk The rows.
+     * @param bufferFactory Factory of the buffer.
+     * @param objectMapper Mapper writing the rows.
+     * @return DataBuffer The encoded lines.
+     */
+    private static DataBuffer writeNdjson(List<ProductDetailsDTO> chunk, DataBufferFactory bufferFactory,
+                                          ObjectMapper objectMapper) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(chunk.size() * BYTES_PER_ROW * 2);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(buffer.asOutputStream())) {
+            generator.setRootValueSeparator(null);
+            for (ProductDetailsDTO row : chunk) {
+                objectMapper.writeValue(generator, row);
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            DataBufferUtils.release(buffer);
+            throw new UncheckedIOException(e);
+        }
+        return buffer;
+    }
+
+    /**
+     * Quotes a CSV field when it contains a separator, a quote or a line break.
+     * @param value The field value, or null.
+     * @return String The field as written in the CSV.
+     */
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,95 @@
+package com.franchise.controller;
+
+import com.franchise.dto.LowStockRuleDTO;
+import com.franchise.model.LowStockAlert;
+import com.franchise.model.LowStockRule;
+import com.franchise.service.LowStockAlertService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/low-stock")
+@RequiredArgsConstructor
+public class LowStockAlertController {
+
+    // Injecting the LowStockAlertService using constructor injection
+    private final LowStockAlertService lowStockAlertService;
+
+    /**
+     * Endpoint to set the low-stock rule of the products of a branch.
+     * @param branchId ID of the branch.
+     * @param ruleDTO Threshold and recovery margin of the rule.
+     * @return Mono<LowStockRule> The stored rule.
+     */
+    @PutMapping("/rules/branch/{branchId}")
+    public Mono<LowStockRule> setBranchRule(@PathVariable String branchId, @Valid @RequestBody LowStockRuleDTO ruleDTO) {
+        return lowStockAlertService.setBranchRule(branchId, ruleDTO);
+    }
+
+    /**
+     * Endpoint to set the low-stock rule of a single product, overriding the rule of its branch.
+     * @param productId ID of the product.
+     * @param ruleDTO Threshold and recovery margin of the rule.
+     * @return Mono<LowStockRule> The stored rule.
+     */
+    @PutMapping("/rules/product/{productId}")
+    public Mono<LowStockRule> setProductRule(@PathVariable String productId, @Valid @RequestBody LowStockRuleDTO ruleDTO) {
+        return lowStockAlertService.setProductRule(productId, ruleDTO);
+    }
+
+    /**
+     * Endpoint to remove the low-stock rule of a branch.
+     * @param branchId ID of the branch.
+     * @return Mono<Void> A Mono signaling when the rule is removed.
+     */
+    @DeleteMapping("/rules/branch/{branchId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> removeBranchRule(@PathVariable String branchId) {
+        return lowStockAlertService.removeRule(LowStockRule.Scope.BRANCH, branchId);
+    }
+
+    /**
+     * Endpoint to remove the low-stock rule of a product.
+     * @param productId ID of the product.
+     * @return Mono<Void> A Mono signaling when the rule is removed.
+     */
+    @DeleteMapping("/rules/product/{productId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> removeProductRule(@PathVariable String productId) {
+        return lowStockAlertService.removeRule(LowStockRule.Scope.PRODUCT, productId);
+    }
+
+    /**
+     * Endpoint to get the low-stock rules of the branches and products of a franchise.
+     * @param franchiseId ID of the franchise.
+     * @return Flux<LowStockRule> The rules, ordered by ID.
+     */
+    @GetMapping("/rules/franchise/{franchiseId}")
+    public Flux<LowStockRule> getRulesByFranchiseId(@PathVariable String franchiseId) {
+        return lowStockAlertService.getRulesByFranchiseId(franchiseId);
+    }
+
+    /**
+     * Endpoint to get one page of the alerts raised for a franchise, in the order they were raised.
+     * The cursor of the next page is returned in the X-Next-Cursor header, absent on the last page.
+     * @param franchiseId ID of the franchise.
+     * @param after Cursor returned with the previous page (optional).
+     * @param limit Maximum number of alerts in the page (optional).
+     * @return Mono<ResponseEntity<List<LowStockAlert>>> The alerts of the page.
+     */
+    @GetMapping("/alerts/franchise/{franchiseId}")
+    public Mono<ResponseEntity<List<LowStockAlert>>> getAlertsByFranchiseId(
+            @PathVariable String franchiseId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        return lowStockAlertService.getAlertsByFranchiseId(franchiseId, after, limit)
+                .map(PageResponses::of);
+    }
+}
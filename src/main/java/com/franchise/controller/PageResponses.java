@@ -0,0 +1,30 @@
+package com.franchise.controller;
+
+import com.franchise.dto.PageDTO;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Builds the responses of the paginated listings.
+ * The items are returned as the body and the cursor of the next page, if any, in the X-Next-Cursor header.
+ */
+final class PageResponses {
+
+    private PageResponses() {
+    }
+
+    /**
+     * Builds the response of a page.
+     * @param page The page.
+     * @param <T> Type of the listed items.
+     * @return ResponseEntity<List<T>> The items of the page, with the cursor of the next one as a header.
+     */
+    static <T> ResponseEntity<List<T>> of(PageDTO<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(PageDTO.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+}
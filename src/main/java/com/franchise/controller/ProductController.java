@@ -1,13 +1,24 @@
 package com.franchise.controller;
 
+import com.franchise.dto.BulkProductResultDTO;
+import com.franchise.dto.BulkStockUpdateDTO;
+import com.franchise.dto.BulkStockUpdateResultDTO;
 import com.franchise.dto.ProductDTO;
 import com.franchise.dto.ProductDetailsDTO;
+import com.franchise.dto.SnapshotImportResultDTO;
+import com.franchise.dto.StockChangeEventDTO;
+import com.franchise.dto.StockDeltaDTO;
 import com.franchise.dto.StockUpdateDTO;
 import com.franchise.model.Product;
 import com.franchise.service.ProductService;
+import com.franchise.service.support.EntityTags;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -34,6 +45,54 @@ public class ProductController {
         return productService.addProductToBranch(branchId, productDTO);
     }
 
+    /**
+     * Endpoint to add many products to a specific branch from an NDJSON stream.
+     * @param branchId ID of the branch to which the products will be added.
+     * @param products Stream of products to be added, one JSON document per line.
+     * @return Flux<BulkProductResultDTO> The outcome of every line, in input order.
+     */
+    @PostMapping(value = "/branch/{branchId}/bulk",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @ResponseStatus(HttpStatus.CREATED)
+    public Flux<BulkProductResultDTO> addProductsToBranch(
+            @PathVariable String branchId,
+            @RequestBody Flux<ProductDTO> products) {
+        return productService.addProductsToBranch(branchId, products);
+    }
+
+    /**
+     * Endpoint to make the products of a branch match a full inventory snapshot sent as NDJSON.
+     * Only the products whose stock changed, the new ones and, if asked, the ones missing from the snapshot are written.
+     * @param branchId ID of the branch.
+     * @param snapshot Stream of every product the branch should have, one JSON document per line.
+     * @param deleteMissing Whether the products missing from the snapshot are deleted (optional, false by default).
+     * @return Mono<SnapshotImportResultDTO> The summary of the changes.
+     */
+    @PutMapping(value = "/branch/{branchId}/snapshot", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<SnapshotImportResultDTO> importBranchSnapshot(
+            @PathVariable String branchId,
+            @RequestBody Flux<ProductDTO> snapshot,
+            @RequestParam(defaultValue = "false") boolean deleteMissing) {
+        return productService.importBranchSnapshot(branchId, snapshot, deleteMissing);
+    }
+
+    /**
+     * Endpoint to make the products of a branch match a full inventory snapshot sent as CSV.
+     * The header must name a "name" (or "productName") and a "stock" column; other columns are ignored.
+     * @param branchId ID of the branch.
+     * @param lines Lines of the CSV file.
+     * @param deleteMissing Whether the products missing from the snapshot are deleted (optional, false by default).
+     * @return Mono<SnapshotImportResultDTO> The summary of the changes.
+     */
+    @PutMapping(value = "/branch/{branchId}/snapshot", consumes = "text/csv")
+    public Mono<SnapshotImportResultDTO> importBranchSnapshotCsv(
+            @PathVariable String branchId,
+            @RequestBody Flux<String> lines,
+            @RequestParam(defaultValue = "false") boolean deleteMissing) {
+        return productService.importBranchSnapshot(branchId, SnapshotCsv.parse(lines), deleteMissing);
+    }
+
     /**
      * Endpoint to remove a product from a specific branch.
      * @param branchId ID of the branch from which the product will be removed.
@@ -50,38 +109,103 @@ public class ProductController {
 
     /**
      * Endpoint to update the stock of a specific product.
+     * With an If-Match header the update only applies if the product still has the tag given.
      * @param productId ID of the product to be updated.
      * @param stockUpdateDTO Data containing the new stock value.
-     * @return Mono<Product> The updated product.
+     * @param ifMatch Tag of the product as last read (optional).
+     * @return Mono<ResponseEntity<Product>> The updated product, with its ETag.
      */
     @PatchMapping("/{productId}/stock")
-    public Mono<Product> updateProductStock(
+    public Mono<ResponseEntity<Product>> updateProductStock(
+            @PathVariable String productId,
+            @Valid @RequestBody StockUpdateDTO stockUpdateDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ConditionalResponses.tagged(productService.updateProductStock(productId, stockUpdateDTO, ifMatch), EntityTags::of);
+    }
+
+    /**
+     * Endpoint to add a delta to the stock of a specific product.
+     * With an If-Match header the update only applies if the product still has the tag given.
+     * @param productId ID of the product to be updated.
+     * @param stockDeltaDTO Data containing the amount to add, negative to decrease the stock.
+     * @param ifMatch Tag of the product as last read (optional).
+     * @return Mono<ResponseEntity<Product>> The updated product, with its ETag.
+     */
+    @PatchMapping("/{productId}/stock/delta")
+    public Mono<ResponseEntity<Product>> adjustProductStock(
             @PathVariable String productId,
-            @Valid @RequestBody StockUpdateDTO stockUpdateDTO) {
-        return productService.updateProductStock(productId, stockUpdateDTO);
+            @Valid @RequestBody StockDeltaDTO stockDeltaDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ConditionalResponses.tagged(productService.adjustProductStock(productId, stockDeltaDTO, ifMatch), EntityTags::of);
+    }
+
+    /**
+     * Endpoint to apply many stock updates at once.
+     * Accepts a JSON array or an NDJSON stream of entries, each carrying either a stock or a delta.
+     * @param updates Stream of stock update entries.
+     * @return Flux<BulkStockUpdateResultDTO> The outcome of every entry, in input order.
+     */
+    @PatchMapping(value = "/stock/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BulkStockUpdateResultDTO> bulkUpdateProductStock(@RequestBody Flux<BulkStockUpdateDTO> updates) {
+        return productService.bulkUpdateProductStock(updates);
     }
 
     /**
      * Endpoint to update the name of a specific product.
+     * With an If-Match header the update only applies if the product still has the version of the given tag.
      * @param productId ID of the product to be updated.
      * @param newName New name for the product.
-     * @return Mono<Product> The updated product.
+     * @param ifMatch Tag of the product as last read (optional).
+     * @return Mono<ResponseEntity<Product>> The updated product, with its ETag.
      */
     @PutMapping("/{productId}/name")
-    public Mono<Product> updateProductName(
+    public Mono<ResponseEntity<Product>> updateProductName(
+            @PathVariable String productId,
+            @RequestBody String newName,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return ConditionalResponses.tagged(productService.updateProductName(productId, newName, ifMatch), EntityTags::of);
+    }
+
+    /**
+     * Endpoint to get a product by its ID.
+     * Answers 304 (Not Modified) while the product keeps the tag given in If-None-Match.
+     * @param productId ID of the product to be retrieved.
+     * @param ifNoneMatch Tag of the product as last read (optional).
+     * @return Mono<ResponseEntity<Product>> The found product, with its ETag.
+     */
+    @GetMapping("/{productId}")
+    public Mono<ResponseEntity<Product>> getProductById(
             @PathVariable String productId,
-            @RequestBody String newName) {
-        return productService.updateProductName(productId, newName);
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.read(ifNoneMatch,
+                () -> productService.getProductTag(productId),
+                () -> productService.getProductById(productId),
+                EntityTags::of);
     }
 
     /**
-     * Endpoint to get the product with the highest stock for each branch in a specific franchise.
+     * Endpoint to get the products with the highest stock for each branch in a specific franchise.
      * @param franchiseId ID of the franchise.
+     * @param top Maximum number of products returned per branch (defaults to 1).
      * @return Flux<ProductDetailsDTO> List of products with the highest stock, including branch information.
      */
     @GetMapping("/highest-stock/franchise/{franchiseId}")
     public Flux<ProductDetailsDTO> getProductsWithHighestStockPerBranch(
-            @PathVariable String franchiseId) {
-        return productService.getProductsWithHighestStockPerBranch(franchiseId);
+            @PathVariable String franchiseId,
+            @RequestParam(defaultValue = "1") int top) {
+        return productService.getProductsWithHighestStockPerBranch(franchiseId, top);
+    }
+
+    /**
+     * Endpoint to stream the stock changes of the products of a specific franchise as Server-Sent Events.
+     * @param franchiseId ID of the franchise.
+     * @return Flux<ServerSentEvent<StockChangeEventDTO>> The stock changes, named after their type.
+     */
+    @GetMapping(value = "/stock-events/franchise/{franchiseId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<StockChangeEventDTO>> streamStockEvents(@PathVariable String franchiseId) {
+        return productService.streamStockEvents(franchiseId)
+                .map(event -> ServerSentEvent.builder(event)
+                        .event(event.getType().name())
+                        .build());
     }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.franchise.controller;
+
+import com.franchise.dto.ProductDTO;
+import com.franchise.exception.BadRequestException;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses the CSV inventory snapshots of a branch.
+ * The first line is a header naming the columns; the product name is read from the "name" or
+ * "productName" column and the stock from the "stock" column, any other column is ignored,
+ * so the file of an inventory export can be imported as is. Fields may be quoted, with quotes
+ * doubled inside, but cannot span lines.
+ */
+final class SnapshotCsv {
+
+    private SnapshotCsv() {
+    }
+
+    /**
+     * Maps the lines of a CSV snapshot to products, as they arrive.
+     * @param lines The lines of the file, without their line breaks.
+     * @return Flux<ProductDTO> One product per non-blank line after the header.
+     */
+    static Flux<ProductDTO> parse(Flux<String> lines) {
+        return lines
+                .index((index, line) -> new Line(index + 1, line))
+                .filter(line -> !line.text().isBlank())
+                .switchOnFirst((first, all) -> {
+                    if (!first.hasValue()) {
+                        return all.thenMany(Flux.empty());
+                    }
+                    Columns columns = Columns.of(first.get());
+                    return all.skip(1).map(columns::toProduct);
+                });
+    }
+
+    /**
+     * Splits a CSV line into its fields.
+     * @param line The line.
+     * @return List<String> The unquoted fields.
+     */
+    private static List<String> fields(Line line) {
+        String text = line.text();
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new BadRequestException("Unterminated quoted field on line " + line.number());
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * A line of the file with its number, starting at 1.
+     * @param number Number of the line.
+     * @param text Content of the line.
+     */
+    private record Line(long number, String text) {
+    }
+
+    /**
+     * Positions of the name and stock columns, read from the header.
+     * @param name Index of the name column.
+     * @param stock Index of the stock column.
+     */
+    private record Columns(int name, int stock) {
+
+        private static Columns of(Line header) {
+            int name = -1;
+            int stock = -1;
+            List<String> fields = fields(header);
+            for (int i = 0; i < fields.size(); i++) {
+                String column = fields.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+                if (column.equals("name") || (column.equals("productname") && name < 0)) {
+                    name = i;
+                } else if (column.equals("stock")) {
+                    stock = i;
+                }
+            }
+            if (name < 0 || stock < 0) {
+                throw new BadRequestException("The CSV header must have a name and a stock column");
+            }
+            return new Columns(name, stock);
+        }
+
+        private ProductDTO toProduct(Line line) {
+            List<String> fields = fields(line);
+            String stock = fields.size() > this.stock ? fields.get(this.stock).trim() : "";
+            try {
+                return ProductDTO.builder()
+                        .name(fields.size() > name ? fields.get(name).trim() : null)
+                        .stock(stock.isEmpty() ? null : Integer.valueOf(stock))
+                        .build();
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid stock '" + stock + "' on line " + line.number());
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the inventory figures of a branch.
+ * Used as part of the inventory summary of a franchise.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BranchInventoryDTO {
+
+    /**
+     * ID of the branch.
+     */
+    private String branchId;
+
+    /**
+     * Name of the branch.
+     */
+    private String branchName;
+
+    /**
+     * Number of products of the branch.
+     */
+    private Integer productCount;
+
+    /**
+     * Sum of the stock of every product of the branch.
+     */
+    private Long totalStock;
+
+    /**
+     * Number of products with some stock, at or below the low stock threshold.
+     */
+    private Integer lowStockCount;
+
+    /**
+     * Number of products without stock.
+     */
+    private Integer outOfStockCount;
+
+    /**
+     * Products without stock, ordered by ID and capped by the configured limit.
+     */
+    private List<OutOfStockProductDTO> outOfStockProducts;
+}
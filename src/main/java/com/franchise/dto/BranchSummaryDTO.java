@@ -0,0 +1,36 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the summary view of a branch, without its products.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BranchSummaryDTO {
+
+    /**
+     * Unique identifier of the branch.
+     */
+    private String id;
+
+    /**
+     * Name of the branch.
+     */
+    private String name;
+
+    /**
+     * Identifier of the franchise to which the branch belongs.
+     */
+    private String franchiseId;
+
+    /**
+     * Version of the branch.
+     */
+    private Long version;
+}
@@ -0,0 +1,49 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the outcome of one line of a bulk product upload.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProductResultDTO {
+
+    /**
+     * Possible outcomes of a bulk product upload line.
+     */
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+
+    /**
+     * Line number of the entry in the upload, starting at 1.
+     */
+    private long line;
+
+    /**
+     * ID of the created product, when it was created.
+     */
+    private String productId;
+
+    /**
+     * Name of the product as sent in the upload.
+     */
+    private String name;
+
+    /**
+     * Outcome of the line.
+     */
+    private Status status;
+
+    /**
+     * Reason why the line was rejected, if it was.
+     */
+    private String message;
+}
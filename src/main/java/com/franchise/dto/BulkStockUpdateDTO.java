@@ -0,0 +1,51 @@
+package com.franchise.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Data Transfer Object for one entry of a bulk stock update.
+ * Carries either an absolute stock value or a delta for a product.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockUpdateDTO {
+
+    /**
+     * ID of the product to be updated.
+     * This field is required and cannot be blank.
+     */
+    @NotBlank(message = "Product id is required")
+    private String productId;
+
+    /**
+     * New stock quantity of the product.
+     * This field cannot be negative.
+     */
+    @Min(value = 0, message = "Stock cannot be negative")
+    private Integer stock;
+
+    /**
+     * Amount added to the stock of the product, negative to decrease it.
+     */
+    private Integer delta;
+
+    /**
+     * Validates that the entry carries exactly one of stock or delta.
+     * @return boolean True if exactly one of the two fields is set.
+     */
+    @JsonIgnore
+    @AssertTrue(message = "Exactly one of stock or delta is required")
+    public boolean isSingleChange() {
+        return (stock == null) != (delta == null);
+    }
+}
@@ -0,0 +1,45 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the outcome of one entry of a bulk stock update.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockUpdateResultDTO {
+
+    /**
+     * Possible outcomes of a bulk stock update entry.
+     */
+    public enum Status {
+        UPDATED,
+        NOT_FOUND,
+        REJECTED
+    }
+
+    /**
+     * ID of the product the entry refers to.
+     */
+    private String productId;
+
+    /**
+     * Outcome of the entry.
+     */
+    private Status status;
+
+    /**
+     * Stock of the product after the update, when it was updated.
+     */
+    private Integer stock;
+
+    /**
+     * Reason why the entry was rejected, if it was.
+     */
+    private String message;
+}
@@ -0,0 +1,41 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the statistics of an entity cache.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsDTO {
+
+    /**
+     * Name of the cache.
+     */
+    private String name;
+
+    /**
+     * Number of entries currently cached.
+     */
+    private long size;
+
+    /**
+     * Number of lookups answered from the cache.
+     */
+    private long hitCount;
+
+    /**
+     * Number of lookups that had to load the value.
+     */
+    private long missCount;
+
+    /**
+     * Number of entries evicted because of the size bound or the TTL.
+     */
+    private long evictionCount;
+}
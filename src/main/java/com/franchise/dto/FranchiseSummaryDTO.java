@@ -0,0 +1,31 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the summary view of a franchise, without its branches.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FranchiseSummaryDTO {
+
+    /**
+     * Unique identifier of the franchise.
+     */
+    private String id;
+
+    /**
+     * Name of the franchise.
+     */
+    private String name;
+
+    /**
+     * Version of the franchise.
+     */
+    private Long version;
+}
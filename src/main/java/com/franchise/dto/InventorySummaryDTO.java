@@ -0,0 +1,64 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the inventory summary of a franchise.
+ * Used to transfer the stock figures of a franchise and of each of its branches.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventorySummaryDTO {
+
+    /**
+     * ID of the franchise.
+     */
+    private String franchiseId;
+
+    /**
+     * Name of the franchise.
+     */
+    private String franchiseName;
+
+    /**
+     * Stock at or below which an available product counts as low stock.
+     */
+    private Integer lowStockThreshold;
+
+    /**
+     * Number of branches of the franchise.
+     */
+    private Integer branchCount;
+
+    /**
+     * Number of products of the franchise.
+     */
+    private Integer productCount;
+
+    /**
+     * Sum of the stock of every product of the franchise.
+     */
+    private Long totalStock;
+
+    /**
+     * Number of products with some stock, at or below the low stock threshold.
+     */
+    private Integer lowStockCount;
+
+    /**
+     * Number of products without stock.
+     */
+    private Integer outOfStockCount;
+
+    /**
+     * Inventory figures of every branch, ordered by branch ID.
+     */
+    private List<BranchInventoryDTO> branches;
+}
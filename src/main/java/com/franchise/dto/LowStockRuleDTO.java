@@ -0,0 +1,35 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Data Transfer Object for a low-stock alert rule.
+ * Used to transfer rule data between layers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockRuleDTO {
+
+    /**
+     * Stock at or below which a product is low on stock.
+     * This field is required and cannot be negative.
+     */
+    @NotNull(message = "Threshold is required")
+    @Min(value = 0, message = "Threshold cannot be negative")
+    private Integer threshold;
+
+    /**
+     * Units above the threshold the stock must reach before the product recovers.
+     * Optional; must be at least 1 so that recovering and dropping again are two different stocks.
+     */
+    @Min(value = 1, message = "Recovery margin must be at least 1")
+    private Integer recoveryMargin;
+}
@@ -0,0 +1,27 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for a product without stock.
+ * Used to list the products a branch has run out of.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutOfStockProductDTO {
+
+    /**
+     * ID of the product.
+     */
+    private String productId;
+
+    /**
+     * Name of the product.
+     */
+    private String productName;
+}
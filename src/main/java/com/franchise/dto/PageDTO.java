@@ -0,0 +1,34 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for one page of a keyset paginated listing.
+ * @param <T> Type of the listed items.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDTO<T> {
+
+    /**
+     * Response header carrying the cursor of the next page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Items of the page, ordered by ID.
+     */
+    private List<T> items;
+
+    /**
+     * Opaque cursor to pass as "after" to get the next page, or null if this is the last page.
+     */
+    private String nextCursor;
+}
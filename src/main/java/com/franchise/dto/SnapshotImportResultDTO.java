@@ -0,0 +1,59 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the outcome of a branch inventory snapshot import.
+ * Used to report what the import had to change to make the branch match the snapshot.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotImportResultDTO {
+
+    /**
+     * ID of the imported branch.
+     */
+    private String branchId;
+
+    /**
+     * Number of entries in the snapshot.
+     */
+    private long received;
+
+    /**
+     * Number of products created because the branch did not have them.
+     */
+    private long inserted;
+
+    /**
+     * Number of products whose stock changed.
+     */
+    private long updated;
+
+    /**
+     * Number of products already matching the snapshot, which were not written.
+     */
+    private long unchanged;
+
+    /**
+     * Number of products removed because the snapshot did not list them.
+     */
+    private long deleted;
+
+    /**
+     * Number of entries rejected.
+     */
+    private long rejected;
+
+    /**
+     * The first rejected entries, with the reason of the rejection.
+     */
+    private List<BulkProductResultDTO> rejections;
+}
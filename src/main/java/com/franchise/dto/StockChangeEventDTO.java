@@ -0,0 +1,62 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for a stock change pushed to the franchise event streams.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockChangeEventDTO {
+
+    /**
+     * Kinds of stock changes.
+     */
+    public enum Type {
+        ADDED,
+        UPDATED,
+        REMOVED
+    }
+
+    /**
+     * Kind of the change.
+     */
+    private Type type;
+
+    /**
+     * ID of the product.
+     */
+    private String productId;
+
+    /**
+     * Name of the product.
+     */
+    private String productName;
+
+    /**
+     * Stock of the product after the change; null when the product was removed.
+     */
+    private Integer stock;
+
+    /**
+     * ID of the branch holding the product.
+     */
+    private String branchId;
+
+    /**
+     * ID of the franchise the branch belongs to.
+     */
+    private String franchiseId;
+
+    /**
+     * Moment the change was applied.
+     */
+    private Instant timestamp;
+}
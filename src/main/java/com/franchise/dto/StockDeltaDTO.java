@@ -0,0 +1,26 @@
+package com.franchise.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Data Transfer Object for relative stock changes.
+ * Used to transfer stock delta data between layers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockDeltaDTO {
+
+    /**
+     * Amount added to the stock of the product.
+     * Negative values decrease the stock. This field is required.
+     */
+    @NotNull(message = "Delta is required")
+    private Integer delta;
+}
@@ -0,0 +1,16 @@
+package com.franchise.exception;
+
+/**
+ * Custom exception for requests carrying invalid parameters.
+ * Extends RuntimeException to indicate that this is an unchecked exception.
+ */
+public class BadRequestException extends RuntimeException {
+
+    /**
+     * Constructor for BadRequestException.
+     * @param message The detail message explaining why the request is invalid.
+     */
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
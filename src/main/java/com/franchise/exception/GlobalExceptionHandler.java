@@ -28,6 +28,51 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(body));
     }
 
+    /**
+     * Handles BadRequestException and returns a response with status 400 (Bad Request).
+     * @param ex The BadRequestException thrown.
+     * @return Mono<ResponseEntity<Map<String, Object>>> The response entity with error details.
+     */
+    @ExceptionHandler(BadRequestException.class)
+    public Mono<ResponseEntity<Map<String, Object>>> handleBadRequestException(BadRequestException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("message", ex.getMessage());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body));
+    }
+
+    /**
+     * Handles InsufficientStockException and returns a response with status 409 (Conflict).
+     * @param ex The InsufficientStockException thrown.
+     * @return Mono<ResponseEntity<Map<String, Object>>> The response entity with error details.
+     */
+    @ExceptionHandler(InsufficientStockException.class)
+    public Mono<ResponseEntity<Map<String, Object>>> handleInsufficientStockException(InsufficientStockException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("message", ex.getMessage());
+        body.put("status", HttpStatus.CONFLICT.value());
+        
+        return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(body));
+    }
+
+    /**
+     * Handles PreconditionFailedException and returns a response with status 412 (Precondition Failed).
+     * @param ex The PreconditionFailedException thrown.
+     * @return Mono<ResponseEntity<Map<String, Object>>> The response entity with error details.
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public Mono<ResponseEntity<Map<String, Object>>> handlePreconditionFailedException(PreconditionFailedException ex) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("message", ex.getMessage());
+        body.put("status", HttpStatus.PRECONDITION_FAILED.value());
+        
+        return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(body));
+    }
+
     /**
      * Handles generic exceptions and returns a response with status 500 (Internal Server Error).
      * @param ex The Exception thrown.
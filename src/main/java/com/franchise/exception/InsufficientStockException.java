@@ -0,0 +1,16 @@
+package com.franchise.exception;
+
+/**
+ * Custom exception for stock changes that would leave a product with negative stock.
+ * Extends RuntimeException to indicate that this is an unchecked exception.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    /**
+     * Constructor for InsufficientStockException.
+     * @param message The detail message explaining the reason for the exception.
+     */
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.franchise.exception;
+
+/**
+ * Custom exception for conditional writes whose If-Match tag no longer matches the stored resource.
+ * Extends RuntimeException to indicate that this is an unchecked exception.
+ */
+public class PreconditionFailedException extends RuntimeException {
+
+    /**
+     * Constructor for PreconditionFailedException.
+     * @param message The detail message explaining the reason for the exception.
+     */
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
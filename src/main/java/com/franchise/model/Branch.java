@@ -5,8 +5,10 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 
 import jakarta.validation.constraints.NotBlank;
 import java.util.ArrayList;
@@ -20,6 +22,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "branches")
+@CompoundIndex(name = "franchiseId_id", def = "{ 'franchiseId': 1, '_id': 1 }")
 public class Branch {
 
     /**
@@ -37,13 +40,20 @@ public class Branch {
 
     /**
      * List of products available in the branch.
-     * This field is a reference to the Product collection.
+     * Never stored; filled by the repositories from the products whose branchId points to this branch.
      */
-    @DBRef
+    @Transient
     private List<Product> products = new ArrayList<>();
 
     /**
      * Identifier of the franchise to which the branch belongs.
      */
     private String franchiseId;
+
+    /**
+     * Version of the branch, increased by every write.
+     * Identifies the stored state in the ETags of its reads and in the conditional writes.
+     */
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -5,8 +5,10 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 
 import jakarta.validation.constraints.NotBlank;
 import java.util.ArrayList;
@@ -33,12 +35,20 @@ public class Franchise {
      * This field is required and cannot be blank.
      */
     @NotBlank(message = "Franchise name is required")
+    @Indexed
     private String name;
 
+    /**
+     * Version of the franchise, increased by every write.
+     * Identifies the stored state in the ETags of its reads and in the conditional writes.
+     */
+    @Version
+    private Long version;
+
     /**
      * List of branches under the franchise.
-     * This field is a reference to the Branch collection.
+     * Never stored; filled by the repositories from the branches whose franchiseId points to this franchise.
      */
-    @DBRef
+    @Transient
     private List<Branch> branches = new ArrayList<>();
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.franchise.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Represents a product crossing the threshold of its low-stock rule, in either direction.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "low_stock_alerts")
+@CompoundIndex(name = "franchiseId_id", def = "{ 'franchiseId': 1, '_id': 1 }")
+public class LowStockAlert {
+
+    /**
+     * Kinds of alerts.
+     */
+    public enum Type {
+        /**
+         * The stock dropped to the threshold or below.
+         */
+        LOW_STOCK,
+        /**
+         * The stock climbed back to the recovery level.
+         */
+        RECOVERED
+    }
+
+    /**
+     * Unique identifier for the alert.
+     */
+    @Id
+    private String id;
+
+    /**
+     * Kind of the alert.
+     */
+    private Type type;
+
+    /**
+     * ID of the product.
+     */
+    private String productId;
+
+    /**
+     * Name of the product.
+     */
+    private String productName;
+
+    /**
+     * Stock of the product that raised the alert.
+     */
+    private Integer stock;
+
+    /**
+     * Threshold of the rule.
+     */
+    private Integer threshold;
+
+    /**
+     * Stock at or above which the product recovers.
+     */
+    private Integer recoveryLevel;
+
+    /**
+     * ID of the rule that raised the alert.
+     */
+    private String ruleId;
+
+    /**
+     * ID of the branch holding the product.
+     */
+    private String branchId;
+
+    /**
+     * ID of the franchise the branch belongs to.
+     */
+    private String franchiseId;
+
+    /**
+     * Moment the alert was raised.
+     */
+    private Instant timestamp;
+}
@@ -0,0 +1,87 @@
+package com.franchise.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Represents a low-stock alert rule of a branch or of a single product.
+ * A product is low on stock once its stock drops to the threshold or below, and recovers once
+ * it climbs back to the threshold plus the recovery margin, so a stock oscillating around the
+ * threshold raises a single alert.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "low_stock_rules")
+@CompoundIndex(name = "franchiseId_id", def = "{ 'franchiseId': 1, '_id': 1 }")
+public class LowStockRule {
+
+    /**
+     * What a rule applies to.
+     */
+    public enum Scope {
+        /**
+         * Every product of a branch without a rule of its own.
+         */
+        BRANCH,
+        /**
+         * A single product, overriding the rule of its branch.
+         */
+        PRODUCT
+    }
+
+    /**
+     * Unique identifier for the rule, made of its scope and target so a target has at most one rule.
+     */
+    @Id
+    private String id;
+
+    /**
+     * What the rule applies to.
+     */
+    private Scope scope;
+
+    /**
+     * ID of the branch or product the rule applies to.
+     */
+    private String targetId;
+
+    /**
+     * Identifier of the franchise the target belongs to.
+     */
+    private String franchiseId;
+
+    /**
+     * Stock at or below which the product is low on stock.
+     */
+    private Integer threshold;
+
+    /**
+     * Units above the threshold the stock must reach before the product recovers.
+     */
+    private Integer recoveryMargin;
+
+    /**
+     * Builds the ID of the rule of a target.
+     * @param scope What the rule applies to.
+     * @param targetId ID of the branch or product.
+     * @return String The rule ID.
+     */
+    public static String idOf(Scope scope, String targetId) {
+        return scope + ":" + targetId;
+    }
+
+    /**
+     * Returns the stock at or above which a low product recovers.
+     * @return int The threshold plus the recovery margin.
+     */
+    public int recoveryLevel() {
+        return threshold + recoveryMargin;
+    }
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.Min;
@@ -18,6 +20,8 @@ import jakarta.validation.constraints.NotBlank;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "products")
+@CompoundIndex(name = "branchId_stock_id", def = "{ 'branchId': 1, 'stock': -1, '_id': 1 }")
+@CompoundIndex(name = "franchiseId_id", def = "{ 'franchiseId': 1, '_id': 1 }")
 public class Product {
 
     /**
@@ -39,4 +43,21 @@ public class Product {
      */
     @Min(value = 0, message = "Stock cannot be negative")
     private Integer stock;
-}
\ No newline at end of file
+
+    /**
+     * Identifier of the branch to which the product belongs.
+     */
+    private String branchId;
+
+    /**
+     * Identifier of the franchise to which the product's branch belongs.
+     */
+    private String franchiseId;
+
+    /**
+     * Version of the product, increased by every write.
+     * Identifies the stored state in the ETags of its reads and in the conditional writes.
+     */
+    @Version
+    private Long version;
+}
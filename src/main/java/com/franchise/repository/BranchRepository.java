@@ -1,16 +1,22 @@
 package com.franchise.repository;
 
+import com.franchise.dto.InventorySummaryDTO;
+import com.franchise.dto.ProductDetailsDTO;
 import com.franchise.model.Branch;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Repository interface for Branch entities.
- * Extends ReactiveMongoRepository to provide CRUD operations.
+ * Extends ReactiveMongoRepository to provide CRUD operations and
+ * BranchRepositoryCustom to load hydrated branches.
  */
 @Repository
-public interface BranchRepository extends ReactiveMongoRepository<Branch, String> {
+public interface BranchRepository extends ReactiveMongoRepository<Branch, String>, BranchRepositoryCustom {
 
     /**
      * Custom query method to find all branches by franchise ID.
@@ -18,4 +24,102 @@ public interface BranchRepository extends ReactiveMongoRepository<Branch, String
      * @return Flux<Branch> A reactive stream of branches belonging to the specified franchise.
      */
     Flux<Branch> findByFranchiseId(String franchiseId);
-}
\ No newline at end of file
+
+    /**
+     * Custom query method to find the name and franchise of a branch without its product references.
+     * @param id The ID of the branch.
+     * @return Mono<Branch> The branch with only its ID, name, franchise ID and version populated.
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'name': 1, 'franchiseId': 1, 'version': 1 }")
+    Mono<Branch> findSummaryById(String id);
+
+    /**
+     * Custom query method to find the version of a branch, for the ETag checks.
+     * @param id The ID of the branch.
+     * @return Mono<Branch> The branch with only its ID and version populated.
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1 }")
+    Mono<Branch> findVersionById(String id);
+
+    /**
+     * Custom query method to find the version of every branch of a franchise, served by the { franchiseId, _id } index.
+     * @param franchiseId The ID of the franchise.
+     * @return Flux<Branch> The branches of the franchise with only their ID and version populated.
+     */
+    @Query(value = "{ 'franchiseId': ?0 }", fields = "{ 'version': 1 }")
+    Flux<Branch> findVersionsByFranchiseId(String franchiseId);
+
+    /**
+     * Aggregation returning the products with the highest stock of every branch of a franchise.
+     * The products of each branch are ranked inside a single $lookup on their branchId, walking
+     * the products' { branchId, stock, _id } index, so only the winning rows leave the database.
+     * Combining localField/foreignField with a pipeline needs MongoDB 5.0 or later.
+     * Products not yet backfilled with their branchId by the back-reference migration are not ranked.
+     * @param franchiseId The ID of the franchise.
+     * @param top Maximum number of products returned per branch.
+     * @return Flux<ProductDetailsDTO> A reactive stream of the top products of every branch, ordered by branch.
+     */
+    @Aggregation(pipeline = {
+            "{ $match: { franchiseId: ?0 } }",
+            "{ $sort: { _id: 1 } }",
+            "{ $project: { name: 1, branchId: { $toString: '$_id' } } }",
+            "{ $lookup: { from: 'products', localField: 'branchId', foreignField: 'branchId', pipeline: [ "
+                    + "{ $sort: { stock: -1, _id: 1 } }, "
+                    + "{ $limit: ?1 } ], as: 'topProducts' } }",
+            "{ $unwind: '$topProducts' }",
+            "{ $project: { _id: 0, productId: { $toString: '$topProducts._id' }, productName: '$topProducts.name', "
+                    + "stock: '$topProducts.stock', branchId: 1, branchName: '$name' } }"
+    })
+    Flux<ProductDetailsDTO> findTopProductsByStockPerBranch(String franchiseId, int top);
+
+    /**
+     * Aggregation computing the inventory figures of a franchise and of each of its branches.
+     * The products of each branch are read once, through a $lookup on their indexed branchId, by a
+     * $facet computing the branch counters and its out-of-stock list side by side; a second $facet
+     * then adds the franchise totals to the branch rows, so the whole summary is one document.
+     * Products with some stock at or below the threshold count as low stock, and products with
+     * no stock, or none recorded, as out of stock.
+     * Products not yet backfilled with their branchId by the back-reference migration are not counted.
+     * @param franchiseId The ID of the franchise.
+     * @param lowStockThreshold Stock at or below which an available product counts as low stock.
+     * @param outOfStockLimit Maximum number of out-of-stock products listed per branch.
+     * @return Mono<InventorySummaryDTO> The figures, without the franchise ID, name and threshold.
+     */
+    @Aggregation(pipeline = {
+            "{ $match: { franchiseId: ?0 } }",
+            "{ $sort: { _id: 1 } }",
+            "{ $project: { name: 1, branchId: { $toString: '$_id' } } }",
+            "{ $lookup: { from: 'products', localField: 'branchId', foreignField: 'branchId', pipeline: [ "
+                    + "{ $facet: { "
+                    + "stats: [ { $group: { _id: null, "
+                    + "productCount: { $sum: 1 }, "
+                    + "totalStock: { $sum: { $ifNull: [ '$stock', 0 ] } }, "
+                    + "lowStockCount: { $sum: { $cond: [ { $and: [ { $gt: [ '$stock', 0 ] }, { $lte: [ '$stock', ?1 ] } ] }, 1, 0 ] } }, "
+                    + "outOfStockCount: { $sum: { $cond: [ { $lte: [ { $ifNull: [ '$stock', 0 ] }, 0 ] }, 1, 0 ] } } } } ], "
+                    + "outOfStock: [ "
+                    + "{ $match: { $or: [ { stock: { $lte: 0 } }, { stock: null } ] } }, "
+                    + "{ $sort: { _id: 1 } }, "
+                    + "{ $limit: ?2 }, "
+                    + "{ $project: { _id: 0, productId: { $toString: '$_id' }, productName: '$name' } } ] } } ], "
+                    + "as: 'inventory' } }",
+            "{ $project: { _id: 0, branchId: 1, branchName: '$name', "
+                    + "stats: { $arrayElemAt: [ { $arrayElemAt: [ '$inventory.stats', 0 ] }, 0 ] }, "
+                    + "outOfStockProducts: { $arrayElemAt: [ '$inventory.outOfStock', 0 ] } } }",
+            "{ $facet: { "
+                    + "branches: [ { $project: { branchId: 1, branchName: 1, outOfStockProducts: 1, "
+                    + "productCount: { $ifNull: [ '$stats.productCount', 0 ] }, "
+                    + "totalStock: { $ifNull: [ '$stats.totalStock', 0 ] }, "
+                    + "lowStockCount: { $ifNull: [ '$stats.lowStockCount', 0 ] }, "
+                    + "outOfStockCount: { $ifNull: [ '$stats.outOfStockCount', 0 ] } } } ], "
+                    + "totals: [ { $group: { _id: null, branchCount: { $sum: 1 }, productCount: { $sum: '$stats.productCount' }, "
+                    + "totalStock: { $sum: '$stats.totalStock' }, lowStockCount: { $sum: '$stats.lowStockCount' }, "
+                    + "outOfStockCount: { $sum: '$stats.outOfStockCount' } } } ] } }",
+            "{ $project: { branches: 1, "
+                    + "branchCount: { $ifNull: [ { $arrayElemAt: [ '$totals.branchCount', 0 ] }, 0 ] }, "
+                    + "productCount: { $ifNull: [ { $arrayElemAt: [ '$totals.productCount', 0 ] }, 0 ] }, "
+                    + "totalStock: { $ifNull: [ { $arrayElemAt: [ '$totals.totalStock', 0 ] }, 0 ] }, "
+                    + "lowStockCount: { $ifNull: [ { $arrayElemAt: [ '$totals.lowStockCount', 0 ] }, 0 ] }, "
+                    + "outOfStockCount: { $ifNull: [ { $arrayElemAt: [ '$totals.outOfStockCount', 0 ] }, 0 ] } } }"
+    })
+    Mono<InventorySummaryDTO> summarizeInventory(String franchiseId, int lowStockThreshold, int outOfStockLimit);
+}
@@ -0,0 +1,66 @@
+package com.franchise.repository;
+
+import com.franchise.model.Branch;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for Branch entities.
+ * Loads branches together with their products using a bounded number of
+ * queries, finding the products through their indexed branchId.
+ */
+public interface BranchRepositoryCustom {
+
+    /**
+     * Finds a branch by its ID with its products already resolved.
+     * @param id The ID of the branch.
+     * @return Mono<Branch> The hydrated branch, or empty if it does not exist.
+     */
+    Mono<Branch> findHydratedById(String id);
+
+    /**
+     * Finds all branches of a franchise with their products already resolved.
+     * @param franchiseId The ID of the franchise.
+     * @return Flux<Branch> A reactive stream of hydrated branches.
+     */
+    Flux<Branch> findHydratedByFranchiseId(String franchiseId);
+
+    /**
+     * Finds all branches with their products already resolved.
+     * @return Flux<Branch> A reactive stream of hydrated branches.
+     */
+    Flux<Branch> findAllHydrated();
+
+    /**
+     * Finds one page of the branches of a franchise ordered by ID, with their products already resolved.
+     * Only the branches of the page are hydrated.
+     * @param franchiseId The ID of the franchise.
+     * @param afterId The ID the page starts after, or null for the first page.
+     * @param limit Maximum number of branches in the page.
+     * @return Mono<Slice<Branch>> The hydrated branches of the page and whether more follow.
+     */
+    Mono<Slice<Branch>> findHydratedPageByFranchiseId(String franchiseId, String afterId, int limit);
+
+    /**
+     * Finds one page of the branches of a franchise ordered by ID, reading only their ID, name, franchise ID and version.
+     * The product references are never read, so no other collection is queried.
+     * @param franchiseId The ID of the franchise.
+     * @param afterId The ID the page starts after, or null for the first page.
+     * @param limit Maximum number of branches in the page.
+     * @return Mono<Slice<Branch>> The branches of the page, with only their ID, name, franchise ID and version populated.
+     */
+    Mono<Slice<Branch>> findSummaryPageByFranchiseId(String franchiseId, String afterId, int limit);
+
+    /**
+     * Atomically renames a branch and increases its version with a single update.
+     * @param id The ID of the branch.
+     * @param name The new name.
+     * @param expectedVersions Versions the branch must have for the update to apply, or null to apply it whatever the version.
+     * @return Mono<Boolean> True if the branch exists, has an expected version and was updated.
+     */
+    Mono<Boolean> updateName(String id, String name, List<Long> expectedVersions);
+
+}
@@ -1,16 +1,18 @@
 package com.franchise.repository;
 
 import com.franchise.model.Franchise;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Mono;
 
 /**
  * Repository interface for Franchise entities.
- * Extends ReactiveMongoRepository to provide CRUD operations.
+ * Extends ReactiveMongoRepository to provide CRUD operations and
+ * FranchiseRepositoryCustom to load hydrated franchise graphs.
  */
 @Repository
-public interface FranchiseRepository extends ReactiveMongoRepository<Franchise, String> {
+public interface FranchiseRepository extends ReactiveMongoRepository<Franchise, String>, FranchiseRepositoryCustom {
 
     /**
      * Custom query method to find a franchise by its name.
@@ -18,4 +20,20 @@ public interface FranchiseRepository extends ReactiveMongoRepository<Franchise,
      * @return Mono<Franchise> A reactive stream containing the franchise with the specified name.
      */
     Mono<Franchise> findByName(String name);
+
+    /**
+     * Custom query method to find the name of a franchise without its branch references.
+     * @param id The ID of the franchise.
+     * @return Mono<Franchise> The franchise with only its ID, name and version populated.
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'name': 1, 'version': 1 }")
+    Mono<Franchise> findSummaryById(String id);
+
+    /**
+     * Custom query method to find the version of a franchise, for the ETag checks.
+     * @param id The ID of the franchise.
+     * @return Mono<Franchise> The franchise with only its ID and version populated.
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1 }")
+    Mono<Franchise> findVersionById(String id);
 }
\ No newline at end of file
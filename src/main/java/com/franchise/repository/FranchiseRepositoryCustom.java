@@ -0,0 +1,56 @@
+package com.franchise.repository;
+
+import com.franchise.model.Franchise;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for Franchise entities.
+ * Loads franchises together with their branches and products using a bounded
+ * number of queries, finding the children through their indexed back-references.
+ */
+public interface FranchiseRepositoryCustom {
+
+    /**
+     * Finds a franchise by its ID with its branches and products already resolved.
+     * @param id The ID of the franchise.
+     * @return Mono<Franchise> The hydrated franchise, or empty if it does not exist.
+     */
+    Mono<Franchise> findHydratedById(String id);
+
+    /**
+     * Finds all franchises with their branches and products already resolved.
+     * @return Flux<Franchise> A reactive stream of hydrated franchises.
+     */
+    Flux<Franchise> findAllHydrated();
+
+    /**
+     * Finds one page of franchises ordered by ID, with their branches and products already resolved.
+     * Only the franchises of the page are hydrated.
+     * @param afterId The ID the page starts after, or null for the first page.
+     * @param limit Maximum number of franchises in the page.
+     * @return Mono<Slice<Franchise>> The hydrated franchises of the page and whether more follow.
+     */
+    Mono<Slice<Franchise>> findHydratedPage(String afterId, int limit);
+
+    /**
+     * Finds one page of franchises ordered by ID, reading only their ID, name and version.
+     * The branch references are never read, so no other collection is queried.
+     * @param afterId The ID the page starts after, or null for the first page.
+     * @param limit Maximum number of franchises in the page.
+     * @return Mono<Slice<Franchise>> The franchises of the page, with only their ID, name and version populated.
+     */
+    Mono<Slice<Franchise>> findSummaryPage(String afterId, int limit);
+
+    /**
+     * Atomically renames a franchise and increases its version with a single update.
+     * @param id The ID of the franchise.
+     * @param name The new name.
+     * @param expectedVersions Versions the franchise must have for the update to apply, or null to apply it whatever the version.
+     * @return Mono<Boolean> True if the franchise exists, has an expected version and was updated.
+     */
+    Mono<Boolean> updateName(String id, String name, List<Long> expectedVersions);
+}
@@ -0,0 +1,14 @@
+package com.franchise.repository;
+
+import com.franchise.model.LowStockAlert;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for LowStockAlert entities.
+ * Extends ReactiveMongoRepository to provide CRUD operations and
+ * LowStockAlertRepositoryCustom to page through the alerts of a franchise.
+ */
+@Repository
+public interface LowStockAlertRepository extends ReactiveMongoRepository<LowStockAlert, String>, LowStockAlertRepositoryCustom {
+}
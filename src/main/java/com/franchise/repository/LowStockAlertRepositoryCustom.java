@@ -0,0 +1,21 @@
+package com.franchise.repository;
+
+import com.franchise.model.LowStockAlert;
+import org.springframework.data.domain.Slice;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom repository fragment for LowStockAlert entities.
+ * Pages through the alerts of a franchise with keyset queries on their ID.
+ */
+public interface LowStockAlertRepositoryCustom {
+
+    /**
+     * Finds one page of the alerts of a franchise ordered by ID, which is the order they were raised in.
+     * @param franchiseId The ID of the franchise.
+     * @param afterId The ID the page starts after, or null for the first page.
+     * @param limit Maximum number of alerts in the page.
+     * @return Mono<Slice<LowStockAlert>> The alerts of the page and whether more follow.
+     */
+    Mono<Slice<LowStockAlert>> findPageByFranchiseId(String franchiseId, String afterId, int limit);
+}
@@ -0,0 +1,21 @@
+package com.franchise.repository;
+
+import com.franchise.model.LowStockRule;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Repository interface for LowStockRule entities.
+ * Extends ReactiveMongoRepository to provide CRUD operations.
+ */
+@Repository
+public interface LowStockRuleRepository extends ReactiveMongoRepository<LowStockRule, String> {
+
+    /**
+     * Custom query method to find the rules of the branches and products of a franchise.
+     * @param franchiseId The ID of the franchise.
+     * @return Flux<LowStockRule> A reactive stream of the rules, ordered by ID.
+     */
+    Flux<LowStockRule> findByFranchiseIdOrderByIdAsc(String franchiseId);
+}
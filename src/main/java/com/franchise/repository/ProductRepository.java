@@ -1,13 +1,93 @@
 package com.franchise.repository;
 
 import com.franchise.model.Product;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
 
 /**
  * Repository interface for Product entities.
- * Extends ReactiveMongoRepository to provide CRUD operations.
+ * Extends ReactiveMongoRepository to provide CRUD operations and
+ * ProductRepositoryCustom to apply atomic stock updates.
  */
 @Repository
-public interface ProductRepository extends ReactiveMongoRepository<Product, String> {
-}
\ No newline at end of file
+public interface ProductRepository extends ReactiveMongoRepository<Product, String>, ProductRepositoryCustom {
+
+    /**
+     * Custom query method to find all products of a branch, served by the branchId index.
+     * @param branchId The ID of the branch.
+     * @return Flux<Product> A reactive stream of the products belonging to the specified branch.
+     */
+    Flux<Product> findByBranchId(String branchId);
+
+    /**
+     * Custom query method to find all products of a franchise, served by the franchiseId index.
+     * @param franchiseId The ID of the franchise.
+     * @return Flux<Product> A reactive stream of the products belonging to the specified franchise.
+     */
+    Flux<Product> findByFranchiseId(String franchiseId);
+
+    /**
+     * Custom query method to find the products of a branch with any of the given names, served by the branchId index.
+     * @param branchId The ID of the branch.
+     * @param names The names of the products.
+     * @return Flux<Product> The matching products of the branch.
+     */
+    Flux<Product> findByBranchIdAndNameIn(String branchId, Collection<String> names);
+
+    /**
+     * Custom query method to find the ID and name of every product of a branch, served by the branchId index.
+     * @param branchId The ID of the branch.
+     * @return Flux<Product> The products of the branch with only their ID and name populated.
+     */
+    @Query(value = "{ 'branchId': ?0 }", fields = "{ 'name': 1 }")
+    Flux<Product> findNamesByBranchId(String branchId);
+
+    /**
+     * Custom query method streaming the inventory of a franchise in ID order, served by the { franchiseId, _id } index.
+     * Only the fields of an inventory row are read, and the cursor fetches them in batches as they are consumed.
+     * @param franchiseId The ID of the franchise.
+     * @return Flux<Product> The products of the franchise with only their ID, name, stock and branch ID populated.
+     */
+    @Query(value = "{ 'franchiseId': ?0 }", fields = "{ 'name': 1, 'stock': 1, 'branchId': 1 }", sort = "{ '_id': 1 }")
+    @Meta(cursorBatchSize = 1000)
+    Flux<Product> findInventoryByFranchiseId(String franchiseId);
+
+    /**
+     * Custom query method to find the version and stock of a product, for the ETag checks.
+     * @param id The ID of the product.
+     * @return Mono<Product> The product with only its ID, version and stock populated.
+     */
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1, 'stock': 1 }")
+    Mono<Product> findVersionById(String id);
+
+    /**
+     * Custom query method to find the version of every product of a branch, served by the branchId index.
+     * @param branchId The ID of the branch.
+     * @return Flux<Product> The products of the branch with only their ID and version populated.
+     */
+    @Query(value = "{ 'branchId': ?0 }", fields = "{ 'version': 1 }")
+    Flux<Product> findVersionsByBranchId(String branchId);
+
+    /**
+     * Custom query method to find the version of every product of a franchise, served by the { franchiseId, _id } index.
+     * @param franchiseId The ID of the franchise.
+     * @return Flux<Product> The products of the franchise with only their ID and version populated.
+     */
+    @Query(value = "{ 'franchiseId': ?0 }", fields = "{ 'version': 1 }")
+    @Meta(cursorBatchSize = 1000)
+    Flux<Product> findVersionsByFranchiseId(String franchiseId);
+
+    /**
+     * Custom query method to delete a product only if it belongs to the given branch, served by the _id index.
+     * @param id The ID of the product.
+     * @param branchId The ID of the branch.
+     * @return Mono<Long> The number of deleted products, 0 if the product does not exist in the branch.
+     */
+    Mono<Long> deleteByIdAndBranchId(String id, String branchId);
+}
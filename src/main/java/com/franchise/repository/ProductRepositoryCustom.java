@@ -0,0 +1,86 @@
+package com.franchise.repository;
+
+import com.franchise.model.Product;
+import com.mongodb.bulk.BulkWriteResult;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Custom repository fragment for Product entities.
+ * Applies stock changes as single atomic findAndModify operations or unordered bulk writes,
+ * each increasing the version of the products it writes.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Stock change applied to a product by a bulk write.
+     * Exactly one of stock or delta is set.
+     * @param productId ID of the product.
+     * @param stock New absolute stock value, or null.
+     * @param delta Amount added to the stock, or null.
+     */
+    record StockChange(String productId, Integer stock, Integer delta) {
+
+        /**
+         * Combines this change with a later change of the same product.
+         * The sum is computed on longs, so a combination leaving the int range is rejected instead of wrapping around.
+         * @param next The change applied after this one.
+         * @return StockChange The combined change.
+         * @throws ArithmeticException If the combined stock or delta does not fit in an int.
+         */
+        public StockChange followedBy(StockChange next) {
+            if (next.stock() != null) {
+                return next;
+            }
+            if (stock != null) {
+                return new StockChange(productId, Math.toIntExact((long) stock + next.delta()), null);
+            }
+            return new StockChange(productId, null, Math.toIntExact((long) delta + next.delta()));
+        }
+    }
+
+    /**
+     * Atomically sets the stock of a product and increases its version.
+     * @param id The ID of the product.
+     * @param stock The new stock value.
+     * @param expectedVersions Versions the product must have for the update to apply, or null to apply it whatever the version.
+     * @return Mono<Product> The updated product, or empty if it does not exist or has another version.
+     */
+    Mono<Product> setStock(String id, Integer stock, List<Long> expectedVersions);
+
+    /**
+     * Atomically renames a product and increases its version.
+     * @param id The ID of the product.
+     * @param name The new name.
+     * @param expectedVersions Versions the product must have for the update to apply, or null to apply it whatever the version.
+     * @return Mono<Product> The updated product, or empty if it does not exist or has another version.
+     */
+    Mono<Product> setName(String id, String name, List<Long> expectedVersions);
+
+    /**
+     * Atomically adds a delta to the stock of a product and increases its version.
+     * The update only matches while the resulting stock stays between zero and Integer.MAX_VALUE.
+     * @param id The ID of the product.
+     * @param delta The amount to add, negative to decrease the stock.
+     * @param expectedVersions Versions the product must have for the update to apply, or null to apply it whatever the version.
+     * @return Mono<Product> The updated product, or empty if it does not exist, has another version or the stock would leave the range.
+     */
+    Mono<Product> incrementStock(String id, int delta, List<Long> expectedVersions);
+
+    /**
+     * Applies the given stock changes in a single unordered bulk write.
+     * Changes for missing products simply match nothing, and so do deltas that would take the stock out of range.
+     * @param changes The stock changes, at most one per product.
+     * @return Mono<BulkWriteResult> The result of the bulk write.
+     */
+    Mono<BulkWriteResult> applyStockChanges(List<StockChange> changes);
+
+    /**
+     * Inserts new products and sets the stock of existing ones in a single unordered bulk write.
+     * @param inserts The products to insert, with their IDs already assigned.
+     * @param changes The absolute stock values to set, at most one per product.
+     * @return Mono<BulkWriteResult> The result of the bulk write.
+     */
+    Mono<BulkWriteResult> applySnapshotChanges(List<Product> inserts, List<StockChange> changes);
+}
@@ -0,0 +1,135 @@
+package com.franchise.repository.impl;
+
+import com.franchise.model.Branch;
+import com.franchise.repository.BranchRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Implementation of BranchRepositoryCustom.
+ * Reads the raw branch documents and lets the DocumentGraphHydrator load
+ * their products with a single query per batch.
+ */
+@RequiredArgsConstructor
+public class BranchRepositoryCustomImpl implements BranchRepositoryCustom {
+
+    // Injecting the ReactiveMongoTemplate and DocumentGraphHydrator using constructor injection
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final DocumentGraphHydrator hydrator;
+
+    /**
+     * Finds a branch by its ID with its products already resolved.
+     * @param id The ID of the branch.
+     * @return Mono<Branch> The hydrated branch, or empty if it does not exist.
+     */
+    @Override
+    public Mono<Branch> findHydratedById(String id) {
+        return find(Query.query(Criteria.where("_id").is(id))).next();
+    }
+
+    /**
+     * Finds all branches of a franchise with their products already resolved.
+     * @param franchiseId The ID of the franchise.
+     * @return Flux<Branch> A reactive stream of hydrated branches.
+     */
+    @Override
+    public Flux<Branch> findHydratedByFranchiseId(String franchiseId) {
+        return find(Query.query(Criteria.where("franchiseId").is(franchiseId)));
+    }
+
+    /**
+     * Finds all branches with their products already resolved.
+     * @return Flux<Branch> A reactive stream of hydrated branches.
+     */
+    @Override
+    public Flux<Branch> findAllHydrated() {
+        return find(new Query());
+    }
+
+    /**
+     * Finds one page of the branches of a franchise ordered by ID, with their products already resolved.
+     * @param franchiseId The ID of the franchise.
+     * @param afterId The ID the page starts after, or null for the first page.
+     * @param limit Maximum number of branches in the page.
+     * @return Mono<Slice<Branch>> The hydrated branches of the page and whether more follow.
+     */
+    @Override
+    public Mono<Slice<Branch>> findHydratedPageByFranchiseId(String franchiseId, String afterId, int limit) {
+        Query query = Query.query(Criteria.where("franchiseId").is(franchiseId));
+        return findPage(KeysetQueries.page(query, afterId, limit), limit);
+    }
+
+    /**
+     * Finds one page of the branches of a franchise ordered by ID, reading only their ID, name, franchise ID and version.
+     * @param franchiseId The ID of the franchise.
+     * @param afterId The ID the page starts after, or null for the first page.
+     * @param limit Maximum number of branches in the page.
+     * @return Mono<Slice<Branch>> The branches of the page, with only their ID, name, franchise ID and version populated.
+     */
+    @Override
+    public Mono<Slice<Branch>> findSummaryPageByFranchiseId(String franchiseId, String afterId, int limit) {
+        Query query = KeysetQueries.page(Query.query(Criteria.where("franchiseId").is(franchiseId)), afterId, limit);
+        query.fields().include("name", "franchiseId", "version");
+        return mongoTemplate.find(query, Branch.class)
+                .collectList()
+                .map(branches -> KeysetQueries.toSlice(branches, limit));
+    }
+
+    /**
+     * Atomically renames a branch and increases its version with a single update.
+     * @param id The ID of the branch.
+     * @param name The new name.
+     * @param expectedVersions Versions the branch must have for the update to apply, or null to apply it whatever the version.
+     * @return Mono<Boolean> True if the branch exists, has an expected version and was updated.
+     */
+    @Override
+    public Mono<Boolean> updateName(String id, String name, List<Long> expectedVersions) {
+        return mongoTemplate.updateFirst(VersionedUpdates.byId(id, expectedVersions),
+                        VersionedUpdates.bump(new Update().set("name", name)), Branch.class)
+                .map(result -> result.getMatchedCount() > 0);
+    }
+
+    /**
+     * Runs the given query against the branch collection and hydrates the results.
+     * @param query Query selecting the branches.
+     * @return Flux<Branch> The hydrated branches.
+     */
+    private Flux<Branch> find(Query query) {
+        return read(mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Branch.class)));
+    }
+
+    /**
+     * Runs a keyset page query and hydrates the branches of the page.
+     * @param query Query built with KeysetQueries.page.
+     * @param limit Maximum number of branches in the page.
+     * @return Mono<Slice<Branch>> The hydrated branches of the page and whether more follow.
+     */
+    private Mono<Slice<Branch>> findPage(Query query, int limit) {
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Branch.class))
+                .collectList()
+                .map(documents -> KeysetQueries.toSlice(documents, limit))
+                .flatMap(page -> read(Flux.fromIterable(page.getContent()))
+                        .collectList()
+                        .map(content -> new SliceImpl<>(content, page.getPageable(), page.hasNext())));
+    }
+
+    /**
+     * Hydrates raw branch documents and maps them to entities.
+     * @param branches Raw branch documents.
+     * @return Flux<Branch> The hydrated branches.
+     */
+    private Flux<Branch> read(Flux<Document> branches) {
+        return hydrator.hydrateBranches(branches)
+                .map(hydrator::readBranch);
+    }
+}
@@ -0,0 +1,194 @@
+package com.franchise.repository.impl;
+
+import com.franchise.model.Branch;
+import com.franchise.model.Franchise;
+import com.franchise.model.Product;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Embeds the branches and products of raw franchise and branch documents in bulk.
+ * Children are found through their indexed back-reference (Branch.franchiseId, Product.branchId)
+ * and every level of the graph is loaded with a single $in query, so hydrating a batch of
+ * franchises costs one query for the branches and one for the products no matter how many
+ * children they have. Children are embedded in ID order, which is their creation order, and
+ * copied into the transient lists of the entities by readFranchise and readBranch.
+ * Branches still holding a legacy DBRef array, not yet migrated by the back-reference
+ * migration, also get the referenced products that have no branchId yet.
+ */
+@Component
+@RequiredArgsConstructor
+public class DocumentGraphHydrator {
+
+    /**
+     * Maximum number of root documents hydrated together.
+     * Keeps the $in lists of a single round trip bounded when streaming whole collections.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    private static final String BRANCHES_FIELD = "branches";
+    private static final String PRODUCTS_FIELD = "products";
+    private static final Comparator<Document> ID_ORDER = Comparator.comparing(document -> document.get("_id").toString());
+
+    // Injecting the ReactiveMongoTemplate using constructor injection
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Embeds the branches of the given franchise documents, with their products.
+     * @param franchises Raw franchise documents.
+     * @return Flux<Document> The franchise documents with their branches and products embedded.
+     */
+    public Flux<Document> hydrateFranchises(Flux<Document> franchises) {
+        return franchises
+                .buffer(BATCH_SIZE)
+                .concatMap(batch -> findChildren(Branch.class, "franchiseId", batch, null)
+                        .flatMap(this::hydrateBranchBatch)
+                        .map(branches -> embed(batch, BRANCHES_FIELD, groupByOwner(branches, "franchiseId", Map.of())))
+                        .flatMapIterable(Function.identity()));
+    }
+
+    /**
+     * Embeds the products of the given branch documents.
+     * @param branches Raw branch documents.
+     * @return Flux<Document> The branch documents with their products embedded.
+     */
+    public Flux<Document> hydrateBranches(Flux<Document> branches) {
+        return branches
+                .buffer(BATCH_SIZE)
+                .concatMap(this::hydrateBranchBatch)
+                .flatMapIterable(Function.identity());
+    }
+
+    /**
+     * Maps a hydrated franchise document to its entity, with its branches and their products.
+     * @param document Franchise document returned by hydrateFranchises.
+     * @return Franchise The franchise.
+     */
+    public Franchise readFranchise(Document document) {
+        Franchise franchise = mongoTemplate.getConverter().read(Franchise.class, document);
+        franchise.setBranches(document.getList(BRANCHES_FIELD, Document.class, List.of()).stream()
+                .map(this::readBranch)
+                .collect(Collectors.toCollection(ArrayList::new)));
+        return franchise;
+    }
+
+    /**
+     * Maps a hydrated branch document to its entity, with its products.
+     * @param document Branch document returned by hydrateBranches.
+     * @return Branch The branch.
+     */
+    public Branch readBranch(Document document) {
+        Branch branch = mongoTemplate.getConverter().read(Branch.class, document);
+        branch.setProducts(document.getList(PRODUCTS_FIELD, Document.class, List.of()).stream()
+                .map(product -> mongoTemplate.getConverter().read(Product.class, product))
+                .collect(Collectors.toCollection(ArrayList::new)));
+        return branch;
+    }
+
+    /**
+     * Embeds the products of a batch of branch documents, loading all of them with a single query.
+     * @param batch Raw branch documents.
+     * @return Mono<List<Document>> The branch documents with their products embedded.
+     */
+    private Mono<List<Document>> hydrateBranchBatch(List<Document> batch) {
+        Map<Object, String> legacyOwners = legacyProductOwners(batch);
+        Criteria legacy = legacyOwners.isEmpty()
+                ? null
+                : Criteria.where("_id").in(legacyOwners.keySet()).and("branchId").exists(false);
+        return findChildren(Product.class, "branchId", batch, legacy)
+                .map(products -> embed(batch, PRODUCTS_FIELD, groupByOwner(products, "branchId", legacyOwners)));
+    }
+
+    /**
+     * Loads every child pointing to one of the given parents with a single $in query.
+     * @param child Entity stored in the child collection.
+     * @param backReference Name of the child field holding the parent ID.
+     * @param parents Parent documents.
+     * @param orElse Additional children to load, matched with $or, or null.
+     * @return Mono<List<Document>> The child documents.
+     */
+    private Mono<List<Document>> findChildren(Class<?> child, String backReference, List<Document> parents, Criteria orElse) {
+        if (parents.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        Set<String> parentIds = new LinkedHashSet<>();
+        parents.forEach(parent -> parentIds.add(parent.get("_id").toString()));
+        Criteria byParent = Criteria.where(backReference).in(parentIds);
+        Query query = Query.query(orElse == null ? byParent : new Criteria().orOperator(byParent, orElse));
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(child)).collectList();
+    }
+
+    /**
+     * Groups child documents by the ID of their parent, in ID order.
+     * @param children Child documents.
+     * @param backReference Name of the child field holding the parent ID.
+     * @param legacyOwners Parent ID of the legacy children lacking the back-reference, keyed by child ID.
+     * @return Map<String, List<Document>> The children keyed by parent ID.
+     */
+    private static Map<String, List<Document>> groupByOwner(List<Document> children, String backReference,
+                                                            Map<Object, String> legacyOwners) {
+        Map<String, List<Document>> byOwner = new HashMap<>();
+        children.stream().sorted(ID_ORDER).forEach(child -> {
+            String owner = child.getString(backReference);
+            if (owner == null) {
+                owner = legacyOwners.get(child.get("_id"));
+            }
+            if (owner != null) {
+                byOwner.computeIfAbsent(owner, id -> new ArrayList<>()).add(child);
+            }
+        });
+        return byOwner;
+    }
+
+    /**
+     * Sets the children of every document in the batch.
+     * @param batch Parent documents.
+     * @param field Name of the field the children are embedded in.
+     * @param children Child documents keyed by parent ID.
+     * @return List<Document> The documents of the batch, in their original order.
+     */
+    private static List<Document> embed(List<Document> batch, String field, Map<String, List<Document>> children) {
+        for (Document document : batch) {
+            document.put(field, children.getOrDefault(document.get("_id").toString(), List.of()));
+        }
+        return batch;
+    }
+
+    /**
+     * Maps the products referenced by the legacy DBRef arrays of a batch to their branch.
+     * @param batch Raw branch documents.
+     * @return Map<Object, String> The ID of the owning branch, keyed by stored product ID.
+     */
+    private static Map<Object, String> legacyProductOwners(List<Document> batch) {
+        Map<Object, String> owners = new HashMap<>();
+        for (Document branch : batch) {
+            if (branch.get(PRODUCTS_FIELD) instanceof Collection<?> references) {
+                String branchId = branch.get("_id").toString();
+                for (Object reference : references) {
+                    Object id = DocumentReferences.referencedId(reference);
+                    if (id != null) {
+                        owners.put(id, branchId);
+                    }
+                }
+            }
+        }
+        return owners;
+    }
+}
@@ -0,0 +1,40 @@
+package com.franchise.repository.impl;
+
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+/**
+ * Helpers for building the stored form of document references.
+ */
+public final class DocumentReferences {
+
+    private DocumentReferences() {
+    }
+
+    /**
+     * Converts an entity ID into the value stored in MongoDB.
+     * Generated IDs are stored as ObjectIds, so valid hex strings are converted back.
+     * @param id The entity ID.
+     * @return Object The stored ID value.
+     */
+    public static Object toId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+
+    /**
+     * Extracts the referenced ID of a stored reference.
+     * Raw reads decode DBRefs as plain documents holding $ref and $id, so both forms are accepted.
+     * @param reference The stored reference.
+     * @return Object The referenced ID, or null if the value is not a reference.
+     */
+    public static Object referencedId(Object reference) {
+        if (reference instanceof DBRef dbRef) {
+            return dbRef.getId();
+        }
+        if (reference instanceof Document document) {
+            return document.get("$id");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,122 @@
+package com.franchise.repository.impl;
+
+import com.franchise.model.Franchise;
+import com.franchise.repository.FranchiseRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Implementation of FranchiseRepositoryCustom.
+ * Reads the raw franchise documents and lets the DocumentGraphHydrator load
+ * their branches and products with one query per level.
+ */
+@RequiredArgsConstructor
+public class FranchiseRepositoryCustomImpl implements FranchiseRepositoryCustom {
+
+    // Injecting the ReactiveMongoTemplate and DocumentGraphHydrator using constructor injection
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final DocumentGraphHydrator hydrator;
+
+    /**
+     * Finds a franchise by its ID with its branches and products already resolved.
+     * @param id The ID of the franchise.
+     * @return Mono<Franchise> The hydrated franchise, or empty if it does not exist.
+     */
+    @Override
+    public Mono<Franchise> findHydratedById(String id) {
+        return find(Query.query(Criteria.where("_id").is(id))).next();
+    }
+
+    /**
+     * Finds all franchises with their branches and products already resolved.
+     * @return Flux<Franchise> A reactive stream of hydrated franchises.
+     */
+    @Override
+    public Flux<Franchise> findAllHydrated() {
+        return find(new Query());
+    }
+
+    /**
+     * Finds one page of franchises ordered by ID, with their branches and products already resolved.
+     * @param afterId The ID the page starts after, or null for the first page.
+     * @param limit Maximum number of franchises in the page.
+     * @return Mono<Slice<Franchise>> The hydrated franchises of the page and whether more follow.
+     */
+    @Override
+    public Mono<Slice<Franchise>> findHydratedPage(String afterId, int limit) {
+        return findPage(KeysetQueries.page(new Query(), afterId, limit), limit);
+    }
+
+    /**
+     * Finds one page of franchises ordered by ID, reading only their ID, name and version.
+     * @param afterId The ID the page starts after, or null for the first page.
+     * @param limit Maximum number of franchises in the page.
+     * @return Mono<Slice<Franchise>> The franchises of the page, with only their ID, name and version populated.
+     */
+    @Override
+    public Mono<Slice<Franchise>> findSummaryPage(String afterId, int limit) {
+        Query query = KeysetQueries.page(new Query(), afterId, limit);
+        query.fields().include("name", "version");
+        return mongoTemplate.find(query, Franchise.class)
+                .collectList()
+                .map(franchises -> KeysetQueries.toSlice(franchises, limit));
+    }
+
+    /**
+     * Atomically renames a franchise and increases its version with a single update.
+     * @param id The ID of the franchise.
+     * @param name The new name.
+     * @param expectedVersions Versions the franchise must have for the update to apply, or null to apply it whatever the version.
+     * @return Mono<Boolean> True if the franchise exists, has an expected version and was updated.
+     */
+    @Override
+    public Mono<Boolean> updateName(String id, String name, List<Long> expectedVersions) {
+        return mongoTemplate.updateFirst(VersionedUpdates.byId(id, expectedVersions),
+                        VersionedUpdates.bump(new Update().set("name", name)), Franchise.class)
+                .map(result -> result.getMatchedCount() > 0);
+    }
+
+    /**
+     * Runs the given query against the franchise collection and hydrates the results.
+     * @param query Query selecting the franchises.
+     * @return Flux<Franchise> The hydrated franchises.
+     */
+    private Flux<Franchise> find(Query query) {
+        return read(mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Franchise.class)));
+    }
+
+    /**
+     * Runs a keyset page query and hydrates the franchises of the page.
+     * @param query Query built with KeysetQueries.page.
+     * @param limit Maximum number of franchises in the page.
+     * @return Mono<Slice<Franchise>> The hydrated franchises of the page and whether more follow.
+     */
+    private Mono<Slice<Franchise>> findPage(Query query, int limit) {
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Franchise.class))
+                .collectList()
+                .map(documents -> KeysetQueries.toSlice(documents, limit))
+                .flatMap(page -> read(Flux.fromIterable(page.getContent()))
+                        .collectList()
+                        .map(content -> new SliceImpl<>(content, page.getPageable(), page.hasNext())));
+    }
+
+    /**
+     * Hydrates raw franchise documents and maps them to entities.
+     * @param franchises Raw franchise documents.
+     * @return Flux<Franchise> The hydrated franchises.
+     */
+    private Flux<Franchise> read(Flux<Document> franchises) {
+        return hydrator.hydrateFranchises(franchises)
+                .map(hydrator::readFranchise);
+    }
+}
@@ -0,0 +1,48 @@
+package com.franchise.repository.impl;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+/**
+ * Helpers for reading pages ordered by _id.
+ * A page reads one document past its limit, so whether another page follows is known
+ * without counting the collection.
+ */
+final class KeysetQueries {
+
+    private KeysetQueries() {
+    }
+
+    /**
+     * Restricts a query to the page following the given ID.
+     * @param query Query selecting the documents.
+     * @param afterId The ID the page starts after, or null for the first page.
+     * @param limit Maximum number of documents in the page.
+     * @return Query The query, sorted by _id and limited to one document past the page.
+     */
+    static Query page(Query query, String afterId, int limit) {
+        if (afterId != null) {
+            // The query mapper only converts equality matches on _id, so the range bound is converted here
+            query.addCriteria(Criteria.where("_id").gt(DocumentReferences.toId(afterId)));
+        }
+        return query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit + 1);
+    }
+
+    /**
+     * Builds the slice of a page read with {@link #page(Query, String, int)}.
+     * @param rows The documents read, including the one past the page if there was any.
+     * @param limit Maximum number of documents in the page.
+     * @param <T> Type of the documents.
+     * @return Slice<T> The documents of the page and whether more follow.
+     */
+    static <T> Slice<T> toSlice(List<T> rows, int limit) {
+        boolean hasNext = rows.size() > limit;
+        return new SliceImpl<>(hasNext ? rows.subList(0, limit) : rows, PageRequest.ofSize(limit), hasNext);
+    }
+}
@@ -0,0 +1,36 @@
+package com.franchise.repository.impl;
+
+import com.franchise.model.LowStockAlert;
+import com.franchise.repository.LowStockAlertRepositoryCustom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of LowStockAlertRepositoryCustom.
+ * Every page is a single range query on the { franchiseId, _id } index.
+ */
+@RequiredArgsConstructor
+public class LowStockAlertRepositoryCustomImpl implements LowStockAlertRepositoryCustom {
+
+    // Injecting the ReactiveMongoTemplate using constructor injection
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Finds one page of the alerts of a franchise ordered by ID, which is the order they were raised in.
+     * @param franchiseId The ID of the franchise.
+     * @param afterId The ID the page starts after, or null for the first page.
+     * @param limit Maximum number of alerts in the page.
+     * @return Mono<Slice<LowStockAlert>> The alerts of the page and whether more follow.
+     */
+    @Override
+    public Mono<Slice<LowStockAlert>> findPageByFranchiseId(String franchiseId, String afterId, int limit) {
+        Query query = KeysetQueries.page(Query.query(Criteria.where("franchiseId").is(franchiseId)), afterId, limit);
+        return mongoTemplate.find(query, LowStockAlert.class)
+                .collectList()
+                .map(alerts -> KeysetQueries.toSlice(alerts, limit));
+    }
+}
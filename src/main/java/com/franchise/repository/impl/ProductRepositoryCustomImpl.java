@@ -0,0 +1,131 @@
+package com.franchise.repository.impl;
+
+import com.franchise.model.Product;
+import com.franchise.repository.ProductRepositoryCustom;
+import com.mongodb.bulk.BulkWriteResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Implementation of ProductRepositoryCustom.
+ * Every method is a single round trip: findAndModify for single products, bulkWrite for batches.
+ * Every update also increases the version of the products it writes.
+ */
+@RequiredArgsConstructor
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    // Injecting the ReactiveMongoTemplate using constructor injection
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * Atomically sets the stock of a product and increases its version.
+     * @param id The ID of the product.
+     * @param stock The new stock value.
+     * @param expectedVersions Versions the product must have for the update to apply, or null to apply it whatever the version.
+     * @return Mono<Product> The updated product, or empty if it does not exist or has another version.
+     */
+    @Override
+    public Mono<Product> setStock(String id, Integer stock, List<Long> expectedVersions) {
+        return mongoTemplate.findAndModify(VersionedUpdates.byId(id, expectedVersions),
+                VersionedUpdates.bump(new Update().set("stock", stock)),
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    /**
+     * Atomically renames a product and increases its version.
+     * @param id The ID of the product.
+     * @param name The new name.
+     * @param expectedVersions Versions the product must have for the update to apply, or null to apply it whatever the version.
+     * @return Mono<Product> The updated product, or empty if it does not exist or has another version.
+     */
+    @Override
+    public Mono<Product> setName(String id, String name, List<Long> expectedVersions) {
+        return mongoTemplate.findAndModify(VersionedUpdates.byId(id, expectedVersions),
+                VersionedUpdates.bump(new Update().set("name", name)),
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    /**
+     * Atomically adds a delta to the stock of a product and increases its version.
+     * The update only matches while the resulting stock stays between zero and Integer.MAX_VALUE.
+     * @param id The ID of the product.
+     * @param delta The amount to add, negative to decrease the stock.
+     * @param expectedVersions Versions the product must have for the update to apply, or null to apply it whatever the version.
+     * @return Mono<Product> The updated product, or empty if it does not exist, has another version or the stock would leave the range.
+     */
+    @Override
+    public Mono<Product> incrementStock(String id, int delta, List<Long> expectedVersions) {
+        Query query = VersionedUpdates.byId(id, expectedVersions);
+        guardStock(query, delta);
+        return mongoTemplate.findAndModify(query, VersionedUpdates.bump(new Update().inc("stock", delta)),
+                FindAndModifyOptions.options().returnNew(true), Product.class);
+    }
+
+    /**
+     * Restricts a query to the products whose stock stays in range once a delta is added.
+     * A decrease needs enough stock; an increase must not pass Integer.MAX_VALUE, beyond which
+     * MongoDB would silently store the field as a 64-bit integer that no longer maps to the entity.
+     * The bounds are computed on longs, since -Integer.MIN_VALUE does not fit in an int.
+     * @param query The query.
+     * @param delta The amount added to the stock.
+     */
+    private static void guardStock(Query query, int delta) {
+        if (delta < 0) {
+            query.addCriteria(Criteria.where("stock").gte(-(long) delta));
+        } else if (delta > 0) {
+            query.addCriteria(Criteria.where("stock").lte((long) Integer.MAX_VALUE - delta));
+        }
+    }
+
+    /**
+     * Applies the given stock changes in a single unordered bulk write.
+     * Changes for missing products simply match nothing, and so do deltas that would take the stock
+     * out of range, which are left for the caller to detect when reading the products back.
+     * @param changes The stock changes, at most one per product.
+     * @return Mono<BulkWriteResult> The result of the bulk write.
+     */
+    @Override
+    public Mono<BulkWriteResult> applyStockChanges(List<StockChange> changes) {
+        ReactiveBulkOperations operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, Product.class);
+        for (StockChange change : changes) {
+            Query query = Query.query(Criteria.where("_id").is(change.productId()));
+            Update update;
+            if (change.stock() != null) {
+                update = new Update().set("stock", change.stock());
+            } else {
+                guardStock(query, change.delta());
+                update = new Update().inc("stock", change.delta());
+            }
+            operations.updateOne(query, VersionedUpdates.bump(update));
+        }
+        return operations.execute();
+    }
+
+    /**
+     * Inserts new products and sets the stock of existing ones in a single unordered bulk write.
+     * Bulk inserts do not initialize the version, so the inserted products get version 0 here.
+     * @param inserts The products to insert, with their IDs already assigned.
+     * @param changes The absolute stock values to set, at most one per product.
+     * @return Mono<BulkWriteResult> The result of the bulk write.
+     */
+    @Override
+    public Mono<BulkWriteResult> applySnapshotChanges(List<Product> inserts, List<StockChange> changes) {
+        ReactiveBulkOperations operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, Product.class);
+        inserts.forEach(product -> product.setVersion(0L));
+        operations.insert(inserts);
+        for (StockChange change : changes) {
+            operations.updateOne(Query.query(Criteria.where("_id").is(change.productId())),
+                    VersionedUpdates.bump(new Update().set("stock", change.stock())));
+        }
+        return operations.execute();
+    }
+}
@@ -0,0 +1,50 @@
+package com.franchise.repository.impl;
+
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers for the updates of versioned documents.
+ * Every update increases the version explicitly, bulk writes included, which Spring Data only
+ * does by itself for single updates. A conditional update also matches on the expected versions,
+ * so checking and writing stay a single atomic operation.
+ */
+final class VersionedUpdates {
+
+    static final String VERSION_FIELD = "version";
+
+    private VersionedUpdates() {
+    }
+
+    /**
+     * Selects a document by ID, only while it has one of the expected versions.
+     * Version 0 also matches documents written before versioning, which have no version at all.
+     * @param id The ID of the document.
+     * @param expectedVersions The versions the document must have, or null to match any version.
+     * @return Query The query.
+     */
+    static Query byId(String id, List<Long> expectedVersions) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersions != null) {
+            List<Long> versions = new ArrayList<>(expectedVersions);
+            if (versions.contains(0L)) {
+                versions.add(null);
+            }
+            criteria = criteria.and(VERSION_FIELD).in(versions);
+        }
+        return Query.query(criteria);
+    }
+
+    /**
+     * Adds the version increase to an update.
+     * @param update The update.
+     * @return Update The same update, also increasing the version.
+     */
+    static Update bump(Update update) {
+        return update.inc(VERSION_FIELD, 1);
+    }
+}
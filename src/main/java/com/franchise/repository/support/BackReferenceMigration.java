@@ -0,0 +1,223 @@
+package com.franchise.repository.support;
+
+import com.franchise.config.MigrationProperties;
+import com.franchise.model.Branch;
+import com.franchise.model.Franchise;
+import com.franchise.model.Product;
+import com.franchise.repository.impl.DocumentReferences;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Migrates the legacy DBRef arrays (Franchise.branches, Branch.products) to back-references.
+ * Branches missing their franchise ID get it first, then products get the IDs of their branch and
+ * of the franchise of that branch, and the arrays are then removed, one batch of parents at a time. The migration is online: the
+ * DocumentGraphHydrator still reads the arrays of the parents not migrated yet, and every step is
+ * idempotent, so an interrupted migration simply resumes on the next startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BackReferenceMigration {
+
+    private static final String LEGACY_INDEX = "products_ref";
+
+    // Injecting the ReactiveMongoTemplate and MigrationProperties using constructor injection
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final MigrationProperties properties;
+
+    /**
+     * Runs the migration in the background once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isBackReferencesOnStartup()) {
+            migrate().subscribe(
+                    null,
+                    error -> log.error("Failed to migrate the DBRef arrays to back-references", error));
+        }
+    }
+
+    /**
+     * Migrates the franchise arrays before the branch arrays, so the products copy the franchise ID
+     * of branches already migrated, then repairs the products left without one and drops the index
+     * of the product references.
+     * @return Mono<Void> A Mono signaling when no array is left.
+     */
+    public Mono<Void> migrate() {
+        return migrateArrays(Franchise.class, "branches", Branch.class, "franchiseId", false)
+                .doOnNext(count -> logMigrated(count, "franchises", "branches"))
+                .then(migrateArrays(Branch.class, "products", Product.class, "branchId", true))
+                .doOnNext(count -> logMigrated(count, "branches", "products"))
+                .then(repairProductFranchises())
+                .doOnNext(count -> {
+                    if (count > 0) {
+                        log.info("Restored the franchise ID of {} products", count);
+                    }
+                })
+                .then(dropLegacyIndex());
+    }
+
+    /**
+     * Moves the references of one kind of parent into its children and removes the parent arrays.
+     * @param parent Entity holding the DBRef array.
+     * @param field Name of the DBRef array field.
+     * @param child Entity referenced by the array.
+     * @param backReference Name of the child field receiving the parent ID.
+     * @param withFranchise Whether the children also receive the franchise ID of the parent.
+     * @return Mono<Long> Number of parents migrated.
+     */
+    private Mono<Long> migrateArrays(Class<?> parent, String field, Class<?> child, String backReference,
+                                     boolean withFranchise) {
+        Query query = Query.query(Criteria.where(field).exists(true));
+        query.fields().include(field, "franchiseId");
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(parent))
+                .buffer(properties.getBatchSize())
+                .concatMap(batch -> backfill(batch, field, child, backReference, withFranchise)
+                        .then(removeArrays(parent, field, batch))
+                        .thenReturn((long) batch.size()))
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Writes the back-reference of every child referenced by a batch of parents with a single bulk write.
+     * Children that already have one are left untouched, unless they still lack the franchise ID they
+     * should receive; the others also get their version increased.
+     * @param batch Parent documents.
+     * @param field Name of the DBRef array field.
+     * @param child Entity referenced by the array.
+     * @param backReference Name of the child field receiving the parent ID.
+     * @param withFranchise Whether the children also receive the franchise ID of the parent.
+     * @return Mono<Void> A Mono signaling when the children are updated.
+     */
+    private Mono<Void> backfill(List<Document> batch, String field, Class<?> child, String backReference,
+                                boolean withFranchise) {
+        ReactiveBulkOperations operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, child);
+        int updates = 0;
+        for (Document document : batch) {
+            Update update = new Update().set(backReference, document.get("_id").toString()).inc("version", 1);
+            if (withFranchise) {
+                update.set("franchiseId", document.getString("franchiseId"));
+            }
+            for (List<Object> ids : partition(referencedIds(document, field))) {
+                Criteria pending = Criteria.where("_id").in(ids).andOperator(pending(backReference, withFranchise));
+                operations.updateMulti(Query.query(pending), update);
+                updates++;
+            }
+        }
+        return updates == 0 ? Mono.empty() : operations.execute().then();
+    }
+
+    /**
+     * Matches the children still waiting for their back-reference.
+     * @param backReference Name of the child field receiving the parent ID.
+     * @param withFranchise Whether the children also receive the franchise ID of the parent.
+     * @return Criteria Children without the back-reference, or also without a franchise ID (missing or null).
+     */
+    private static Criteria pending(String backReference, boolean withFranchise) {
+        Criteria missing = Criteria.where(backReference).exists(false);
+        return withFranchise ? new Criteria().orOperator(missing, Criteria.where("franchiseId").is(null)) : missing;
+    }
+
+    /**
+     * Copies the franchise ID of their branch into the products that have a branch but no franchise,
+     * such as those migrated before their branch knew its franchise.
+     * @return Mono<Long> Number of products repaired.
+     */
+    private Mono<Long> repairProductFranchises() {
+        Query orphans = Query.query(Criteria.where("branchId").ne(null).and("franchiseId").is(null));
+        return mongoTemplate.findDistinct(orphans, "branchId", Product.class, String.class)
+                .buffer(properties.getBatchSize())
+                .concatMap(branchIds -> {
+                    Query branches = Query.query(Criteria.where("_id").in(branchIds).and("franchiseId").ne(null));
+                    branches.fields().include("franchiseId");
+                    return mongoTemplate.find(branches, Branch.class);
+                })
+                .concatMap(branch -> mongoTemplate.updateMulti(
+                        Query.query(Criteria.where("branchId").is(branch.getId()).and("franchiseId").is(null)),
+                        new Update().set("franchiseId", branch.getFranchiseId()).inc("version", 1),
+                        Product.class))
+                .map(UpdateResult::getModifiedCount)
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Removes the DBRef arrays of a batch of parents.
+     * @param parent Entity holding the DBRef array.
+     * @param field Name of the DBRef array field.
+     * @param batch Parent documents.
+     * @return Mono<Void> A Mono signaling when the arrays are removed.
+     */
+    private Mono<Void> removeArrays(Class<?> parent, String field, List<Document> batch) {
+        List<Object> ids = batch.stream().map(document -> document.get("_id")).toList();
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids)), new Update().unset(field),
+                        mongoTemplate.getCollectionName(parent))
+                .then();
+    }
+
+    /**
+     * Drops the index of the product references, which nothing queries anymore.
+     * @return Mono<Void> A Mono signaling when the index is gone.
+     */
+    private Mono<Void> dropLegacyIndex() {
+        return mongoTemplate.indexOps(Branch.class).getIndexInfo()
+                .filter(index -> index.getName().equals(LEGACY_INDEX))
+                .concatMap(index -> mongoTemplate.indexOps(Branch.class).dropIndex(LEGACY_INDEX))
+                .then();
+    }
+
+    /**
+     * Extracts the referenced IDs of a DBRef array field.
+     * @param document Document holding the references.
+     * @param field Name of the DBRef array field.
+     * @return List<Object> The referenced IDs.
+     */
+    private static List<Object> referencedIds(Document document, String field) {
+        List<Object> ids = new ArrayList<>();
+        if (document.get(field) instanceof Collection<?> references) {
+            for (Object reference : references) {
+                Object id = DocumentReferences.referencedId(reference);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Splits IDs into lists of at most the batch size, so a huge array never becomes a single huge $in.
+     * @param ids The IDs.
+     * @return List<List<Object>> The chunks.
+     */
+    private List<List<Object>> partition(List<Object> ids) {
+        List<List<Object>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + properties.getBatchSize())));
+        }
+        return chunks;
+    }
+
+    private static void logMigrated(long count, String parents, String children) {
+        if (count > 0) {
+            log.info("Migrated the {} references of {} {} to back-references", children, count, parents);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.franchise.repository.support;
+
+import com.franchise.config.IndexProperties;
+import com.franchise.model.Branch;
+import com.franchise.model.Franchise;
+import com.franchise.model.LowStockAlert;
+import com.franchise.model.LowStockRule;
+import com.franchise.model.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared on the entities once the application has started.
+ * Index creation is idempotent, so existing indexes are left untouched.
+ * That every repository query is served by these indexes is checked by RepositoryQueryPlanTest.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndexInitializer {
+
+    private static final List<Class<?>> ENTITIES = List.of(Franchise.class, Branch.class, Product.class,
+            LowStockRule.class, LowStockAlert.class);
+
+    // Injecting the ReactiveMongoTemplate and IndexProperties using constructor injection
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final IndexProperties properties;
+
+    /**
+     * Creates the indexes once the application has started, if enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isCreateOnStartup()) {
+            ensureIndexes().subscribe(
+                    null,
+                    error -> log.error("Failed to create the MongoDB indexes", error));
+        }
+    }
+
+    /**
+     * Creates every index declared on the entities through @Indexed and @CompoundIndex.
+     * @return Mono<Void> A Mono signaling when all indexes exist.
+     */
+    public Mono<Void> ensureIndexes() {
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        return Flux.fromIterable(ENTITIES)
+                .concatMap(entity -> Flux.fromIterable(resolver.resolveIndexFor(entity))
+                        .concatMap(index -> mongoTemplate.indexOps(entity).ensureIndex(index))
+                        .doOnNext(name -> log.debug("Ensured index {} on {}", name, mongoTemplate.getCollectionName(entity))))
+                .then();
+    }
+}
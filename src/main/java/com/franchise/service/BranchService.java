@@ -1,8 +1,9 @@
 package com.franchise.service;
 
 import com.franchise.dto.BranchDTO;
+import com.franchise.dto.BranchSummaryDTO;
+import com.franchise.dto.PageDTO;
 import com.franchise.model.Branch;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -23,9 +24,10 @@ public interface BranchService {
      * Updates the name of a specific branch.
      * @param id ID of the branch to be updated.
      * @param newName New name for the branch.
+     * @param ifMatch If-Match header of the request, or null for an unconditional update.
      * @return Mono<Branch> The updated branch.
      */
-    Mono<Branch> updateBranchName(String id, String newName);
+    Mono<Branch> updateBranchName(String id, String newName, String ifMatch);
 
     /**
      * Retrieves a branch by its ID.
@@ -35,9 +37,41 @@ public interface BranchService {
     Mono<Branch> getBranchById(String id);
 
     /**
-     * Retrieves all branches of a specific franchise.
+     * Computes the ETag of a branch and its products from version-only projections, without hydrating it.
+     * @param id ID of the branch.
+     * @return Mono<String> The current ETag of the branch, or empty if it does not exist.
+     */
+    Mono<String> getBranchTag(String id);
+
+    /**
+     * Retrieves one page of the branches of a specific franchise, ordered by ID.
+     * @param franchiseId ID of the franchise.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Maximum number of branches in the page, or null to use the default.
+     * @return Mono<PageDTO<Branch>> The branches of the page and the cursor of the next one.
+     */
+    Mono<PageDTO<Branch>> getBranchesByFranchiseId(String franchiseId, String after, Integer limit);
+
+    /**
+     * Retrieves the summary of a branch, without its products.
+     * @param id ID of the branch to be retrieved.
+     * @return Mono<BranchSummaryDTO> The summary of the branch.
+     */
+    Mono<BranchSummaryDTO> getBranchSummaryById(String id);
+
+    /**
+     * Computes the ETag of the summary of a branch from a version-only projection.
+     * @param id ID of the branch.
+     * @return Mono<String> The current ETag of the summary, or empty if the branch does not exist.
+     */
+    Mono<String> getBranchSummaryTag(String id);
+
+    /**
+     * Retrieves one page of the branch summaries of a specific franchise, ordered by ID.
      * @param franchiseId ID of the franchise.
-     * @return Flux<Branch> List of branches of the franchise.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Maximum number of branches in the page, or null to use the default.
+     * @return Mono<PageDTO<BranchSummaryDTO>> The summaries of the page and the cursor of the next one.
      */
-    Flux<Branch> getBranchesByFranchiseId(String franchiseId);
+    Mono<PageDTO<BranchSummaryDTO>> getBranchSummariesByFranchiseId(String franchiseId, String after, Integer limit);
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package com.franchise.service;
 
 import com.franchise.dto.FranchiseDTO;
+import com.franchise.dto.FranchiseSummaryDTO;
+import com.franchise.dto.InventorySummaryDTO;
+import com.franchise.dto.PageDTO;
+import com.franchise.dto.ProductDetailsDTO;
 import com.franchise.model.Franchise;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -22,9 +26,10 @@ public interface FranchiseService {
      * Updates the name of a specific franchise.
      * @param id ID of the franchise to be updated.
      * @param newName New name for the franchise.
+     * @param ifMatch If-Match header of the request, or null for an unconditional update.
      * @return Mono<Franchise> The updated franchise.
      */
-    Mono<Franchise> updateFranchiseName(String id, String newName);
+    Mono<Franchise> updateFranchiseName(String id, String newName, String ifMatch);
 
     /**
      * Retrieves a franchise by its ID.
@@ -34,8 +39,54 @@ public interface FranchiseService {
     Mono<Franchise> getFranchiseById(String id);
 
     /**
-     * Retrieves all franchises.
-     * @return Flux<Franchise> List of all franchises.
+     * Computes the ETag of a franchise and its branches and products from version-only projections, without hydrating it.
+     * @param id ID of the franchise.
+     * @return Mono<String> The current ETag of the franchise, or empty if it does not exist.
      */
-    Flux<Franchise> getAllFranchises();
-}
\ No newline at end of file
+    Mono<String> getFranchiseTag(String id);
+
+    /**
+     * Retrieves one page of franchises, ordered by ID.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Maximum number of franchises in the page, or null to use the default.
+     * @return Mono<PageDTO<Franchise>> The franchises of the page and the cursor of the next one.
+     */
+    Mono<PageDTO<Franchise>> getAllFranchises(String after, Integer limit);
+
+    /**
+     * Retrieves the summary of a franchise, without its branches.
+     * @param id ID of the franchise to be retrieved.
+     * @return Mono<FranchiseSummaryDTO> The summary of the franchise.
+     */
+    Mono<FranchiseSummaryDTO> getFranchiseSummaryById(String id);
+
+    /**
+     * Computes the ETag of the summary of a franchise from a version-only projection.
+     * @param id ID of the franchise.
+     * @return Mono<String> The current ETag of the summary, or empty if the franchise does not exist.
+     */
+    Mono<String> getFranchiseSummaryTag(String id);
+
+    /**
+     * Retrieves one page of franchise summaries, ordered by ID.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Maximum number of franchises in the page, or null to use the default.
+     * @return Mono<PageDTO<FranchiseSummaryDTO>> The summaries of the page and the cursor of the next one.
+     */
+    Mono<PageDTO<FranchiseSummaryDTO>> getFranchiseSummaries(String after, Integer limit);
+
+    /**
+     * Computes the inventory summary of a franchise: stock totals, low stock and out-of-stock figures per branch.
+     * @param id ID of the franchise.
+     * @param lowStockThreshold Stock at or below which an available product counts as low stock, or null to use the default.
+     * @return Mono<InventorySummaryDTO> The inventory summary of the franchise.
+     */
+    Mono<InventorySummaryDTO> getInventorySummary(String id, Integer lowStockThreshold);
+
+    /**
+     * Streams the full inventory of a franchise, one row per product with its branch.
+     * @param id ID of the franchise.
+     * @return Flux<ProductDetailsDTO> The inventory rows, ordered by product ID.
+     */
+    Flux<ProductDetailsDTO> exportInventory(String id);
+}
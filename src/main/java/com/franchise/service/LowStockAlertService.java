@@ -0,0 +1,55 @@
+package com.franchise.service;
+
+import com.franchise.dto.LowStockRuleDTO;
+import com.franchise.dto.PageDTO;
+import com.franchise.model.LowStockAlert;
+import com.franchise.model.LowStockRule;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service interface for managing the low-stock alerts.
+ * Defines methods for setting and removing the alert rules and retrieving the raised alerts.
+ */
+public interface LowStockAlertService {
+
+    /**
+     * Sets the low-stock rule of the products of a branch, replacing the previous one.
+     * @param branchId ID of the branch.
+     * @param ruleDTO Threshold and recovery margin of the rule.
+     * @return Mono<LowStockRule> The stored rule.
+     */
+    Mono<LowStockRule> setBranchRule(String branchId, LowStockRuleDTO ruleDTO);
+
+    /**
+     * Sets the low-stock rule of a single product, replacing the previous one and overriding the branch rule.
+     * @param productId ID of the product.
+     * @param ruleDTO Threshold and recovery margin of the rule.
+     * @return Mono<LowStockRule> The stored rule.
+     */
+    Mono<LowStockRule> setProductRule(String productId, LowStockRuleDTO ruleDTO);
+
+    /**
+     * Removes the low-stock rule of a branch or product.
+     * @param scope What the rule applies to.
+     * @param targetId ID of the branch or product.
+     * @return Mono<Void> A Mono signaling when the rule is removed.
+     */
+    Mono<Void> removeRule(LowStockRule.Scope scope, String targetId);
+
+    /**
+     * Retrieves the low-stock rules of the branches and products of a franchise.
+     * @param franchiseId ID of the franchise.
+     * @return Flux<LowStockRule> The rules, ordered by ID.
+     */
+    Flux<LowStockRule> getRulesByFranchiseId(String franchiseId);
+
+    /**
+     * Retrieves one page of the alerts raised for a franchise, in the order they were raised.
+     * @param franchiseId ID of the franchise.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Maximum number of alerts in the page, or null to use the default.
+     * @return Mono<PageDTO<LowStockAlert>> The alerts of the page and the cursor of the next one.
+     */
+    Mono<PageDTO<LowStockAlert>> getAlertsByFranchiseId(String franchiseId, String after, Integer limit);
+}
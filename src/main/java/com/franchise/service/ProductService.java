@@ -1,7 +1,13 @@
 package com.franchise.service;
 
+import com.franchise.dto.BulkProductResultDTO;
+import com.franchise.dto.BulkStockUpdateDTO;
+import com.franchise.dto.BulkStockUpdateResultDTO;
 import com.franchise.dto.ProductDTO;
 import com.franchise.dto.ProductDetailsDTO;
+import com.franchise.dto.SnapshotImportResultDTO;
+import com.franchise.dto.StockChangeEventDTO;
+import com.franchise.dto.StockDeltaDTO;
 import com.franchise.dto.StockUpdateDTO;
 import com.franchise.model.Product;
 import reactor.core.publisher.Flux;
@@ -21,6 +27,23 @@ public interface ProductService {
      */
     Mono<Product> addProductToBranch(String branchId, ProductDTO productDTO);
 
+    /**
+     * Adds a stream of new products to a specific branch in batches.
+     * @param branchId ID of the branch to which the products will be added.
+     * @param products Stream of products to be added.
+     * @return Flux<BulkProductResultDTO> The outcome of every entry, in input order.
+     */
+    Flux<BulkProductResultDTO> addProductsToBranch(String branchId, Flux<ProductDTO> products);
+
+    /**
+     * Makes the products of a branch match a full inventory snapshot, writing only what changed.
+     * @param branchId ID of the branch.
+     * @param snapshot Stream of every product the branch should have, with its stock.
+     * @param deleteMissing Whether the products the snapshot does not list are deleted.
+     * @return Mono<SnapshotImportResultDTO> The summary of the changes.
+     */
+    Mono<SnapshotImportResultDTO> importBranchSnapshot(String branchId, Flux<ProductDTO> snapshot, boolean deleteMissing);
+
     /**
      * Removes a product from a specific branch.
      * @param branchId ID of the branch from which the product will be removed.
@@ -33,22 +56,68 @@ public interface ProductService {
      * Updates the stock of a specific product.
      * @param productId ID of the product to be updated.
      * @param stockUpdateDTO Data containing the new stock value.
+     * @param ifMatch If-Match header of the request, or null for an unconditional update.
+     * @return Mono<Product> The updated product.
+     */
+    Mono<Product> updateProductStock(String productId, StockUpdateDTO stockUpdateDTO, String ifMatch);
+
+    /**
+     * Adds a delta to the stock of a specific product.
+     * @param productId ID of the product to be updated.
+     * @param stockDeltaDTO Data containing the amount to add, negative to decrease the stock.
+     * @param ifMatch If-Match header of the request, or null for an unconditional update.
      * @return Mono<Product> The updated product.
      */
-    Mono<Product> updateProductStock(String productId, StockUpdateDTO stockUpdateDTO);
+    Mono<Product> adjustProductStock(String productId, StockDeltaDTO stockDeltaDTO, String ifMatch);
+
+    /**
+     * Applies a stream of absolute or relative stock updates in batches.
+     * @param updates Stream of stock update entries.
+     * @return Flux<BulkStockUpdateResultDTO> The outcome of every entry, in input order.
+     */
+    Flux<BulkStockUpdateResultDTO> bulkUpdateProductStock(Flux<BulkStockUpdateDTO> updates);
 
     /**
      * Updates the name of a specific product.
      * @param productId ID of the product to be updated.
      * @param newName New name for the product.
+     * @param ifMatch If-Match header of the request, or null for an unconditional update.
      * @return Mono<Product> The updated product.
      */
-    Mono<Product> updateProductName(String productId, String newName);
+    Mono<Product> updateProductName(String productId, String newName, String ifMatch);
 
     /**
-     * Retrieves the product with the highest stock for each branch in a specific franchise.
+     * Retrieves a product by its ID.
+     * @param productId ID of the product to be retrieved.
+     * @return Mono<Product> The found product.
+     */
+    Mono<Product> getProductById(String productId);
+
+    /**
+     * Computes the ETag of a product from a projection of its version and stock, including the stock changes not flushed yet.
+     * @param productId ID of the product.
+     * @return Mono<String> The current ETag of the product, or empty if it does not exist.
+     */
+    Mono<String> getProductTag(String productId);
+
+    /**
+     * Retrieves the products with the highest stock for each branch in a specific franchise.
      * @param franchiseId ID of the franchise.
+     * @param top Maximum number of products returned per branch.
      * @return Flux<ProductDetailsDTO> List of products with the highest stock, including branch information.
      */
-    Flux<ProductDetailsDTO> getProductsWithHighestStockPerBranch(String franchiseId);
-}
\ No newline at end of file
+    Flux<ProductDetailsDTO> getProductsWithHighestStockPerBranch(String franchiseId, int top);
+
+    /**
+     * Streams the stock changes of the products of a specific franchise.
+     * @param franchiseId ID of the franchise.
+     * @return Flux<StockChangeEventDTO> The stock changes, as they happen.
+     */
+    Flux<StockChangeEventDTO> streamStockEvents(String franchiseId);
+
+    /**
+     * Writes the stock changes accumulated by the write-behind buffer.
+     * @return Flux<Product> The flushed products, as stored after the write.
+     */
+    Flux<Product> flushPendingStockChanges();
+}
@@ -0,0 +1,132 @@
+package com.franchise.service.cache;
+
+import com.franchise.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * ReactiveCache backed by a Caffeine cache bounded by size and expiring entries after a TTL.
+ * A miss registers a load token for its key. Writes to the key drop the token, and the load only
+ * stores its value if its token is still registered, checked and stored in the same atomic
+ * compute of the key as the writes, so a load that read the database before a write can never
+ * leave its stale value behind. Writes to other keys do not affect the load.
+ * Values are copied on the way in and on every hit, so callers never share the cached instance.
+ * @param <K> Type of the keys.
+ * @param <V> Type of the cached values.
+ */
+public class CaffeineReactiveCache<K, V> implements ReactiveCache<K, V> {
+
+    private final String name;
+    private final Cache<K, V> cache;
+    private final UnaryOperator<V> copier;
+    private final Map<K, Object> loadTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor for CaffeineReactiveCache.
+     * @param name Name of the cache, reported in its statistics.
+     * @param maximumSize Maximum number of cached entries.
+     * @param ttl Time after which an entry expires, counted from when it was written.
+     * @param copier Deep copy of a value, applied when it is stored and on every hit.
+     */
+    public CaffeineReactiveCache(String name, long maximumSize, Duration ttl, UnaryOperator<V> copier) {
+        this.name = name;
+        this.copier = copier;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached value for a key, loading and caching it on a miss.
+     * @param key The key to look up.
+     * @param loader Function loading the value when it is not cached; may complete empty.
+     * @return Mono<V> The cached or loaded value, or empty if the loader found nothing.
+     */
+    @Override
+    public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        return Mono.defer(() -> {
+            V cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(copier.apply(cached));
+            }
+            Object token = new Object();
+            loadTokens.put(key, token);
+            return loader.apply(key)
+                    .doOnNext(value -> store(key, value, token))
+                    .doFinally(signal -> loadTokens.remove(key, token));
+        });
+    }
+
+    /**
+     * Stores a value written through this node.
+     * @param key The key of the value.
+     * @param value The new value.
+     */
+    @Override
+    public void put(K key, V value) {
+        V copy = copier.apply(value);
+        cache.asMap().compute(key, (k, previous) -> {
+            loadTokens.remove(k);
+            return copy;
+        });
+    }
+
+    /**
+     * Removes the value cached for a key.
+     * @param key The key to invalidate.
+     */
+    @Override
+    public void invalidate(K key) {
+        cache.asMap().compute(key, (k, previous) -> {
+            loadTokens.remove(k);
+            return null;
+        });
+    }
+
+    /**
+     * Removes every cached value.
+     * The load tokens are dropped first, so a load storing concurrently either fails or is removed with the rest.
+     */
+    @Override
+    public void invalidateAll() {
+        loadTokens.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache.
+     * @return CacheStatsDTO The current statistics.
+     */
+    @Override
+    public CacheStatsDTO stats() {
+        CacheStats stats = cache.stats();
+        return CacheStatsDTO.builder()
+                .name(name)
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    /**
+     * Stores a loaded value unless a write to its key happened since the load started.
+     * @param key The key of the value.
+     * @param value The loaded value.
+     * @param token The token registered when the load started.
+     */
+    private void store(K key, V value, Object token) {
+        V copy = copier.apply(value);
+        cache.asMap().compute(key, (k, previous) -> loadTokens.remove(k, token) ? copy : previous);
+    }
+}
@@ -0,0 +1,81 @@
+package com.franchise.service.cache;
+
+import com.franchise.dto.CacheStatsDTO;
+import com.franchise.service.support.RequestCoalescer;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * ReactiveCache decorator sharing concurrent loads of the same key.
+ * Misses of a popular key arriving together run a single query instead of one each.
+ * Writes detach the load in flight before reaching the delegate, so a caller arriving after
+ * a write starts a fresh load and the delegate's write guarantees still hold.
+ * @param <K> Type of the keys.
+ * @param <V> Type of the cached values.
+ */
+public class CoalescingReactiveCache<K, V> implements ReactiveCache<K, V> {
+
+    private final ReactiveCache<K, V> delegate;
+    private final RequestCoalescer<K, V> coalescer;
+
+    /**
+     * Constructor for CoalescingReactiveCache.
+     * @param delegate The cache storing the values.
+     * @param coalescer The coalescer sharing the loads of the misses.
+     */
+    public CoalescingReactiveCache(ReactiveCache<K, V> delegate, RequestCoalescer<K, V> coalescer) {
+        this.delegate = delegate;
+        this.coalescer = coalescer;
+    }
+
+    /**
+     * Returns the cached value for a key, loading it on a miss together with any concurrent miss of the same key.
+     * @param key The key to look up.
+     * @param loader Function loading the value when it is not cached; may complete empty.
+     * @return Mono<V> The cached or loaded value, or empty if the loader found nothing.
+     */
+    @Override
+    public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        return delegate.get(key, missed -> coalescer.get(missed, loader));
+    }
+
+    /**
+     * Stores a value written through this node.
+     * @param key The key of the value.
+     * @param value The new value.
+     */
+    @Override
+    public void put(K key, V value) {
+        coalescer.forget(key);
+        delegate.put(key, value);
+    }
+
+    /**
+     * Removes the value cached for a key.
+     * @param key The key to invalidate.
+     */
+    @Override
+    public void invalidate(K key) {
+        coalescer.forget(key);
+        delegate.invalidate(key);
+    }
+
+    /**
+     * Removes every cached value.
+     */
+    @Override
+    public void invalidateAll() {
+        coalescer.forgetAll();
+        delegate.invalidateAll();
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache.
+     * @return CacheStatsDTO The current statistics.
+     */
+    @Override
+    public CacheStatsDTO stats() {
+        return delegate.stats();
+    }
+}
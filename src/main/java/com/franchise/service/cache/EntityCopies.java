@@ -0,0 +1,74 @@
+package com.franchise.service.cache;
+
+import com.franchise.model.Branch;
+import com.franchise.model.Franchise;
+import com.franchise.model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deep copies of the cached entities.
+ * The caches keep their own copy of every value and hand out a fresh one on each hit, so no
+ * caller can change a cached value, not even through the branch and product lists of a graph.
+ */
+public final class EntityCopies {
+
+    private EntityCopies() {
+    }
+
+    /**
+     * Copies a franchise together with its branches and their products.
+     * @param franchise The franchise to copy.
+     * @return Franchise The copy.
+     */
+    public static Franchise copyOf(Franchise franchise) {
+        Franchise copy = Franchise.builder()
+                .id(franchise.getId())
+                .name(franchise.getName())
+                .version(franchise.getVersion())
+                .build();
+        if (franchise.getBranches() != null) {
+            List<Branch> branches = new ArrayList<>(franchise.getBranches().size());
+            franchise.getBranches().forEach(branch -> branches.add(copyOf(branch)));
+            copy.setBranches(branches);
+        }
+        return copy;
+    }
+
+    /**
+     * Copies a branch together with its products.
+     * @param branch The branch to copy.
+     * @return Branch The copy.
+     */
+    public static Branch copyOf(Branch branch) {
+        Branch copy = Branch.builder()
+                .id(branch.getId())
+                .name(branch.getName())
+                .franchiseId(branch.getFranchiseId())
+                .version(branch.getVersion())
+                .build();
+        if (branch.getProducts() != null) {
+            List<Product> products = new ArrayList<>(branch.getProducts().size());
+            branch.getProducts().forEach(product -> products.add(copyOf(product)));
+            copy.setProducts(products);
+        }
+        return copy;
+    }
+
+    /**
+     * Copies a product.
+     * @param product The product to copy.
+     * @return Product The copy.
+     */
+    public static Product copyOf(Product product) {
+        return Product.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .stock(product.getStock())
+                .branchId(product.getBranchId())
+                .franchiseId(product.getFranchiseId())
+                .version(product.getVersion())
+                .build();
+    }
+}
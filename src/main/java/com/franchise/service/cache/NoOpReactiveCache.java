@@ -0,0 +1,76 @@
+package com.franchise.service.cache;
+
+import com.franchise.dto.CacheStatsDTO;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * ReactiveCache that never stores anything, used when caching is disabled.
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ */
+public class NoOpReactiveCache<K, V> implements ReactiveCache<K, V> {
+
+    private final String name;
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Constructor for NoOpReactiveCache.
+     * @param name Name of the cache, reported in its statistics.
+     */
+    public NoOpReactiveCache(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the cached value for a key, loading and caching it on a miss.
+     * @param key The key to look up.
+     * @param loader Function loading the value when it is not cached; may complete empty.
+     * @return Mono<V> The cached or loaded value, or empty if the loader found nothing.
+     */
+    @Override
+    public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        return Mono.defer(() -> {
+            missCount.incrementAndGet();
+            return loader.apply(key);
+        });
+    }
+
+    /**
+     * Stores a value written through this node.
+     * @param key The key of the value.
+     * @param value The new value.
+     */
+    @Override
+    public void put(K key, V value) {
+    }
+
+    /**
+     * Removes the value cached for a key.
+     * @param key The key to invalidate.
+     */
+    @Override
+    public void invalidate(K key) {
+    }
+
+    /**
+     * Removes every cached value.
+     */
+    @Override
+    public void invalidateAll() {
+    }
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache.
+     * @return CacheStatsDTO The current statistics.
+     */
+    @Override
+    public CacheStatsDTO stats() {
+        return CacheStatsDTO.builder()
+                .name(name)
+                .missCount(missCount.get())
+                .build();
+    }
+}
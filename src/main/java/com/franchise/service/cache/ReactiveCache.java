@@ -0,0 +1,48 @@
+package com.franchise.service.cache;
+
+import com.franchise.dto.CacheStatsDTO;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Function;
+
+/**
+ * Read-through cache for reactive lookups.
+ * Implementations must guarantee that a value loaded before a write to the cache
+ * (put or invalidation) is never stored after that write.
+ * @param <K> Type of the keys.
+ * @param <V> Type of the cached values.
+ */
+public interface ReactiveCache<K, V> {
+
+    /**
+     * Returns the cached value for a key, loading and caching it on a miss.
+     * @param key The key to look up.
+     * @param loader Function loading the value when it is not cached; may complete empty.
+     * @return Mono<V> The cached or loaded value, or empty if the loader found nothing.
+     */
+    Mono<V> get(K key, Function<K, Mono<V>> loader);
+
+    /**
+     * Stores a value written through this node.
+     * @param key The key of the value.
+     * @param value The new value.
+     */
+    void put(K key, V value);
+
+    /**
+     * Removes the value cached for a key.
+     * @param key The key to invalidate.
+     */
+    void invalidate(K key);
+
+    /**
+     * Removes every cached value.
+     */
+    void invalidateAll();
+
+    /**
+     * Returns the hit, miss and eviction statistics of the cache.
+     * @return CacheStatsDTO The current statistics.
+     */
+    CacheStatsDTO stats();
+}
@@ -1,82 +1,192 @@
 package com.franchise.service.impl;
 
 import com.franchise.dto.BranchDTO;
+import com.franchise.dto.BranchSummaryDTO;
+import com.franchise.dto.PageDTO;
+import com.franchise.dto.ProductDetailsDTO;
+import com.franchise.exception.PreconditionFailedException;
 import com.franchise.exception.ResourceNotFoundException;
 import com.franchise.model.Branch;
+import com.franchise.model.Franchise;
 import com.franchise.repository.BranchRepository;
 import com.franchise.repository.FranchiseRepository;
+import com.franchise.repository.ProductRepository;
 import com.franchise.service.BranchService;
+import com.franchise.service.cache.ReactiveCache;
+import com.franchise.service.support.EntityTags;
+import com.franchise.service.support.KeysetPagination;
+import com.franchise.service.support.RequestCoalescer;
+import com.franchise.service.support.StockRankingIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class BranchServiceImpl implements BranchService {
 
-    // Injecting the BranchRepository and FranchiseRepository using constructor injection
+    // Injecting the repositories, StockRankingIndex, entity caches, the highest stock coalescer and KeysetPagination using constructor injection
     private final BranchRepository branchRepository;
     private final FranchiseRepository franchiseRepository;
+    private final ProductRepository productRepository;
+    private final StockRankingIndex stockRankingIndex;
+    private final ReactiveCache<String, Branch> branchCache;
+    private final ReactiveCache<String, Franchise> franchiseCache;
+    private final RequestCoalescer<String, List<ProductDetailsDTO>> highestStockCoalescer;
+    private final KeysetPagination keysetPagination;
 
     /**
      * Adds a new branch to a specific franchise.
+     * The branch carries the ID of its franchise, so adding it is a single insert.
      * @param franchiseId ID of the franchise to which the branch will be added.
      * @param branchDTO Data of the branch to be added.
      * @return Mono<Branch> The created branch.
      */
     @Override
     public Mono<Branch> addBranchToFranchise(String franchiseId, BranchDTO branchDTO) {
-        return franchiseRepository.findById(franchiseId)
+        return franchiseRepository.existsById(franchiseId)
+                .filter(Boolean::booleanValue)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Franchise not found with id: " + franchiseId)))
-                .flatMap(franchise -> {
+                .flatMap(exists -> {
                     Branch branch = Branch.builder()
                             .name(branchDTO.getName())
                             .franchiseId(franchiseId)
                             .build();
-                    return branchRepository.save(branch)
-                            .doOnSuccess(savedBranch -> {
-                                franchise.getBranches().add(savedBranch);
-                                franchiseRepository.save(franchise).subscribe();
-                            });
+                    return branchRepository.save(branch);
+                })
+                .doOnNext(savedBranch -> {
+                    franchiseCache.invalidate(franchiseId);
+                    stockRankingIndex.onBranchSaved(savedBranch);
                 });
     }
 
     /**
      * Updates the name of a specific branch.
+     * The name is written with a single atomic update; the cached branch and franchise and the
+     * highest stock queries in flight are invalidated.
+     * With an If-Match header the update also matches on the versions it lists, so a branch
+     * changed since the client read it is left untouched.
      * @param id ID of the branch to be updated.
      * @param newName New name for the branch.
+     * @param ifMatch If-Match header of the request, or null for an unconditional update.
      * @return Mono<Branch> The updated branch.
      */
     @Override
-    public Mono<Branch> updateBranchName(String id, String newName) {
-        return branchRepository.findById(id)
-                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Branch not found with id: " + id)))
-                .map(branch -> {
-                    branch.setName(newName);
-                    return branch;
+    public Mono<Branch> updateBranchName(String id, String newName, String ifMatch) {
+        return branchRepository.updateName(id, newName, EntityTags.versionsOf(ifMatch))
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.defer(() -> branchRepository.existsById(id)
+                        .flatMap(exists -> Mono.error(exists
+                                ? new PreconditionFailedException("Version mismatch for branch with id: " + id)
+                                : new ResourceNotFoundException("Branch not found with id: " + id)))))
+                .flatMap(updated -> {
+                    branchCache.invalidate(id);
+                    return getBranchById(id);
                 })
-                .flatMap(branchRepository::save);
+                .doOnNext(branch -> {
+                    franchiseCache.invalidate(branch.getFranchiseId());
+                    // Highest stock reports are keyed by franchise ID and number of products
+                    highestStockCoalescer.forgetIf(key -> key.startsWith(branch.getFranchiseId() + ":"));
+                    stockRankingIndex.onBranchSaved(branch);
+                });
     }
 
     /**
      * Retrieves a branch by its ID.
+     * Reads go through the branch cache.
      * @param id ID of the branch to be retrieved.
      * @return Mono<Branch> The found branch.
      */
     @Override
     public Mono<Branch> getBranchById(String id) {
-        return branchRepository.findById(id)
+        return branchCache.get(id, branchRepository::findHydratedById)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Branch not found with id: " + id)));
+    }
+
+    /**
+     * Computes the ETag of a branch and its products from version-only projections.
+     * Both projections run concurrently and read no names or stocks, so answering a conditional
+     * read costs far less than hydrating the branch.
+     * Products not yet backfilled with their branchId by the back-reference migration are not covered.
+     * @param id ID of the branch.
+     * @return Mono<String> The current ETag of the branch, or empty if it does not exist.
+     */
+    @Override
+    public Mono<String> getBranchTag(String id) {
+        return Mono.zip(
+                        branchRepository.findVersionById(id),
+                        productRepository.findVersionsByBranchId(id).collectList())
+                .map(versions -> EntityTags.ofGraph(versions.getT1().getVersion(), List.of(), versions.getT2()));
+    }
+
+    /**
+     * Retrieves one page of the branches of a specific franchise, ordered by ID.
+     * The page is a single range query on the ID, so its cost does not depend on its position.
+     * @param franchiseId ID of the franchise.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Maximum number of branches in the page, or null to use the default.
+     * @return Mono<PageDTO<Branch>> The branches of the page and the cursor of the next one.
+     */
+    @Override
+    public Mono<PageDTO<Branch>> getBranchesByFranchiseId(String franchiseId, String after, Integer limit) {
+        return Mono.defer(() -> branchRepository.findHydratedPageByFranchiseId(
+                        franchiseId, keysetPagination.decodeCursor(after), keysetPagination.resolveLimit(limit)))
+                .map(slice -> keysetPagination.toPage(slice, Branch::getId));
+    }
+
+    /**
+     * Retrieves the summary of a branch, without its products.
+     * Only the name and franchise ID are read, so the product references are never resolved.
+     * @param id ID of the branch to be retrieved.
+     * @return Mono<BranchSummaryDTO> The summary of the branch.
+     */
+    @Override
+    public Mono<BranchSummaryDTO> getBranchSummaryById(String id) {
+        return branchRepository.findSummaryById(id)
+                .map(BranchServiceImpl::toSummary)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Branch not found with id: " + id)));
     }
 
     /**
-     * Retrieves all branches of a specific franchise.
+     * Computes the ETag of the summary of a branch from a version-only projection.
+     * @param id ID of the branch.
+     * @return Mono<String> The current ETag of the summary, or empty if the branch does not exist.
+     */
+    @Override
+    public Mono<String> getBranchSummaryTag(String id) {
+        return branchRepository.findVersionById(id)
+                .map(branch -> EntityTags.of(branch.getVersion()));
+    }
+
+    /**
+     * Retrieves one page of the branch summaries of a specific franchise, ordered by ID.
+     * Only the names and franchise IDs are read, so the page costs a single query on the branch collection.
      * @param franchiseId ID of the franchise.
-     * @return Flux<Branch> List of branches of the franchise.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Maximum number of branches in the page, or null to use the default.
+     * @return Mono<PageDTO<BranchSummaryDTO>> The summaries of the page and the cursor of the next one.
      */
     @Override
-    public Flux<Branch> getBranchesByFranchiseId(String franchiseId) {
-        return branchRepository.findByFranchiseId(franchiseId);
+    public Mono<PageDTO<BranchSummaryDTO>> getBranchSummariesByFranchiseId(String franchiseId, String after, Integer limit) {
+        return Mono.defer(() -> branchRepository.findSummaryPageByFranchiseId(
+                        franchiseId, keysetPagination.decodeCursor(after), keysetPagination.resolveLimit(limit)))
+                .map(slice -> keysetPagination.toPage(slice.map(BranchServiceImpl::toSummary),
+                        BranchSummaryDTO::getId));
+    }
+
+    /**
+     * Maps a branch to its summary view.
+     * @param branch The branch.
+     * @return BranchSummaryDTO The summary of the branch.
+     */
+    private static BranchSummaryDTO toSummary(Branch branch) {
+        return BranchSummaryDTO.builder()
+                .id(branch.getId())
+                .name(branch.getName())
+                .franchiseId(branch.getFranchiseId())
+                .version(branch.getVersion())
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,24 @@
 package com.franchise.service.impl;
 
+import com.franchise.config.InventoryProperties;
 import com.franchise.dto.FranchiseDTO;
+import com.franchise.dto.FranchiseSummaryDTO;
+import com.franchise.dto.InventorySummaryDTO;
+import com.franchise.dto.PageDTO;
+import com.franchise.dto.ProductDetailsDTO;
+import com.franchise.exception.BadRequestException;
+import com.franchise.exception.PreconditionFailedException;
 import com.franchise.exception.ResourceNotFoundException;
+import com.franchise.model.Branch;
 import com.franchise.model.Franchise;
+import com.franchise.repository.BranchRepository;
 import com.franchise.repository.FranchiseRepository;
+import com.franchise.repository.ProductRepository;
 import com.franchise.service.FranchiseService;
+import com.franchise.service.cache.ReactiveCache;
+import com.franchise.service.support.EntityTags;
+import com.franchise.service.support.KeysetPagination;
+import com.franchise.service.support.StockWriteBehindBuffer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
@@ -14,8 +28,14 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class FranchiseServiceImpl implements FranchiseService {
     
-    // Injecting the FranchiseRepository using constructor injection
+    // Injecting the repositories, the franchise cache, KeysetPagination, StockWriteBehindBuffer and InventoryProperties using constructor injection
     private final FranchiseRepository franchiseRepository;
+    private final BranchRepository branchRepository;
+    private final ProductRepository productRepository;
+    private final ReactiveCache<String, Franchise> franchiseCache;
+    private final KeysetPagination keysetPagination;
+    private final StockWriteBehindBuffer stockWriteBehindBuffer;
+    private final InventoryProperties inventoryProperties;
 
     /**
      * Creates a new franchise.
@@ -32,38 +52,172 @@ public class FranchiseServiceImpl implements FranchiseService {
 
     /**
      * Updates the name of a specific franchise.
+     * The name is written with a single atomic update and the cached franchise is invalidated.
+     * With an If-Match header the update also matches on the versions it lists, so a franchise
+     * changed since the client read it is left untouched.
      * @param id ID of the franchise to be updated.
      * @param newName New name for the franchise.
+     * @param ifMatch If-Match header of the request, or null for an unconditional update.
      * @return Mono<Franchise> The updated franchise.
      */
     @Override
-    public Mono<Franchise> updateFranchiseName(String id, String newName) {
-        return franchiseRepository.findById(id)
-                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Franchise not found with id: " + id)))
-                .map(franchise -> {
-                    franchise.setName(newName);
-                    return franchise;
-                })
-                .flatMap(franchiseRepository::save);
+    public Mono<Franchise> updateFranchiseName(String id, String newName, String ifMatch) {
+        return franchiseRepository.updateName(id, newName, EntityTags.versionsOf(ifMatch))
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.defer(() -> franchiseRepository.existsById(id)
+                        .flatMap(exists -> Mono.error(exists
+                                ? new PreconditionFailedException("Version mismatch for franchise with id: " + id)
+                                : new ResourceNotFoundException("Franchise not found with id: " + id)))))
+                .flatMap(updated -> {
+                    franchiseCache.invalidate(id);
+                    return getFranchiseById(id);
+                });
     }
 
     /**
      * Retrieves a franchise by its ID.
+     * Reads go through the franchise cache.
      * @param id ID of the franchise to be retrieved.
      * @return Mono<Franchise> The found franchise.
      */
     @Override
     public Mono<Franchise> getFranchiseById(String id) {
-        return franchiseRepository.findById(id)
+        return franchiseCache.get(id, franchiseRepository::findHydratedById)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Franchise not found with id: " + id)));
+    }
+
+    /**
+     * Computes the ETag of a franchise and its branches and products from version-only projections.
+     * The three projections run concurrently and read no names or stocks, so answering a
+     * conditional read costs far less than hydrating the franchise.
+     * Products not yet backfilled with their franchiseId by the back-reference migration are not covered.
+     * @param id ID of the franchise.
+     * @return Mono<String> The current ETag of the franchise, or empty if it does not exist.
+     */
+    @Override
+    public Mono<String> getFranchiseTag(String id) {
+        return Mono.zip(
+                        franchiseRepository.findVersionById(id),
+                        branchRepository.findVersionsByFranchiseId(id).collectList(),
+                        productRepository.findVersionsByFranchiseId(id).collectList())
+                .map(versions -> EntityTags.ofGraph(versions.getT1().getVersion(), versions.getT2(), versions.getT3()));
+    }
+
+    /**
+     * Retrieves one page of franchises, ordered by ID.
+     * The page is a single range query on the ID, so its cost does not depend on its position.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Maximum number of franchises in the page, or null to use the default.
+     * @return Mono<PageDTO<Franchise>> The franchises of the page and the cursor of the next one.
+     */
+    @Override
+    public Mono<PageDTO<Franchise>> getAllFranchises(String after, Integer limit) {
+        return Mono.defer(() -> franchiseRepository.findHydratedPage(
+                        keysetPagination.decodeCursor(after), keysetPagination.resolveLimit(limit)))
+                .map(slice -> keysetPagination.toPage(slice, Franchise::getId));
+    }
+
+    /**
+     * Retrieves the summary of a franchise, without its branches.
+     * Only the name is read, so the branch references are never resolved.
+     * @param id ID of the franchise to be retrieved.
+     * @return Mono<FranchiseSummaryDTO> The summary of the franchise.
+     */
+    @Override
+    public Mono<FranchiseSummaryDTO> getFranchiseSummaryById(String id) {
+        return franchiseRepository.findSummaryById(id)
+                .map(FranchiseServiceImpl::toSummary)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Franchise not found with id: " + id)));
     }
 
     /**
-     * Retrieves all franchises.
-     * @return Flux<Franchise> List of all franchises.
+     * Computes the ETag of the summary of a franchise from a version-only projection.
+     * @param id ID of the franchise.
+     * @return Mono<String> The current ETag of the summary, or empty if the franchise does not exist.
+     */
+    @Override
+    public Mono<String> getFranchiseSummaryTag(String id) {
+        return franchiseRepository.findVersionById(id)
+                .map(franchise -> EntityTags.of(franchise.getVersion()));
+    }
+
+    /**
+     * Retrieves one page of franchise summaries, ordered by ID.
+     * Only the names are read, so the page costs a single query on the franchise collection.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Maximum number of franchises in the page, or null to use the default.
+     * @return Mono<PageDTO<FranchiseSummaryDTO>> The summaries of the page and the cursor of the next one.
+     */
+    @Override
+    public Mono<PageDTO<FranchiseSummaryDTO>> getFranchiseSummaries(String after, Integer limit) {
+        return Mono.defer(() -> franchiseRepository.findSummaryPage(
+                        keysetPagination.decodeCursor(after), keysetPagination.resolveLimit(limit)))
+                .map(slice -> keysetPagination.toPage(slice.map(FranchiseServiceImpl::toSummary),
+                        FranchiseSummaryDTO::getId));
+    }
+
+    /**
+     * Maps a franchise to its summary view.
+     * @param franchise The franchise.
+     * @return FranchiseSummaryDTO The summary of the franchise.
+     */
+    private static FranchiseSummaryDTO toSummary(Franchise franchise) {
+        return FranchiseSummaryDTO.builder()
+                .id(franchise.getId())
+                .name(franchise.getName())
+                .version(franchise.getVersion())
+                .build();
+    }
+
+    /**
+     * Computes the inventory summary of a franchise.
+     * The figures come from a single aggregation, run concurrently with the lookup of the franchise
+     * name, so the inventory never leaves the database. Stock changes still pending in the
+     * write-behind buffer are not included.
+     * @param id ID of the franchise.
+     * @param lowStockThreshold Stock at or below which an available product counts as low stock, or null to use the default.
+     * @return Mono<InventorySummaryDTO> The inventory summary of the franchise.
+     */
+    @Override
+    public Mono<InventorySummaryDTO> getInventorySummary(String id, Integer lowStockThreshold) {
+        int threshold = lowStockThreshold != null ? lowStockThreshold : inventoryProperties.getLowStockThreshold();
+        if (threshold < 0) {
+            return Mono.error(new BadRequestException("Low stock threshold cannot be negative"));
+        }
+        return franchiseRepository.findSummaryById(id)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Franchise not found with id: " + id)))
+                .zipWith(branchRepository.summarizeInventory(id, threshold, inventoryProperties.getOutOfStockListLimit()))
+                .map(tuple -> {
+                    InventorySummaryDTO summary = tuple.getT2();
+                    summary.setFranchiseId(tuple.getT1().getId());
+                    summary.setFranchiseName(tuple.getT1().getName());
+                    summary.setLowStockThreshold(threshold);
+                    return summary;
+                });
+    }
+
+    /**
+     * Streams the full inventory of a franchise, one row per product with its branch.
+     * Only the branch names are held in memory; the products are read from a MongoDB cursor as
+     * the rows are consumed, so a slow client slows the cursor down instead of piling up rows.
+     * Stock changes still pending in the write-behind buffer are included.
+     * Products not yet backfilled with their franchiseId by the back-reference migration are not exported.
+     * @param id ID of the franchise.
+     * @return Flux<ProductDetailsDTO> The inventory rows, ordered by product ID.
      */
     @Override
-    public Flux<Franchise> getAllFranchises() {
-        return franchiseRepository.findAll();
+    public Flux<ProductDetailsDTO> exportInventory(String id) {
+        return franchiseRepository.findSummaryById(id)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Franchise not found with id: " + id)))
+                .flatMap(franchise -> branchRepository.findByFranchiseId(id).collectMap(Branch::getId, Branch::getName))
+                .flatMapMany(branchNames -> productRepository.findInventoryByFranchiseId(id)
+                        .map(stockWriteBehindBuffer::withPending)
+                        .map(product -> ProductDetailsDTO.builder()
+                                .productId(product.getId())
+                                .productName(product.getName())
+                                .stock(product.getStock())
+                                .branchId(product.getBranchId())
+                                .branchName(branchNames.get(product.getBranchId()))
+                                .build()));
     }
-}
\ No newline at end of file
+}
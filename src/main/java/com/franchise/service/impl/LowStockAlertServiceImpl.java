@@ -0,0 +1,126 @@
+package com.franchise.service.impl;
+
+import com.franchise.config.LowStockAlertProperties;
+import com.franchise.dto.LowStockRuleDTO;
+import com.franchise.dto.PageDTO;
+import com.franchise.exception.ResourceNotFoundException;
+import com.franchise.model.LowStockAlert;
+import com.franchise.model.LowStockRule;
+import com.franchise.repository.BranchRepository;
+import com.franchise.repository.LowStockAlertRepository;
+import com.franchise.repository.LowStockRuleRepository;
+import com.franchise.repository.ProductRepository;
+import com.franchise.service.LowStockAlertService;
+import com.franchise.service.support.KeysetPagination;
+import com.franchise.service.support.LowStockAlertEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class LowStockAlertServiceImpl implements LowStockAlertService {
+
+    // Injecting the repositories, LowStockAlertEngine, KeysetPagination and LowStockAlertProperties using constructor injection
+    private final LowStockRuleRepository lowStockRuleRepository;
+    private final LowStockAlertRepository lowStockAlertRepository;
+    private final BranchRepository branchRepository;
+    private final ProductRepository productRepository;
+    private final LowStockAlertEngine lowStockAlertEngine;
+    private final KeysetPagination keysetPagination;
+    private final LowStockAlertProperties properties;
+
+    /**
+     * Sets the low-stock rule of the products of a branch, replacing the previous one.
+     * The rule applies from the next stock change of every product of the branch.
+     * @param branchId ID of the branch.
+     * @param ruleDTO Threshold and recovery margin of the rule.
+     * @return Mono<LowStockRule> The stored rule.
+     */
+    @Override
+    public Mono<LowStockRule> setBranchRule(String branchId, LowStockRuleDTO ruleDTO) {
+        return branchRepository.findSummaryById(branchId)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Branch not found with id: " + branchId)))
+                .flatMap(branch -> saveRule(LowStockRule.Scope.BRANCH, branchId, branch.getFranchiseId(), ruleDTO));
+    }
+
+    /**
+     * Sets the low-stock rule of a single product, replacing the previous one and overriding the branch rule.
+     * The rule applies from the next stock change of the product.
+     * @param productId ID of the product.
+     * @param ruleDTO Threshold and recovery margin of the rule.
+     * @return Mono<LowStockRule> The stored rule.
+     */
+    @Override
+    public Mono<LowStockRule> setProductRule(String productId, LowStockRuleDTO ruleDTO) {
+        return productRepository.findById(productId)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Product not found with id: " + productId)))
+                .flatMap(product -> saveRule(LowStockRule.Scope.PRODUCT, productId, product.getFranchiseId(), ruleDTO));
+    }
+
+    /**
+     * Removes the low-stock rule of a branch or product.
+     * @param scope What the rule applies to.
+     * @param targetId ID of the branch or product.
+     * @return Mono<Void> A Mono signaling when the rule is removed.
+     */
+    @Override
+    public Mono<Void> removeRule(LowStockRule.Scope scope, String targetId) {
+        String ruleId = LowStockRule.idOf(scope, targetId);
+        return lowStockRuleRepository.existsById(ruleId)
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Low-stock rule not found with id: " + ruleId)))
+                .flatMap(exists -> lowStockRuleRepository.deleteById(ruleId))
+                .doOnSuccess(ignored -> lowStockAlertEngine.onRuleRemoved(scope, targetId));
+    }
+
+    /**
+     * Retrieves the low-stock rules of the branches and products of a franchise.
+     * @param franchiseId ID of the franchise.
+     * @return Flux<LowStockRule> The rules, ordered by ID.
+     */
+    @Override
+    public Flux<LowStockRule> getRulesByFranchiseId(String franchiseId) {
+        return lowStockRuleRepository.findByFranchiseIdOrderByIdAsc(franchiseId);
+    }
+
+    /**
+     * Retrieves one page of the alerts raised for a franchise, in the order they were raised.
+     * The page is a single range query on the ID, so its cost does not depend on its position.
+     * @param franchiseId ID of the franchise.
+     * @param after Opaque cursor returned with the previous page, or null for the first page.
+     * @param limit Maximum number of alerts in the page, or null to use the default.
+     * @return Mono<PageDTO<LowStockAlert>> The alerts of the page and the cursor of the next one.
+     */
+    @Override
+    public Mono<PageDTO<LowStockAlert>> getAlertsByFranchiseId(String franchiseId, String after, Integer limit) {
+        return Mono.defer(() -> lowStockAlertRepository.findPageByFranchiseId(
+                        franchiseId, keysetPagination.decodeCursor(after), keysetPagination.resolveLimit(limit)))
+                .map(slice -> keysetPagination.toPage(slice, LowStockAlert::getId));
+    }
+
+    /**
+     * Stores a rule and installs it in the alert engine.
+     * @param scope What the rule applies to.
+     * @param targetId ID of the branch or product.
+     * @param franchiseId ID of the franchise the target belongs to.
+     * @param ruleDTO Threshold and recovery margin of the rule.
+     * @return Mono<LowStockRule> The stored rule.
+     */
+    private Mono<LowStockRule> saveRule(LowStockRule.Scope scope, String targetId, String franchiseId,
+                                        LowStockRuleDTO ruleDTO) {
+        LowStockRule rule = LowStockRule.builder()
+                .id(LowStockRule.idOf(scope, targetId))
+                .scope(scope)
+                .targetId(targetId)
+                .franchiseId(franchiseId)
+                .threshold(ruleDTO.getThreshold())
+                .recoveryMargin(ruleDTO.getRecoveryMargin() != null
+                        ? ruleDTO.getRecoveryMargin()
+                        : properties.getDefaultRecoveryMargin())
+                .build();
+        return lowStockRuleRepository.save(rule)
+                .doOnNext(lowStockAlertEngine::onRuleSaved);
+    }
+}
@@ -1,119 +1,932 @@
 package com.franchise.service.impl;
 
+import com.franchise.config.BulkProperties;
+import com.franchise.dto.BulkProductResultDTO;
+import com.franchise.dto.BulkStockUpdateDTO;
+import com.franchise.dto.BulkStockUpdateResultDTO;
 import com.franchise.dto.ProductDTO;
 import com.franchise.dto.ProductDetailsDTO;
+import com.franchise.dto.SnapshotImportResultDTO;
+import com.franchise.dto.StockChangeEventDTO;
+import com.franchise.dto.StockDeltaDTO;
 import com.franchise.dto.StockUpdateDTO;
+import com.franchise.exception.BadRequestException;
+import com.franchise.exception.InsufficientStockException;
+import com.franchise.exception.PreconditionFailedException;
 import com.franchise.exception.ResourceNotFoundException;
+import com.franchise.model.Branch;
+import com.franchise.model.Franchise;
 import com.franchise.model.Product;
 import com.franchise.repository.BranchRepository;
 import com.franchise.repository.ProductRepository;
+import com.franchise.repository.ProductRepositoryCustom.StockChange;
 import com.franchise.service.ProductService;
+import com.franchise.service.cache.ReactiveCache;
+import com.franchise.service.support.EntityTags;
+import com.franchise.service.support.RequestCoalescer;
+import com.franchise.service.support.LowStockAlertEngine;
+import com.franchise.service.support.StockEventPublisher;
+import com.franchise.service.support.StockRankingIndex;
+import com.franchise.service.support.StockWriteBehindBuffer;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
-import java.util.Comparator;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
-    // Injecting the ProductRepository and BranchRepository using constructor injection
+    // Upper bound for the number of products returned per branch by the highest stock report
+    private static final int MAX_TOP_PRODUCTS = 100;
+
+    // Upper bound for the number of rejected entries listed in a snapshot import summary
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+
+    // Injecting the repositories, StockRankingIndex, StockEventPublisher, StockWriteBehindBuffer, LowStockAlertEngine, entity caches, the highest stock coalescer, Validator and BulkProperties using constructor injection
     private final ProductRepository productRepository;
     private final BranchRepository branchRepository;
+    private final StockRankingIndex stockRankingIndex;
+    private final StockEventPublisher stockEventPublisher;
+    private final StockWriteBehindBuffer stockWriteBehindBuffer;
+    private final LowStockAlertEngine lowStockAlertEngine;
+    private final ReactiveCache<String, Product> productCache;
+    private final ReactiveCache<String, Branch> branchCache;
+    private final ReactiveCache<String, Franchise> franchiseCache;
+    private final RequestCoalescer<String, List<ProductDetailsDTO>> highestStockCoalescer;
+    private final Validator validator;
+    private final BulkProperties bulkProperties;
 
     /**
      * Adds a new product to a specific branch.
+     * The product carries the IDs of its branch and franchise, so adding it is a single insert.
      * @param branchId ID of the branch to which the product will be added.
      * @param productDTO Data of the product to be added.
      * @return Mono<Product> The created product.
      */
     @Override
     public Mono<Product> addProductToBranch(String branchId, ProductDTO productDTO) {
-        return branchRepository.findById(branchId)
+        return branchRepository.findSummaryById(branchId)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Branch not found with id: " + branchId)))
                 .flatMap(branch -> {
                     Product product = Product.builder()
                             .name(productDTO.getName())
                             .stock(productDTO.getStock())
+                            .branchId(branch.getId())
+                            .franchiseId(branch.getFranchiseId())
                             .build();
                     return productRepository.save(product)
-                            .doOnSuccess(savedProduct -> {
-                                branch.getProducts().add(savedProduct);
-                                branchRepository.save(branch).subscribe();
+                            .doOnNext(savedProduct -> {
+                                onProductAdded(branch, savedProduct);
+                                invalidateBranchViews(branch.getId(), branch.getFranchiseId());
                             });
                 });
     }
 
+    /**
+     * Adds a stream of new products to a specific branch in batches.
+     * Every batch costs a single insertMany.
+     * Batches are processed one at a time and the upload is only requested as batches complete,
+     * so memory stays bounded by the batch size whatever the size of the upload.
+     * @param branchId ID of the branch to which the products will be added.
+     * @param products Stream of products to be added.
+     * @return Flux<BulkProductResultDTO> The outcome of every entry, in input order.
+     */
+    @Override
+    public Flux<BulkProductResultDTO> addProductsToBranch(String branchId, Flux<ProductDTO> products) {
+        return branchRepository.findSummaryById(branchId)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Branch not found with id: " + branchId)))
+                .flatMapMany(branch -> products
+                        .index((index, product) -> Tuples.of(index + 1, product))
+                        .buffer(bulkProperties.getBatchSize())
+                        .concatMap(batch -> insertProductBatch(branch, batch), 1));
+    }
+
+    /**
+     * Inserts the valid products of one upload batch into the branch.
+     * The IDs are assigned before the insert, so when it fails partway the products already written
+     * are deleted again and the upload fails, instead of leaving products that were never reported,
+     * ranked or reflected in the cached branch views.
+     * @param branch The branch, with its ID, name and franchise ID.
+     * @param batch Products of the batch paired with their line numbers.
+     * @return Flux<BulkProductResultDTO> The outcome of every entry of the batch, in input order.
+     */
+    private Flux<BulkProductResultDTO> insertProductBatch(Branch branch, List<Tuple2<Long, ProductDTO>> batch) {
+        List<BulkProductResultDTO> results = new ArrayList<>(batch.size());
+        List<Product> valid = new ArrayList<>();
+        for (Tuple2<Long, ProductDTO> entry : batch) {
+            ProductDTO productDTO = entry.getT2();
+            String violations = validate(productDTO);
+            BulkProductResultDTO result = BulkProductResultDTO.builder()
+                    .line(entry.getT1())
+                    .name(productDTO.getName())
+                    .status(violations == null ? BulkProductResultDTO.Status.CREATED : BulkProductResultDTO.Status.REJECTED)
+                    .message(violations)
+                    .build();
+            results.add(result);
+            if (violations == null) {
+                valid.add(Product.builder()
+                        .id(new ObjectId().toHexString())
+                        .name(productDTO.getName())
+                        .stock(productDTO.getStock())
+                        .branchId(branch.getId())
+                        .franchiseId(branch.getFranchiseId())
+                        .build());
+            }
+        }
+        if (valid.isEmpty()) {
+            return Flux.fromIterable(results);
+        }
+        List<String> productIds = valid.stream().map(Product::getId).collect(Collectors.toList());
+        return productRepository.insert(valid)
+                .collectList()
+                .onErrorResume(error -> productRepository.deleteAllById(productIds).then(Mono.error(error)))
+                .flatMapIterable(inserted -> {
+                    int next = 0;
+                    for (BulkProductResultDTO result : results) {
+                        if (result.getStatus() == BulkProductResultDTO.Status.CREATED) {
+                            Product product = inserted.get(next++);
+                            result.setProductId(product.getId());
+                            onProductAdded(branch, product);
+                        }
+                    }
+                    invalidateBranchViews(branch.getId(), branch.getFranchiseId());
+                    return results;
+                });
+    }
+
+    /**
+     * Makes the products of a branch match a full inventory snapshot, writing only what changed.
+     * Products are matched by name; an entry whose name several products of the branch share is
+     * rejected as ambiguous and those products are kept. The snapshot is read in batches; every batch costs one query
+     * loading the matching products and at most one unordered bulk write with the inserts and the
+     * stock updates, so unchanged products are never written. Once the snapshot is consumed, the
+     * products it did not list are deleted in batches, except those whose entry was rejected, but only
+     * when the caller asks for it. A snapshot without a single entry, such as a header-only or
+     * truncated file, is rejected before anything is deleted.
+     * Only the IDs and names seen so far are kept in memory. An import that fails midway leaves the
+     * batches already written in place; importing the same snapshot again completes it.
+     * In write-behind mode, stock updates go through the write-behind buffer like any other stock change.
+     * @param branchId ID of the branch.
+     * @param snapshot Stream of every product the branch should have, with its stock.
+     * @param deleteMissing Whether the products the snapshot does not list are deleted.
+     * @return Mono<SnapshotImportResultDTO> The summary of the changes.
+     */
+    @Override
+    public Mono<SnapshotImportResultDTO> importBranchSnapshot(String branchId, Flux<ProductDTO> snapshot,
+                                                             boolean deleteMissing) {
+        return branchRepository.findSummaryById(branchId)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Branch not found with id: " + branchId)))
+                .flatMap(branch -> {
+                    SnapshotImport state = new SnapshotImport();
+                    return snapshot
+                            .index((index, product) -> Tuples.of(index + 1, product))
+                            .buffer(bulkProperties.getBatchSize())
+                            .concatMap(batch -> importSnapshotBatch(branch, batch, state), 1)
+                            .then(Mono.defer(() -> {
+                                if (state.received == 0) {
+                                    return Mono.error(new BadRequestException("Snapshot contains no products"));
+                                }
+                                return deleteMissing ? deleteProductsMissingFromSnapshot(branch, state) : Mono.empty();
+                            }))
+                            .then(Mono.fromSupplier(() -> {
+                                invalidateBranchViews(branch.getId(), branch.getFranchiseId());
+                                return state.toResult(branch.getId());
+                            }));
+                });
+    }
+
+    /**
+     * Compares one batch of snapshot entries with the stored products and writes the differences.
+     * @param branch The branch, with its ID, name and franchise ID.
+     * @param batch Snapshot entries of the batch paired with their line numbers.
+     * @param state Progress of the import.
+     * @return Mono<Void> A Mono signaling when the batch is written.
+     */
+    private Mono<Void> importSnapshotBatch(Branch branch, List<Tuple2<Long, ProductDTO>> batch, SnapshotImport state) {
+        Map<String, ProductDTO> entries = new LinkedHashMap<>();
+        Map<String, Long> lines = new HashMap<>();
+        for (Tuple2<Long, ProductDTO> entry : batch) {
+            ProductDTO productDTO = entry.getT2();
+            state.received++;
+            String violations = validate(productDTO);
+            if (violations == null && productDTO.getStock() == null) {
+                violations = "Stock is required";
+            }
+            if (violations == null && !state.names.add(productDTO.getName())) {
+                violations = "Duplicate product in snapshot";
+            }
+            if (violations != null) {
+                state.reject(entry.getT1(), productDTO.getName(), violations);
+            } else {
+                entries.put(productDTO.getName(), productDTO);
+                lines.put(productDTO.getName(), entry.getT1());
+            }
+        }
+        if (entries.isEmpty()) {
+            return Mono.empty();
+        }
+        return productRepository.findByBranchIdAndNameIn(branch.getId(), new ArrayList<>(entries.keySet()))
+                .collectList()
+                .flatMap(existing -> {
+                    Map<String, Long> matches = existing.stream()
+                            .collect(Collectors.groupingBy(Product::getName, Collectors.counting()));
+                    List<Product> updated = new ArrayList<>();
+                    List<StockChange> changes = new ArrayList<>();
+                    for (Product product : existing) {
+                        state.keptIds.add(product.getId());
+                        long count = matches.get(product.getName());
+                        if (count > 1) {
+                            // Several products of the branch share the name: the entry cannot tell which one it means
+                            if (entries.remove(product.getName()) != null) {
+                                state.reject(lines.get(product.getName()), product.getName(),
+                                        "Ambiguous product name, " + count + " products of the branch have it");
+                            }
+                            continue;
+                        }
+                        ProductDTO entry = entries.remove(product.getName());
+                        if (entry.getStock().equals(stockWriteBehindBuffer.withPending(product).getStock())) {
+                            state.unchanged++;
+                        } else if (stockWriteBehindBuffer.isEnabled()) {
+                            stockWriteBehindBuffer.apply(new StockChange(product.getId(), entry.getStock(), null), product);
+                            state.updated++;
+                        } else {
+                            product.setStock(entry.getStock());
+                            product.setVersion(product.getVersion() != null ? product.getVersion() + 1 : 1L);
+                            updated.add(product);
+                            changes.add(new StockChange(product.getId(), entry.getStock(), null));
+                        }
+                    }
+                    List<Product> inserts = new ArrayList<>(entries.size());
+                    for (ProductDTO entry : entries.values()) {
+                        inserts.add(Product.builder()
+                                .id(new ObjectId().toHexString())
+                                .name(entry.getName())
+                                .stock(entry.getStock())
+                                .branchId(branch.getId())
+                                .franchiseId(branch.getFranchiseId())
+                                .build());
+                    }
+                    if (inserts.isEmpty() && changes.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    return productRepository.applySnapshotChanges(inserts, changes)
+                            .doOnNext(result -> {
+                                inserts.forEach(product -> {
+                                    state.keptIds.add(product.getId());
+                                    onProductAdded(branch, product);
+                                });
+                                updated.forEach(product -> {
+                                    stockRankingIndex.onProductUpdated(product);
+                                    productCache.put(product.getId(), product);
+                                    publishStockUpdate(product);
+                                });
+                                state.inserted += inserts.size();
+                                state.updated += updated.size();
+                            })
+                            .then();
+                });
+    }
+
+    /**
+     * Deletes the products of a branch that the snapshot did not list, in batches.
+     * Products whose snapshot entry was rejected are kept.
+     * @param branch The branch, with its ID and franchise ID.
+     * @param state Progress of the import.
+     * @return Mono<Void> A Mono signaling when the products are deleted.
+     */
+    private Mono<Void> deleteProductsMissingFromSnapshot(Branch branch, SnapshotImport state) {
+        return productRepository.findNamesByBranchId(branch.getId())
+                .filter(product -> !state.keptIds.contains(product.getId())
+                        && !state.rejectedNames.contains(product.getName()))
+                .map(Product::getId)
+                .buffer(bulkProperties.getBatchSize())
+                .concatMap(productIds -> productRepository.deleteAllById(productIds)
+                        .doOnSuccess(ignored -> {
+                            for (String productId : productIds) {
+                                stockWriteBehindBuffer.discard(productId);
+                                lowStockAlertEngine.forget(productId);
+                                stockRankingIndex.onProductRemoved(branch.getId(), productId);
+                                productCache.invalidate(productId);
+                                publishStockChange(StockChangeEventDTO.Type.REMOVED, productId, null, null,
+                                        branch.getId(), branch.getFranchiseId());
+                            }
+                            state.deleted += productIds.size();
+                        }), 1)
+                .then();
+    }
+
     /**
      * Removes a product from a specific branch.
+     * The product document is deleted only if it belongs to the branch; the branch holds no reference to it.
      * @param branchId ID of the branch from which the product will be removed.
      * @param productId ID of the product to be removed.
      * @return Mono<Void> A Mono signaling when the operation has completed.
      */
     @Override
     public Mono<Void> removeProductFromBranch(String branchId, String productId) {
-        return branchRepository.findById(branchId)
+        return branchRepository.findSummaryById(branchId)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Branch not found with id: " + branchId)))
-                .flatMap(branch -> {
-                    branch.getProducts().removeIf(product -> product.getId().equals(productId));
-                    return branchRepository.save(branch)
-                            .then(productRepository.deleteById(productId));
-                });
+                .flatMap(branch -> productRepository.deleteByIdAndBranchId(productId, branchId)
+                        .filter(deleted -> deleted > 0)
+                        .switchIfEmpty(Mono.error(new ResourceNotFoundException(
+                                "Product not found with id: " + productId + " in branch with id: " + branchId)))
+                        .doOnNext(deleted -> {
+                            stockWriteBehindBuffer.discard(productId);
+                            lowStockAlertEngine.forget(productId);
+                            stockRankingIndex.onProductRemoved(branchId, productId);
+                            productCache.invalidate(productId);
+                            invalidateBranchViews(branch.getId(), branch.getFranchiseId());
+                            publishStockChange(StockChangeEventDTO.Type.REMOVED, productId, null, null,
+                                    branch.getId(), branch.getFranchiseId());
+                        })
+                        .then());
     }
 
     /**
      * Updates the stock of a specific product.
+     * The new value is written with a single atomic update, or left to the next flush in write-behind mode.
+     * With an If-Match header the update also matches on the versions it lists.
      * @param productId ID of the product to be updated.
      * @param stockUpdateDTO Data containing the new stock value.
+     * @param ifMatch If-Match header of the request, or null for an unconditional update.
      * @return Mono<Product> The updated product.
      */
     @Override
-    public Mono<Product> updateProductStock(String productId, StockUpdateDTO stockUpdateDTO) {
-        return productRepository.findById(productId)
+    public Mono<Product> updateProductStock(String productId, StockUpdateDTO stockUpdateDTO, String ifMatch) {
+        if (stockWriteBehindBuffer.isEnabled()) {
+            return bufferStockChange(new StockChange(productId, stockUpdateDTO.getStock(), null), ifMatch);
+        }
+        List<Long> expectedVersions = EntityTags.versionsOf(ifMatch);
+        return productRepository.setStock(productId, stockUpdateDTO.getStock(), expectedVersions)
+                .switchIfEmpty(Mono.defer(() -> rejectedWrite(productId, expectedVersions, null)))
+                .doOnNext(product -> {
+                    onProductUpdated(product);
+                    publishStockUpdate(product);
+                });
+    }
+
+    /**
+     * Adds a delta to the stock of a specific product.
+     * The delta is applied server-side with a single atomic update that never lets the stock go below zero,
+     * or accumulated with the other pending deltas of the product in write-behind mode.
+     * With an If-Match header the update also matches on the versions it lists.
+     * @param productId ID of the product to be updated.
+     * @param stockDeltaDTO Data containing the amount to add, negative to decrease the stock.
+     * @param ifMatch If-Match header of the request, or null for an unconditional update.
+     * @return Mono<Product> The updated product.
+     */
+    @Override
+    public Mono<Product> adjustProductStock(String productId, StockDeltaDTO stockDeltaDTO, String ifMatch) {
+        if (stockWriteBehindBuffer.isEnabled()) {
+            return bufferStockChange(new StockChange(productId, null, stockDeltaDTO.getDelta()), ifMatch);
+        }
+        List<Long> expectedVersions = EntityTags.versionsOf(ifMatch);
+        return productRepository.incrementStock(productId, stockDeltaDTO.getDelta(), expectedVersions)
+                .switchIfEmpty(Mono.defer(() -> rejectedWrite(productId, expectedVersions, stockDeltaDTO.getDelta())))
+                .doOnNext(product -> {
+                    onProductUpdated(product);
+                    publishStockUpdate(product);
+                });
+    }
+
+    /**
+     * Explains why an atomic write on a product matched nothing, with a projection of its version and stock.
+     * @param productId ID of the product.
+     * @param expectedVersions Versions the write expected, or null if it was unconditional.
+     * @param delta Delta the write added to the stock, guarded to keep it in range, or null if the write set a value.
+     * @return Mono<Product> The error: the product does not exist, has another version, lacks the stock or would leave the int range.
+     */
+    private Mono<Product> rejectedWrite(String productId, List<Long> expectedVersions, Integer delta) {
+        return productRepository.findVersionById(productId)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Product not found with id: " + productId)))
-                .map(product -> {
-                    product.setStock(stockUpdateDTO.getStock());
-                    return product;
-                })
-                .flatMap(productRepository::save);
+                .flatMap(stored -> {
+                    if (delta == null || !EntityTags.isExpected(stored.getVersion(), expectedVersions)) {
+                        return Mono.error(new PreconditionFailedException("Version mismatch for product with id: " + productId));
+                    }
+                    return Mono.error(delta > 0
+                            ? new BadRequestException("Stock out of range for product with id: " + productId)
+                            : new InsufficientStockException("Insufficient stock for product with id: " + productId));
+                });
+    }
+
+    /**
+     * Records a stock change in the write-behind buffer.
+     * The stored stock comes from the product cache, so a hot product costs no round trip at all.
+     * Buffered changes do not increase the stored version, so an If-Match header is compared with
+     * the whole current tag of the product, pending stock included, under the buffer's lock.
+     * @param change The stock change.
+     * @param ifMatch If-Match header of the request, or null for an unconditional change.
+     * @return Mono<Product> The product with its pending changes applied.
+     */
+    private Mono<Product> bufferStockChange(StockChange change, String ifMatch) {
+        String productId = change.productId();
+        Consumer<Product> precondition = ifMatch == null ? null : current -> {
+            if (!EntityTags.matches(ifMatch, EntityTags.of(current), false)) {
+                throw new PreconditionFailedException("Version mismatch for product with id: " + productId);
+            }
+        };
+        return productCache.get(productId, productRepository::findById)
+                .switchIfEmpty(Mono.error(new ResourceNotFoundException("Product not found with id: " + productId)))
+                .flatMap(product -> {
+                    try {
+                        return Mono.justOrEmpty(stockWriteBehindBuffer.apply(change, product, precondition))
+                                .switchIfEmpty(Mono.error(new InsufficientStockException("Insufficient stock for product with id: " + productId)));
+                    } catch (ArithmeticException e) {
+                        return Mono.error(new BadRequestException("Stock out of range for product with id: " + productId));
+                    }
+                });
+    }
+
+    /**
+     * Writes the stock changes accumulated by the write-behind buffer.
+     * All of them go out in a single unordered bulk write, one $inc or $set per product, followed by
+     * one query reading back the stored products, which then refresh the cache, the ranking index
+     * and the stock event streams. Until then the drained changes stay in flight in the buffer, so reads
+     * and validations keep counting them. Changes whose write failed are put back for the next flush,
+     * and the others are dropped from the buffer once their cache entries are invalidated.
+     * @return Flux<Product> The flushed products, as stored after the write.
+     */
+    @Override
+    public Flux<Product> flushPendingStockChanges() {
+        return Flux.defer(() -> {
+            List<StockChange> changes = stockWriteBehindBuffer.drain();
+            if (changes.isEmpty()) {
+                return Flux.empty();
+            }
+            List<String> productIds = changes.stream().map(StockChange::productId).collect(Collectors.toList());
+            return productRepository.applyStockChanges(changes)
+                    .doOnError(error -> {
+                        stockWriteBehindBuffer.restore(failedStockChanges(changes, error));
+                        productIds.forEach(productCache::invalidate);
+                        stockWriteBehindBuffer.release(productIds);
+                    })
+                    .thenMany(productRepository.findAllById(productIds)
+                            .doOnError(error -> {
+                                productIds.forEach(productCache::invalidate);
+                                stockWriteBehindBuffer.release(productIds);
+                            }))
+                    .doOnNext(stockWriteBehindBuffer::markWritten)
+                    .doOnNext(this::onProductUpdated)
+                    .doOnNext(this::publishStockUpdate);
+        });
+    }
+
+    /**
+     * Finds the changes of a failed bulk write that were not applied.
+     * @param changes The changes sent, in bulk order.
+     * @param error The failure of the bulk write.
+     * @return List<StockChange> The rejected changes, or all of them if the outcome is unknown.
+     */
+    private static List<StockChange> failedStockChanges(List<StockChange> changes, Throwable error) {
+        List<BulkWriteError> errors = error instanceof BulkOperationException bulk ? bulk.getErrors()
+                : error instanceof MongoBulkWriteException bulk ? bulk.getWriteErrors()
+                : null;
+        if (errors == null) {
+            return changes;
+        }
+        return errors.stream().map(writeError -> changes.get(writeError.getIndex())).collect(Collectors.toList());
+    }
+
+    /**
+     * Applies a stream of absolute or relative stock updates in batches.
+     * Entries are validated one by one, so a bad entry is reported without failing the batch.
+     * @param updates Stream of stock update entries.
+     * @return Flux<BulkStockUpdateResultDTO> The outcome of every entry, in input order.
+     */
+    @Override
+    public Flux<BulkStockUpdateResultDTO> bulkUpdateProductStock(Flux<BulkStockUpdateDTO> updates) {
+        return updates
+                .buffer(bulkProperties.getBatchSize())
+                .concatMap(this::applyStockUpdateBatch);
+    }
+
+    /**
+     * Applies one batch of stock updates.
+     * Entries for the same product are merged in input order, then written or, in write-behind mode,
+     * recorded in the write-behind buffer. An entry whose merge leaves the int range is rejected
+     * and the merge carries on without it.
+     * @param batch Stock update entries of the batch.
+     * @return Flux<BulkStockUpdateResultDTO> The outcome of every entry of the batch, in input order.
+     */
+    private Flux<BulkStockUpdateResultDTO> applyStockUpdateBatch(List<BulkStockUpdateDTO> batch) {
+        Map<Integer, BulkStockUpdateResultDTO> rejected = new LinkedHashMap<>();
+        Map<String, StockChange> changes = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            BulkStockUpdateDTO update = batch.get(i);
+            String violations = validate(update);
+            if (violations != null) {
+                rejected.put(i, rejectedStockUpdate(update.getProductId(), violations));
+            } else {
+                StockChange change = new StockChange(update.getProductId(), update.getStock(), update.getDelta());
+                try {
+                    changes.merge(update.getProductId(), change, StockChange::followedBy);
+                } catch (ArithmeticException e) {
+                    rejected.put(i, rejectedStockUpdate(update.getProductId(), "Stock out of range"));
+                }
+            }
+        }
+
+        Flux<BulkStockUpdateResultDTO> outcomes = stockWriteBehindBuffer.isEnabled()
+                ? bufferStockChanges(changes.values())
+                : applyStockChanges(changes.values());
+        return outcomes
+                .collectMap(BulkStockUpdateResultDTO::getProductId)
+                .flatMapIterable(outcomesByProduct -> {
+                    List<BulkStockUpdateResultDTO> results = new ArrayList<>(batch.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        BulkStockUpdateResultDTO result = rejected.get(i);
+                        results.add(result != null ? result : outcomesByProduct.get(batch.get(i).getProductId()));
+                    }
+                    return results;
+                });
+    }
+
+    /**
+     * Writes the merged stock changes of one batch.
+     * Absolute values and zero deltas go out in a single unordered bulk write followed by one query
+     * reading back the resulting stock; other deltas need the guard keeping the stock between zero and
+     * Integer.MAX_VALUE and its per-product outcome, so they use the atomic findAndModify path with
+     * bounded concurrency.
+     * @param changes The stock changes, one per product.
+     * @return Flux<BulkStockUpdateResultDTO> The outcome for every product.
+     */
+    private Flux<BulkStockUpdateResultDTO> applyStockChanges(Collection<StockChange> changes) {
+        List<StockChange> plainChanges = new ArrayList<>();
+        List<StockChange> guardedChanges = new ArrayList<>();
+        List<BulkStockUpdateResultDTO> insufficient = new ArrayList<>();
+        for (StockChange change : changes) {
+            if (change.stock() == null && change.delta() != 0) {
+                guardedChanges.add(change);
+            } else if (change.stock() != null && change.stock() < 0) {
+                insufficient.add(rejectedStockUpdate(change.productId(), "Insufficient stock"));
+            } else {
+                plainChanges.add(change);
+            }
+        }
+
+        return Flux.merge(
+                Flux.fromIterable(insufficient),
+                applyPlainStockChanges(plainChanges),
+                applyGuardedStockChanges(guardedChanges));
+    }
+
+    /**
+     * Records the merged stock changes of one batch in the write-behind buffer.
+     * The stored stock of the whole batch is read with a single query.
+     * @param changes The stock changes, one per product.
+     * @return Flux<BulkStockUpdateResultDTO> The outcome for every product.
+     */
+    private Flux<BulkStockUpdateResultDTO> bufferStockChanges(Collection<StockChange> changes) {
+        if (changes.isEmpty()) {
+            return Flux.empty();
+        }
+        List<String> productIds = changes.stream().map(StockChange::productId).collect(Collectors.toList());
+        return productRepository.findAllById(productIds)
+                .collectMap(Product::getId)
+                .flatMapIterable(stored -> changes.stream()
+                        .map(change -> stored.containsKey(change.productId())
+                                ? bufferStockChange(change, stored.get(change.productId()))
+                                : notFoundStockUpdate(change.productId()))
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Records one merged stock change of a batch in the write-behind buffer.
+     * @param change The stock change.
+     * @param stored The product as stored in MongoDB.
+     * @return BulkStockUpdateResultDTO The outcome for the product.
+     */
+    private BulkStockUpdateResultDTO bufferStockChange(StockChange change, Product stored) {
+        try {
+            return stockWriteBehindBuffer.apply(change, stored)
+                    .map(ProductServiceImpl::updatedStock)
+                    .orElseGet(() -> rejectedStockUpdate(change.productId(), "Insufficient stock"));
+        } catch (ArithmeticException e) {
+            return rejectedStockUpdate(change.productId(), "Stock out of range");
+        }
+    }
+
+    /**
+     * Applies stock changes that cannot fail with a single bulk write and reads back the resulting stock.
+     * @param changes Absolute values and zero deltas, one per product.
+     * @return Flux<BulkStockUpdateResultDTO> The outcome for every product.
+     */
+    private Flux<BulkStockUpdateResultDTO> applyPlainStockChanges(List<StockChange> changes) {
+        if (changes.isEmpty()) {
+            return Flux.empty();
+        }
+        List<String> productIds = changes.stream().map(StockChange::productId).collect(Collectors.toList());
+        return productRepository.applyStockChanges(changes)
+                .thenMany(productRepository.findAllById(productIds))
+                .doOnNext(this::onProductUpdated)
+                .doOnNext(this::publishStockUpdate)
+                .collectMap(Product::getId)
+                .flatMapIterable(written -> productIds.stream()
+                        .map(productId -> written.containsKey(productId)
+                                ? updatedStock(written.get(productId))
+                                : notFoundStockUpdate(productId))
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Applies deltas one by one through the guarded atomic update.
+     * A decrease beyond the stored stock is reported as insufficient stock, an increase beyond
+     * Integer.MAX_VALUE as out of range.
+     * @param changes Non-zero deltas, one per product.
+     * @return Flux<BulkStockUpdateResultDTO> The outcome for every product.
+     */
+    private Flux<BulkStockUpdateResultDTO> applyGuardedStockChanges(List<StockChange> changes) {
+        return Flux.fromIterable(changes)
+                .flatMap(change -> productRepository.incrementStock(change.productId(), change.delta(), null)
+                        .doOnNext(this::onProductUpdated)
+                        .doOnNext(this::publishStockUpdate)
+                        .map(ProductServiceImpl::updatedStock)
+                        .switchIfEmpty(Mono.defer(() -> productRepository.existsById(change.productId())
+                                .map(exists -> exists
+                                        ? rejectedStockUpdate(change.productId(),
+                                                change.delta() > 0 ? "Stock out of range" : "Insufficient stock")
+                                        : notFoundStockUpdate(change.productId())))),
+                        bulkProperties.getConcurrency());
+    }
+
+    /**
+     * Validates a bulk entry against its bean validation constraints.
+     * @param entry The entry to validate.
+     * @return String The joined violation messages, or null if the entry is valid.
+     */
+    private String validate(Object entry) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(entry);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Builds the outcome of an updated product.
+     * @param product The product after the update.
+     * @return BulkStockUpdateResultDTO The UPDATED outcome with the resulting stock.
+     */
+    private static BulkStockUpdateResultDTO updatedStock(Product product) {
+        return BulkStockUpdateResultDTO.builder()
+                .productId(product.getId())
+                .status(BulkStockUpdateResultDTO.Status.UPDATED)
+                .stock(product.getStock())
+                .build();
+    }
+
+    /**
+     * Builds the outcome of a missing product.
+     * @param productId ID of the product.
+     * @return BulkStockUpdateResultDTO The NOT_FOUND outcome.
+     */
+    private static BulkStockUpdateResultDTO notFoundStockUpdate(String productId) {
+        return BulkStockUpdateResultDTO.builder()
+                .productId(productId)
+                .status(BulkStockUpdateResultDTO.Status.NOT_FOUND)
+                .message("Product not found with id: " + productId)
+                .build();
+    }
+
+    /**
+     * Builds the outcome of a rejected entry.
+     * @param productId ID of the product.
+     * @param message Reason of the rejection.
+     * @return BulkStockUpdateResultDTO The REJECTED outcome.
+     */
+    private static BulkStockUpdateResultDTO rejectedStockUpdate(String productId, String message) {
+        return BulkStockUpdateResultDTO.builder()
+                .productId(productId)
+                .status(BulkStockUpdateResultDTO.Status.REJECTED)
+                .message(message)
+                .build();
     }
 
     /**
      * Updates the name of a specific product.
+     * The name is written with a single atomic update.
+     * With an If-Match header the update also matches on the versions it lists.
      * @param productId ID of the product to be updated.
      * @param newName New name for the product.
+     * @param ifMatch If-Match header of the request, or null for an unconditional update.
      * @return Mono<Product> The updated product.
      */
     @Override
-    public Mono<Product> updateProductName(String productId, String newName) {
-        return productRepository.findById(productId)
+    public Mono<Product> updateProductName(String productId, String newName, String ifMatch) {
+        List<Long> expectedVersions = EntityTags.versionsOf(ifMatch);
+        return productRepository.setName(productId, newName, expectedVersions)
+                .switchIfEmpty(Mono.defer(() -> rejectedWrite(productId, expectedVersions, null)))
+                .doOnNext(this::onProductUpdated)
+                .map(stockWriteBehindBuffer::withPending);
+    }
+
+    /**
+     * Retrieves a product by its ID.
+     * Reads go through the product cache and include the stock changes not flushed yet.
+     * @param productId ID of the product to be retrieved.
+     * @return Mono<Product> The found product.
+     */
+    @Override
+    public Mono<Product> getProductById(String productId) {
+        return productCache.get(productId, productRepository::findById)
                 .switchIfEmpty(Mono.error(new ResourceNotFoundException("Product not found with id: " + productId)))
-                .map(product -> {
-                    product.setName(newName);
-                    return product;
-                })
-                .flatMap(productRepository::save);
+                .map(stockWriteBehindBuffer::withPending);
     }
 
     /**
-     * Retrieves the product with the highest stock for each branch in a specific franchise.
+     * Computes the ETag of a product from a projection of its version and stock.
+     * The projection skips the cache, so the tag reflects the stored product, with the stock
+     * changes not flushed yet applied on top.
+     * @param productId ID of the product.
+     * @return Mono<String> The current ETag of the product, or empty if it does not exist.
+     */
+    @Override
+    public Mono<String> getProductTag(String productId) {
+        return productRepository.findVersionById(productId)
+                .map(stockWriteBehindBuffer::withPending)
+                .map(EntityTags::of);
+    }
+
+    /**
+     * Retrieves the products with the highest stock for each branch in a specific franchise.
+     * Served from the in-process ranking index once it is built; otherwise the ranking runs
+     * as a single aggregation, so only the winning rows are transferred, and identical
+     * concurrent requests share one aggregation.
      * @param franchiseId ID of the franchise.
+     * @param top Maximum number of products returned per branch.
      * @return Flux<ProductDetailsDTO> List of products with the highest stock, including branch information.
      */
     @Override
-    public Flux<ProductDetailsDTO> getProductsWithHighestStockPerBranch(String franchiseId) {
-        return branchRepository.findByFranchiseId(franchiseId)
-                .flatMap(branch -> Flux.fromIterable(branch.getProducts())
-                        .sort(Comparator.comparing(Product::getStock).reversed())
-                        .take(1)
-                        .map(product -> ProductDetailsDTO.builder()
-                                .productId(product.getId())
-                                .productName(product.getName())
-                                .stock(product.getStock())
-                                .branchId(branch.getId())
-                                .branchName(branch.getName())
-                                .build()));
+    public Flux<ProductDetailsDTO> getProductsWithHighestStockPerBranch(String franchiseId, int top) {
+        if (top < 1 || top > MAX_TOP_PRODUCTS) {
+            return Flux.error(new BadRequestException("Top must be between 1 and " + MAX_TOP_PRODUCTS));
+        }
+        return stockRankingIndex.findTopProductsPerBranch(franchiseId, top)
+                .map(Flux::fromIterable)
+                .orElseGet(() -> highestStockCoalescer.get(franchiseId + ":" + top,
+                                key -> branchRepository.findTopProductsByStockPerBranch(franchiseId, top).collectList())
+                        .flatMapMany(Flux::fromIterable));
+    }
+
+    /**
+     * Streams the stock changes of the products of a specific franchise.
+     * @param franchiseId ID of the franchise.
+     * @return Flux<StockChangeEventDTO> The stock changes, as they happen.
+     */
+    @Override
+    public Flux<StockChangeEventDTO> streamStockEvents(String franchiseId) {
+        return stockEventPublisher.subscribe(franchiseId);
+    }
+
+    /**
+     * Propagates a newly added product to the ranking index, the product cache, the low-stock rules and the stock event streams.
+     * @param branch The branch the product was added to, with its ID and franchise ID.
+     * @param product The added product.
+     */
+    private void onProductAdded(Branch branch, Product product) {
+        stockRankingIndex.onProductAdded(branch.getId(), product);
+        productCache.put(product.getId(), product);
+        lowStockAlertEngine.evaluate(product);
+        publishStockChange(StockChangeEventDTO.Type.ADDED, product.getId(), product.getName(), product.getStock(),
+                branch.getId(), branch.getFranchiseId());
+    }
+
+    /**
+     * Propagates an updated product to the ranking index, the product cache and the cached graphs embedding it.
+     * @param product The product as written.
+     */
+    private void onProductUpdated(Product product) {
+        stockRankingIndex.onProductUpdated(product);
+        productCache.put(product.getId(), product);
+        invalidateBranchViews(product.getBranchId(), product.getFranchiseId());
+    }
+
+    /**
+     * Invalidates the cached graphs embedding the products of a branch and the highest stock queries in flight for its franchise.
+     * Products not yet backfilled by the back-reference migration do not know their branch,
+     * so every cached branch and franchise is invalidated for them.
+     * @param branchId ID of the branch, or null if unknown.
+     * @param franchiseId ID of the branch's franchise, or null if unknown.
+     */
+    private void invalidateBranchViews(String branchId, String franchiseId) {
+        if (branchId == null || franchiseId == null) {
+            branchCache.invalidateAll();
+            franchiseCache.invalidateAll();
+            highestStockCoalescer.forgetAll();
+        } else {
+            branchCache.invalidate(branchId);
+            franchiseCache.invalidate(franchiseId);
+            // Highest stock reports are keyed by franchise ID and number of products
+            highestStockCoalescer.forgetIf(key -> key.startsWith(franchiseId + ":"));
+        }
+    }
+
+    /**
+     * Evaluates the low-stock rule of an updated product and publishes its stock to the streams of its franchise.
+     * Every path writing a stock ends here, including the bulk updates and the write-behind flushes.
+     * Products not yet backfilled by the back-reference migration do not know their franchise and are not published.
+     * @param product The updated product.
+     */
+    private void publishStockUpdate(Product product) {
+        lowStockAlertEngine.evaluate(product);
+        if (product.getBranchId() != null && product.getFranchiseId() != null) {
+            publishStockChange(StockChangeEventDTO.Type.UPDATED, product.getId(), product.getName(), product.getStock(),
+                    product.getBranchId(), product.getFranchiseId());
+        }
+    }
+
+    /**
+     * Publishes a single stock change to the streams of the branch's franchise.
+     * @param type Type of the change.
+     * @param productId ID of the product.
+     * @param productName Name of the product, or null if it was removed.
+     * @param stock Stock of the product, or null if it was removed.
+     * @param branchId ID of the branch holding the product.
+     * @param franchiseId ID of the branch's franchise.
+     */
+    private void publishStockChange(StockChangeEventDTO.Type type, String productId, String productName,
+                                    Integer stock, String branchId, String franchiseId) {
+        if (!stockEventPublisher.hasSubscribers()) {
+            return;
+        }
+        stockEventPublisher.publish(StockChangeEventDTO.builder()
+                .type(type)
+                .productId(productId)
+                .productName(productName)
+                .stock(stock)
+                .branchId(branchId)
+                .franchiseId(franchiseId)
+                .timestamp(Instant.now())
+                .build());
+    }
+
+    /**
+     * Progress of a snapshot import.
+     * Only touched by the import's own sequential batches, so it needs no synchronization.
+     */
+    private static final class SnapshotImport {
+
+        private final Set<String> names = new HashSet<>();
+        private final Set<String> rejectedNames = new HashSet<>();
+        private final Set<String> keptIds = new HashSet<>();
+        private final List<BulkProductResultDTO> rejections = new ArrayList<>();
+        private long received;
+        private long inserted;
+        private long updated;
+        private long unchanged;
+        private long deleted;
+        private long rejected;
+
+        private void reject(long line, String name, String message) {
+            rejected++;
+            if (name != null) {
+                rejectedNames.add(name);
+            }
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                rejections.add(BulkProductResultDTO.builder()
+                        .line(line)
+                        .name(name)
+                        .status(BulkProductResultDTO.Status.REJECTED)
+                        .message(message)
+                        .build());
+            }
+        }
+
+        private SnapshotImportResultDTO toResult(String branchId) {
+            return SnapshotImportResultDTO.builder()
+                    .branchId(branchId)
+                    .received(received)
+                    .inserted(inserted)
+                    .updated(updated)
+                    .unchanged(unchanged)
+                    .deleted(deleted)
+                    .rejected(rejected)
+                    .rejections(rejections)
+                    .build();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,181 @@
+package com.franchise.service.support;
+
+import com.franchise.model.Branch;
+import com.franchise.model.Franchise;
+import com.franchise.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Builds and compares the strong ETags of the franchise, branch and product reads.
+ * Every tag starts with the version of the document it was read from:
+ * - a summary is tagged with its version alone, "7";
+ * - a product with its version and stock, "7-12", so stock changes still waiting in the
+ *   write-behind buffer change the tag before they are flushed;
+ * - a hydrated franchise or branch with its version and a digest of the IDs and versions of the
+ *   documents embedded in it, "7-3fa1c09e5b2d4f60", so adding, removing or updating any of
+ *   them changes the tag.
+ * The conditional writes compare the leading version of the If-Match tags with the stored one,
+ * so any tag read from a resource can make a write on it conditional.
+ * Documents written before versioning have no version and are tagged as version 0.
+ */
+public final class EntityTags {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+    private static final int DIGEST_BYTES = 8;
+
+    private EntityTags() {
+    }
+
+    /**
+     * Tags a document by its version alone.
+     * @param version The version of the document, or null if it has none yet.
+     * @return String The quoted tag.
+     */
+    public static String of(Long version) {
+        return quote(String.valueOf(versionOf(version)));
+    }
+
+    /**
+     * Tags a product by its version and stock.
+     * @param product The product, with its pending stock changes applied.
+     * @return String The quoted tag.
+     */
+    public static String of(Product product) {
+        return quote(versionOf(product.getVersion()) + "-" + product.getStock());
+    }
+
+    /**
+     * Tags a hydrated franchise by its version and the versions of its branches and their products.
+     * @param franchise The hydrated franchise.
+     * @return String The quoted tag.
+     */
+    public static String ofGraph(Franchise franchise) {
+        List<Product> products = new ArrayList<>();
+        franchise.getBranches().forEach(branch -> products.addAll(branch.getProducts()));
+        return ofGraph(franchise.getVersion(), franchise.getBranches(), products);
+    }
+
+    /**
+     * Tags a hydrated branch by its version and the versions of its products.
+     * @param branch The hydrated branch.
+     * @return String The quoted tag.
+     */
+    public static String ofGraph(Branch branch) {
+        return ofGraph(branch.getVersion(), List.of(), branch.getProducts());
+    }
+
+    /**
+     * Tags a graph from the version of its root and the IDs and versions of the documents embedded in it.
+     * The digest does not depend on the order of the documents, so a graph read whole and one
+     * rebuilt from version-only projections get the same tag.
+     * @param version The version of the root document.
+     * @param branches The embedded branches, with at least their ID and version.
+     * @param products The embedded products, with at least their ID and version.
+     * @return String The quoted tag.
+     */
+    public static String ofGraph(Long version, List<Branch> branches, List<Product> products) {
+        MessageDigest digest = sha256();
+        branches.stream()
+                .sorted(Comparator.comparing(Branch::getId))
+                .forEach(branch -> update(digest, 'b', branch.getId(), branch.getVersion()));
+        products.stream()
+                .sorted(Comparator.comparing(Product::getId))
+                .forEach(product -> update(digest, 'p', product.getId(), product.getVersion()));
+        return quote(versionOf(version) + "-" + HexFormat.of().formatHex(Arrays.copyOf(digest.digest(), DIGEST_BYTES)));
+    }
+
+    /**
+     * Checks whether a tag is listed by an If-None-Match or If-Match header.
+     * @param header The header value: "*" or a comma-separated list of quoted tags.
+     * @param tag The current tag of the resource.
+     * @param weak True to compare weakly, as If-None-Match does, ignoring the W/ prefix of the listed tags.
+     * @return boolean True if the header lists the tag or is "*".
+     */
+    public static boolean matches(String header, String tag, boolean weak) {
+        for (String candidate : header.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals(ANY)) {
+                return true;
+            }
+            if (candidate.startsWith(WEAK_PREFIX)) {
+                if (!weak) {
+                    continue;
+                }
+                candidate = candidate.substring(WEAK_PREFIX.length());
+            }
+            if (candidate.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Extracts the versions a conditional write expects from its If-Match header.
+     * Weak and unreadable tags are ignored, as they can never match under the strong comparison.
+     * @param ifMatch The If-Match header, or null.
+     * @return List<Long> The expected versions, possibly none, or null if the write is unconditional (no header or "*").
+     */
+    public static List<Long> versionsOf(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (String candidate : ifMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals(ANY)) {
+                return null;
+            }
+            if (candidate.length() < 2 || !candidate.startsWith("\"") || !candidate.endsWith("\"")) {
+                continue;
+            }
+            String value = candidate.substring(1, candidate.length() - 1);
+            int separator = value.indexOf('-');
+            try {
+                versions.add(Long.parseLong(separator < 0 ? value : value.substring(0, separator)));
+            } catch (NumberFormatException e) {
+                // Not one of our tags; it can never match
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Checks a stored version against the versions a conditional write expects.
+     * @param version The stored version, or null if the document has none yet.
+     * @param expectedVersions The expected versions, or null if the write is unconditional.
+     * @return boolean True if the write may proceed.
+     */
+    public static boolean isExpected(Long version, List<Long> expectedVersions) {
+        return expectedVersions == null || expectedVersions.contains(versionOf(version));
+    }
+
+    private static long versionOf(Long version) {
+        return version != null ? version : 0L;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+
+    private static void update(MessageDigest digest, char kind, String id, Long version) {
+        digest.update((kind + id + ':' + versionOf(version) + ';').getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
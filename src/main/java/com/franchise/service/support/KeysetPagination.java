@@ -0,0 +1,85 @@
+package com.franchise.service.support;
+
+import com.franchise.config.PaginationProperties;
+import com.franchise.dto.PageDTO;
+import com.franchise.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Resolves the parameters of keyset paginated listings and builds their pages.
+ * Pages are ordered by ID and the cursor is the ID of the last item of the previous page,
+ * encoded so that clients treat it as opaque. Every page is a single range query on the
+ * ID, so its cost does not depend on how deep into the listing it is.
+ */
+@Component
+@RequiredArgsConstructor
+public class KeysetPagination {
+
+    // Injecting the PaginationProperties using constructor injection
+    private final PaginationProperties properties;
+
+    /**
+     * Resolves the page size of a request.
+     * @param limit The requested page size, or null to use the default.
+     * @return int The page size.
+     */
+    public int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return properties.getDefaultLimit();
+        }
+        if (limit < 1 || limit > properties.getMaxLimit()) {
+            throw new BadRequestException("The 'limit' parameter must be between 1 and " + properties.getMaxLimit());
+        }
+        return limit;
+    }
+
+    /**
+     * Decodes the cursor of a request into the ID the page starts after.
+     * @param cursor The opaque cursor, or null for the first page.
+     * @return String The ID of the last item of the previous page, or null for the first page.
+     */
+    public String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Builds a page from a slice read in ID order.
+     * @param slice The slice of items.
+     * @param idOf Extracts the ID of an item.
+     * @param <T> Type of the items.
+     * @return PageDTO<T> The page, with the cursor of the next one if there is more data.
+     */
+    public <T> PageDTO<T> toPage(Slice<T> slice, Function<T, String> idOf) {
+        List<T> items = slice.getContent();
+        String nextCursor = slice.hasNext() && !items.isEmpty()
+                ? encodeCursor(idOf.apply(items.get(items.size() - 1)))
+                : null;
+        return PageDTO.<T>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Encodes an ID into an opaque cursor.
+     * @param id The ID of the last item of a page.
+     * @return String The cursor.
+     */
+    private static String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,161 @@
+package com.franchise.service.support;
+
+import com.franchise.config.LowStockAlertProperties;
+import com.franchise.model.LowStockAlert;
+import com.franchise.model.LowStockRule;
+import com.franchise.model.Product;
+import com.franchise.repository.LowStockAlertRepository;
+import com.franchise.repository.LowStockRuleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates the low-stock rules every time the product service writes a stock.
+ * Rules are held in memory, keyed by product and by branch, and the products currently low on
+ * stock in a concurrent set, so evaluating a change costs two map lookups and at most one set
+ * update whatever the size of the inventory; nothing is polled. Alerts are raised only when a
+ * product crosses its rule: once when the stock drops to the threshold, once more when it
+ * climbs back to the recovery level, so a stock flapping inside the band stays silent.
+ * Raised alerts are stored in the background; a failed insert is logged and does not fail the
+ * stock update. The alert state is not stored: after a restart, a product that is still low
+ * raises its alert again on its next stock change.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LowStockAlertEngine {
+
+    // Injecting the repositories and LowStockAlertProperties using constructor injection
+    private final LowStockRuleRepository lowStockRuleRepository;
+    private final LowStockAlertRepository lowStockAlertRepository;
+    private final LowStockAlertProperties properties;
+
+    private final Map<String, LowStockRule> productRules = new ConcurrentHashMap<>();
+    private final Map<String, LowStockRule> branchRules = new ConcurrentHashMap<>();
+    private final Set<String> lowProducts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Loads the stored rules once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isEnabled()) {
+            loadRules().subscribe(
+                    null,
+                    error -> log.error("Failed to load the low-stock rules", error));
+        }
+    }
+
+    /**
+     * Loads the stored rules into memory.
+     * Rules set through the service while loading win over the stored versions.
+     * @return Mono<Void> A Mono signaling when every rule is loaded.
+     */
+    public Mono<Void> loadRules() {
+        return lowStockRuleRepository.findAll()
+                .doOnNext(rule -> rulesOf(rule.getScope()).putIfAbsent(rule.getTargetId(), rule))
+                .count()
+                .doOnNext(count -> log.info("Loaded {} low-stock rules", count))
+                .then();
+    }
+
+    /**
+     * Installs or replaces a rule. Products already low keep their state under the new rule.
+     * @param rule The rule, as stored.
+     */
+    public void onRuleSaved(LowStockRule rule) {
+        rulesOf(rule.getScope()).put(rule.getTargetId(), rule);
+    }
+
+    /**
+     * Removes a rule. The products it covered leave the low state silently on their next change.
+     * @param scope What the rule applied to.
+     * @param targetId ID of the branch or product.
+     */
+    public void onRuleRemoved(LowStockRule.Scope scope, String targetId) {
+        rulesOf(scope).remove(targetId);
+    }
+
+    /**
+     * Evaluates the stock of a product against its rule, the product's own or else its branch's,
+     * and raises an alert if the product crossed the threshold or the recovery level.
+     * @param product The product as written.
+     */
+    public void evaluate(Product product) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LowStockRule rule = ruleOf(product);
+        if (rule == null) {
+            lowProducts.remove(product.getId());
+            return;
+        }
+        int stock = product.getStock() != null ? product.getStock() : 0;
+        if (stock <= rule.getThreshold()) {
+            if (lowProducts.add(product.getId())) {
+                raise(LowStockAlert.Type.LOW_STOCK, product, stock, rule);
+            }
+        } else if (stock >= rule.recoveryLevel() && lowProducts.remove(product.getId())) {
+            raise(LowStockAlert.Type.RECOVERED, product, stock, rule);
+        }
+    }
+
+    /**
+     * Forgets the low state of a removed product.
+     * @param productId ID of the product.
+     */
+    public void forget(String productId) {
+        lowProducts.remove(productId);
+    }
+
+    /**
+     * Finds the rule applying to a product.
+     * @param product The product.
+     * @return LowStockRule The rule of the product, else the rule of its branch, or null if none applies.
+     */
+    private LowStockRule ruleOf(Product product) {
+        LowStockRule rule = productRules.get(product.getId());
+        if (rule == null && product.getBranchId() != null) {
+            rule = branchRules.get(product.getBranchId());
+        }
+        return rule;
+    }
+
+    /**
+     * Stores an alert in the background.
+     * @param type Kind of the alert.
+     * @param product The product that crossed the rule.
+     * @param stock Stock of the product.
+     * @param rule The rule it crossed.
+     */
+    private void raise(LowStockAlert.Type type, Product product, int stock, LowStockRule rule) {
+        LowStockAlert alert = LowStockAlert.builder()
+                .type(type)
+                .productId(product.getId())
+                .productName(product.getName())
+                .stock(stock)
+                .threshold(rule.getThreshold())
+                .recoveryLevel(rule.recoveryLevel())
+                .ruleId(rule.getId())
+                .branchId(product.getBranchId())
+                .franchiseId(product.getFranchiseId() != null ? product.getFranchiseId() : rule.getFranchiseId())
+                .timestamp(Instant.now())
+                .build();
+        lowStockAlertRepository.insert(alert).subscribe(
+                null,
+                error -> log.error("Failed to store the {} alert of product {}", type, product.getId(), error));
+    }
+
+    private Map<String, LowStockRule> rulesOf(LowStockRule.Scope scope) {
+        return scope == LowStockRule.Scope.PRODUCT ? productRules : branchRules;
+    }
+}
@@ -0,0 +1,110 @@
+package com.franchise.service.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Single-flight execution of identical concurrent loads.
+ * The first caller for a key starts the load and every caller arriving while it is in flight
+ * subscribes to the same result instead of starting its own. The load is forgotten as soon as
+ * it terminates, so nothing is cached beyond its own lifetime; writes call {@link #forget}
+ * so that callers arriving after a write never join a load that read the data before it.
+ * @param <K> Type of the keys.
+ * @param <V> Type of the loaded values.
+ */
+public class RequestCoalescer<K, V> {
+
+    private static final String METRIC_NAME = "franchise.coalescing.calls";
+
+    private final boolean enabled;
+    private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    /**
+     * Constructor for RequestCoalescer.
+     * @param name Name of the coalesced load, reported in the metrics.
+     * @param enabled Whether loads are shared; when false every caller runs its own load.
+     * @param registry The meter registry.
+     */
+    public RequestCoalescer(String name, boolean enabled, MeterRegistry registry) {
+        this.enabled = enabled;
+        this.executed = counter(name, "executed", registry);
+        this.coalesced = counter(name, "coalesced", registry);
+    }
+
+    /**
+     * Returns the result of the load in flight for a key, starting it if there is none.
+     * @param key The key of the load.
+     * @param loader Function loading the value; may complete empty.
+     * @return Mono<V> The loaded value, shared with every concurrent caller for the same key.
+     */
+    public Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        if (!enabled) {
+            return Mono.defer(() -> {
+                executed.increment();
+                return loader.apply(key);
+            });
+        }
+        return Mono.defer(() -> {
+            Mono<V> current = inFlight.get(key);
+            if (current != null) {
+                coalesced.increment();
+                return current;
+            }
+            AtomicReference<Mono<V>> self = new AtomicReference<>();
+            Runnable release = () -> inFlight.remove(key, self.get());
+            Mono<V> load = Mono.defer(() -> loader.apply(key))
+                    .doOnTerminate(release)
+                    .doOnCancel(release)
+                    .share();
+            self.set(load);
+            Mono<V> winner = inFlight.putIfAbsent(key, load);
+            if (winner != null) {
+                coalesced.increment();
+                return winner;
+            }
+            executed.increment();
+            return load;
+        });
+    }
+
+    /**
+     * Detaches the load in flight for a key, so later callers start a fresh one.
+     * Callers already waiting on it still receive its result.
+     * @param key The key of the load.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * Detaches the loads in flight whose key matches a predicate.
+     * @param predicate Selects the keys to detach.
+     */
+    public void forgetIf(Predicate<K> predicate) {
+        inFlight.keySet().removeIf(predicate);
+    }
+
+    /**
+     * Detaches every load in flight.
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    private static Counter counter(String name, String result, MeterRegistry registry) {
+        return Counter.builder(METRIC_NAME)
+                .description("Calls of a coalesced load, by whether they ran the load or joined one in flight")
+                .tag("name", name)
+                .tag("result", result)
+                .register(registry);
+    }
+}
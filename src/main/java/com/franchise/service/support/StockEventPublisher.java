@@ -0,0 +1,109 @@
+package com.franchise.service.support;
+
+import com.franchise.config.StockEventProperties;
+import com.franchise.dto.StockChangeEventDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans stock changes out to the subscribers of each franchise.
+ * Every franchise with subscribers gets a best-effort multicast sink. Each subscriber reads
+ * it through its own bounded buffer, so a lagging client only affects itself: depending on
+ * the configured policy its oldest events are dropped or its stream is closed.
+ * The sink of a franchise is released when its last subscriber leaves.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockEventPublisher {
+
+    // Injecting the StockEventProperties using constructor injection
+    private final StockEventProperties properties;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Indicates whether any franchise currently has subscribers.
+     * Lets callers skip building events nobody would receive.
+     * @return boolean True if at least one stream is open.
+     */
+    public boolean hasSubscribers() {
+        return !channels.isEmpty();
+    }
+
+    /**
+     * Opens a stream of the stock changes of a franchise.
+     * @param franchiseId ID of the franchise.
+     * @return Flux<StockChangeEventDTO> The changes published from now on.
+     */
+    public Flux<StockChangeEventDTO> subscribe(String franchiseId) {
+        return Flux.defer(() -> {
+            Channel channel = channels.compute(franchiseId, (id, existing) -> {
+                Channel target = existing != null ? existing : new Channel();
+                target.subscribers++;
+                return target;
+            });
+            return applySlowSubscriberPolicy(channel.sink.asFlux())
+                    .doFinally(signal -> release(franchiseId, channel));
+        });
+    }
+
+    /**
+     * Publishes a stock change to the subscribers of its franchise.
+     * @param event The stock change.
+     */
+    public void publish(StockChangeEventDTO event) {
+        if (event.getFranchiseId() == null) {
+            return;
+        }
+        Channel channel = channels.get(event.getFranchiseId());
+        if (channel != null) {
+            synchronized (channel) {
+                channel.sink.tryEmitNext(event);
+            }
+        }
+    }
+
+    /**
+     * Bounds the buffer of a single subscriber according to the configured policy.
+     * @param events The events of the franchise.
+     * @return Flux<StockChangeEventDTO> The events as seen by one subscriber.
+     */
+    private Flux<StockChangeEventDTO> applySlowSubscriberPolicy(Flux<StockChangeEventDTO> events) {
+        if (properties.getSlowSubscriberPolicy() == StockEventProperties.SlowSubscriberPolicy.DISCONNECT) {
+            return events
+                    .onBackpressureBuffer(properties.getBufferSize(), dropped -> { }, BufferOverflowStrategy.ERROR)
+                    .onErrorResume(Exceptions::isOverflow, error -> Flux.empty());
+        }
+        return events.onBackpressureBuffer(properties.getBufferSize(), dropped -> { }, BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    /**
+     * Releases a subscription, removing the channel once nobody listens to it.
+     * @param franchiseId ID of the franchise.
+     * @param channel The channel the subscriber was attached to.
+     */
+    private void release(String franchiseId, Channel channel) {
+        channels.computeIfPresent(franchiseId, (id, existing) -> {
+            if (existing != channel) {
+                return existing;
+            }
+            return --existing.subscribers == 0 ? null : existing;
+        });
+    }
+
+    /**
+     * Sink of a franchise and the number of subscribers attached to it.
+     */
+    private static final class Channel {
+
+        private final Sinks.Many<StockChangeEventDTO> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+    }
+}
@@ -0,0 +1,313 @@
+package com.franchise.service.support;
+
+import com.franchise.config.StockRankingProperties;
+import com.franchise.dto.ProductDetailsDTO;
+import com.franchise.model.Branch;
+import com.franchise.model.Product;
+import com.franchise.repository.BranchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * In-process index keeping the products of every branch ranked by stock.
+ * The index is rebuilt from MongoDB at startup and then maintained incrementally by the
+ * product and branch services, so the highest stock report costs O(branches * top)
+ * instead of a scan over the franchise inventory.
+ * Changes are applied one at a time, and those applied while a rebuild is running are replayed
+ * on the rebuilt snapshot; every change is idempotent, so replaying one the rebuild already saw
+ * is harmless. Queries only take the per-branch monitors, so they never wait on a change to
+ * another branch.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockRankingIndex {
+
+    // Products ordered by stock descending, ties broken by ID like the aggregation does
+    private static final Comparator<RankedProduct> RANKING_ORDER = Comparator
+            .comparing(RankedProduct::stock, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+            .reversed()
+            .thenComparing(RankedProduct::productId);
+
+    // Injecting the BranchRepository and StockRankingProperties using constructor injection
+    private final BranchRepository branchRepository;
+    private final StockRankingProperties properties;
+
+    private final Object lock = new Object();
+    private volatile Snapshot current = new Snapshot();
+    private volatile boolean ready;
+    private List<Consumer<Snapshot>> pendingChanges;
+
+    /**
+     * Rebuilds the index once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (properties.isEnabled()) {
+            rebuild().subscribe(
+                    null,
+                    error -> log.error("Failed to build the stock ranking index", error));
+        }
+    }
+
+    /**
+     * Rebuilds the index from the branches and products stored in MongoDB.
+     * Queries keep being answered from the previous snapshot, or by the caller's fallback,
+     * until the rebuild completes.
+     * @return Mono<Void> A Mono signaling when the rebuilt snapshot has been installed.
+     */
+    public Mono<Void> rebuild() {
+        return rebuild(Flux.defer(branchRepository::findAllHydrated));
+    }
+
+    /**
+     * Rebuilds the index from the given hydrated branches.
+     * @param branches Branches with their products resolved.
+     * @return Mono<Void> A Mono signaling when the rebuilt snapshot has been installed.
+     */
+    public Mono<Void> rebuild(Flux<Branch> branches) {
+        return Mono.fromRunnable(() -> {
+                    synchronized (lock) {
+                        pendingChanges = new ArrayList<>();
+                    }
+                })
+                .thenMany(branches)
+                .reduceWith(Snapshot::new, (snapshot, branch) -> {
+                    snapshot.putBranch(branch.getId(), branch.getName(), branch.getFranchiseId());
+                    branch.getProducts().forEach(product -> snapshot.putProduct(branch.getId(), product));
+                    return snapshot;
+                })
+                .doOnNext(snapshot -> {
+                    synchronized (lock) {
+                        pendingChanges.forEach(change -> change.accept(snapshot));
+                        pendingChanges = null;
+                        current = snapshot;
+                        ready = true;
+                    }
+                    log.info("Stock ranking index built with {} branches", snapshot.branches.size());
+                })
+                .doOnError(error -> {
+                    synchronized (lock) {
+                        pendingChanges = null;
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * Indicates whether the index can answer queries.
+     * @return boolean True once the index is enabled and has been built.
+     */
+    public boolean isReady() {
+        return properties.isEnabled() && ready;
+    }
+
+    /**
+     * Returns the products with the highest stock of every branch of a franchise.
+     * @param franchiseId ID of the franchise.
+     * @param top Maximum number of products returned per branch.
+     * @return Optional<List<ProductDetailsDTO>> The ranked products ordered by branch, or empty if the index is not ready.
+     */
+    public Optional<List<ProductDetailsDTO>> findTopProductsPerBranch(String franchiseId, int top) {
+        if (!isReady()) {
+            return Optional.empty();
+        }
+        Snapshot snapshot = current;
+        List<ProductDetailsDTO> result = new ArrayList<>();
+        for (String branchId : snapshot.branchesOf(franchiseId)) {
+            BranchRanking ranking = snapshot.branches.get(branchId);
+            if (ranking != null) {
+                ranking.collectTop(top, result);
+            }
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Registers a branch, or updates its name.
+     * @param branch The branch.
+     */
+    public void onBranchSaved(Branch branch) {
+        String branchId = branch.getId();
+        String name = branch.getName();
+        String franchiseId = branch.getFranchiseId();
+        apply(snapshot -> snapshot.putBranch(branchId, name, franchiseId));
+    }
+
+    /**
+     * Registers a product added to a branch.
+     * @param branchId ID of the branch.
+     * @param product The added product.
+     */
+    public void onProductAdded(String branchId, Product product) {
+        Product copy = copyOf(product);
+        apply(snapshot -> snapshot.putProduct(branchId, copy));
+    }
+
+    /**
+     * Removes a product from the ranking of a branch.
+     * @param branchId ID of the branch.
+     * @param productId ID of the removed product.
+     */
+    public void onProductRemoved(String branchId, String productId) {
+        apply(snapshot -> snapshot.removeProduct(branchId, productId));
+    }
+
+    /**
+     * Updates the stock or name of a product already ranked in some branch.
+     * @param product The updated product.
+     */
+    public void onProductUpdated(Product product) {
+        Product copy = copyOf(product);
+        apply(snapshot -> snapshot.updateProduct(copy));
+    }
+
+    /**
+     * Applies a change to the current snapshot, recording it for replay if a rebuild is running.
+     * Changes are applied under the lock, so a change spanning several lookups, such as an update
+     * resolving the branch of its product, never interleaves with the removal of that product.
+     * @param change The change to apply.
+     */
+    private void apply(Consumer<Snapshot> change) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        synchronized (lock) {
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+            change.accept(current);
+        }
+    }
+
+    /**
+     * Copies the fields the index keeps, so later mutations of the entity do not leak in.
+     * @param product The product to copy.
+     * @return Product The copy.
+     */
+    private static Product copyOf(Product product) {
+        return Product.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .stock(product.getStock())
+                .build();
+    }
+
+    /**
+     * Entry of a branch ranking.
+     * @param productId ID of the product.
+     * @param productName Name of the product.
+     * @param stock Stock of the product.
+     */
+    private record RankedProduct(String productId, String productName, Integer stock) {
+    }
+
+    /**
+     * Lookup tables and per-branch rankings of one build of the index.
+     */
+    private static final class Snapshot {
+
+        private final Map<String, BranchRanking> branches = new ConcurrentHashMap<>();
+        private final Map<String, NavigableSet<String>> branchesByFranchise = new ConcurrentHashMap<>();
+        private final Map<String, String> branchByProduct = new ConcurrentHashMap<>();
+
+        private Iterable<String> branchesOf(String franchiseId) {
+            NavigableSet<String> branchIds = branchesByFranchise.get(franchiseId);
+            return branchIds != null ? branchIds : List.of();
+        }
+
+        private void putBranch(String branchId, String name, String franchiseId) {
+            branches.computeIfAbsent(branchId, BranchRanking::new).name = name;
+            if (franchiseId != null) {
+                branchesByFranchise.computeIfAbsent(franchiseId, id -> new ConcurrentSkipListSet<>()).add(branchId);
+            }
+        }
+
+        private void putProduct(String branchId, Product product) {
+            BranchRanking ranking = branches.computeIfAbsent(branchId, BranchRanking::new);
+            branchByProduct.put(product.getId(), branchId);
+            ranking.put(product);
+        }
+
+        private void removeProduct(String branchId, String productId) {
+            branchByProduct.remove(productId, branchId);
+            BranchRanking ranking = branches.get(branchId);
+            if (ranking != null) {
+                ranking.remove(productId);
+            }
+        }
+
+        private void updateProduct(Product product) {
+            String branchId = branchByProduct.get(product.getId());
+            BranchRanking ranking = branchId != null ? branches.get(branchId) : null;
+            if (ranking != null) {
+                ranking.put(product);
+            }
+        }
+    }
+
+    /**
+     * Products of a single branch ordered by stock.
+     * Guarded by its own monitor, so queries only wait on changes to the same branch.
+     */
+    private static final class BranchRanking {
+
+        private final String branchId;
+        private volatile String name;
+        private final NavigableSet<RankedProduct> ranking = new TreeSet<>(RANKING_ORDER);
+        private final Map<String, RankedProduct> byProductId = new HashMap<>();
+
+        private BranchRanking(String branchId) {
+            this.branchId = branchId;
+        }
+
+        private synchronized void put(Product product) {
+            RankedProduct previous = byProductId.get(product.getId());
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+            RankedProduct entry = new RankedProduct(product.getId(), product.getName(), product.getStock());
+            byProductId.put(entry.productId(), entry);
+            ranking.add(entry);
+        }
+
+        private synchronized void remove(String productId) {
+            RankedProduct previous = byProductId.remove(productId);
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+        }
+
+        private synchronized void collectTop(int top, List<ProductDetailsDTO> target) {
+            Iterator<RankedProduct> iterator = ranking.iterator();
+            for (int i = 0; i < top && iterator.hasNext(); i++) {
+                RankedProduct product = iterator.next();
+                target.add(ProductDetailsDTO.builder()
+                        .productId(product.productId())
+                        .productName(product.productName())
+                        .stock(product.stock())
+                        .branchId(branchId)
+                        .branchName(name)
+                        .build());
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.franchise.service.support;
+
+import com.franchise.config.WriteBehindProperties;
+import com.franchise.model.Product;
+import com.franchise.repository.ProductRepositoryCustom.StockChange;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * In-memory accumulator of the stock changes waiting to be written to MongoDB.
+ * Changes of the same product are merged in arrival order into a single pending change, so a
+ * product updated hundreds of times between two flushes costs a single write. Pending changes
+ * are spread over independently locked stripes keyed by product ID, so updates to different
+ * products rarely contend, and a flush only holds each stripe long enough to swap its map.
+ * Drained changes stay in flight until the stored products reflect them: until the flush reads back
+ * the version its write produced, reads and validations still add them to the stored stock, so
+ * neither sees the stock of before the write while it is on its way to MongoDB.
+ * A change is accepted only while the stored stock plus the in-flight and pending changes stays non-negative.
+ */
+@Component
+public class StockWriteBehindBuffer {
+
+    private final boolean enabled;
+    private final Stripe[] stripes;
+
+    /**
+     * Constructor for StockWriteBehindBuffer.
+     * @param properties The write-behind configuration.
+     */
+    public StockWriteBehindBuffer(WriteBehindProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.stripes = new Stripe[Math.max(1, properties.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Indicates whether stock changes go through the buffer.
+     * @return boolean True if write-behind is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Merges a change into the pending change of its product.
+     * @param change The change to accept.
+     * @param stored The product as stored in MongoDB.
+     * @return Optional<Product> The product with the resulting stock, or empty if the stock would go below zero, in which case nothing is recorded.
+     */
+    public Optional<Product> apply(StockChange change, Product stored) {
+        return apply(change, stored, null);
+    }
+
+    /**
+     * Merges a change into the pending change of its product, once a precondition accepts the product's current state.
+     * The precondition runs under the lock of the product's stripe, so no other change of the
+     * product can slip in between the check and the merge.
+     * @param change The change to accept.
+     * @param stored The product as stored in MongoDB.
+     * @param precondition Check of the product with its pending change applied, throwing to reject the change, or null.
+     * @return Optional<Product> The product with the resulting stock, or empty if the stock would go below zero, in which case nothing is recorded.
+     * @throws ArithmeticException If the resulting stock does not fit in an int, in which case nothing is recorded either.
+     */
+    public Optional<Product> apply(StockChange change, Product stored, Consumer<Product> precondition) {
+        Stripe stripe = stripeOf(change.productId());
+        int stock;
+        synchronized (stripe) {
+            if (precondition != null) {
+                precondition.accept(stripe.current(stored));
+            }
+            StockChange pending = stripe.changes.get(change.productId());
+            StockChange merged = pending != null ? pending.followedBy(change) : change;
+            long resulting = resultingStock(merged, stripe.written(stored).getStock());
+            if (resulting < 0) {
+                return Optional.empty();
+            }
+            stock = Math.toIntExact(resulting);
+            stripe.changes.put(change.productId(), merged);
+        }
+        return Optional.of(withStock(stored, stock));
+    }
+
+    /**
+     * Returns a product with its in-flight and pending changes applied to the stock.
+     * @param stored The product as stored in MongoDB.
+     * @return Product The stored product if nothing is in flight or pending, otherwise a copy with the resulting stock.
+     */
+    public Product withPending(Product stored) {
+        if (!enabled) {
+            return stored;
+        }
+        Stripe stripe = stripeOf(stored.getId());
+        synchronized (stripe) {
+            return stripe.current(stored);
+        }
+    }
+
+    /**
+     * Drops the in-flight and pending changes of a product, for example because it was deleted.
+     * @param productId ID of the product.
+     */
+    public void discard(String productId) {
+        Stripe stripe = stripeOf(productId);
+        synchronized (stripe) {
+            stripe.changes.remove(productId);
+            stripe.inFlight.remove(productId);
+        }
+    }
+
+    /**
+     * Removes and returns every pending change, at most one per product, which stays in flight until
+     * the flush marks it written, releases it or restores it.
+     * The changes left in flight by the previous flush, already reflected by the stored products, are dropped.
+     * @return List<StockChange> The changes to write.
+     */
+    public List<StockChange> drain() {
+        List<StockChange> drained = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                if (stripe.changes.isEmpty()) {
+                    stripe.inFlight.clear();
+                    continue;
+                }
+                Map<String, InFlight> inFlight = new HashMap<>();
+                stripe.changes.forEach((productId, change) -> inFlight.put(productId, new InFlight(change)));
+                drained.addAll(stripe.changes.values());
+                stripe.changes = new HashMap<>();
+                stripe.inFlight = inFlight;
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Records that the in-flight change of a product is stored, as of the version read back after the write.
+     * Copies of the product with that version or a later one already include the change.
+     * @param written The product as read back after the write.
+     */
+    public void markWritten(Product written) {
+        Stripe stripe = stripeOf(written.getId());
+        synchronized (stripe) {
+            InFlight inFlight = stripe.inFlight.get(written.getId());
+            if (inFlight != null) {
+                inFlight.writtenVersion = versionOf(written);
+            }
+        }
+    }
+
+    /**
+     * Drops in-flight changes whose outcome the stored products now tell, after their cache entries are invalidated.
+     * @param productIds IDs of the products.
+     */
+    public void release(List<String> productIds) {
+        for (String productId : productIds) {
+            Stripe stripe = stripeOf(productId);
+            synchronized (stripe) {
+                stripe.inFlight.remove(productId);
+            }
+        }
+    }
+
+    /**
+     * Puts back drained changes whose write failed, ahead of the changes accepted since.
+     * @param changes The drained changes.
+     */
+    public void restore(List<StockChange> changes) {
+        for (StockChange change : changes) {
+            Stripe stripe = stripeOf(change.productId());
+            synchronized (stripe) {
+                stripe.inFlight.remove(change.productId());
+                stripe.changes.merge(change.productId(), change, (later, drained) -> drained.followedBy(later));
+            }
+        }
+    }
+
+    /**
+     * Computes the stock of a product after a change.
+     * @param change The change.
+     * @param stock Stock of the product before the change.
+     * @return long The resulting stock, computed on longs so it cannot wrap around.
+     */
+    private static long resultingStock(StockChange change, Integer stock) {
+        if (change.stock() != null) {
+            return change.stock();
+        }
+        return (stock != null ? (long) stock : 0L) + change.delta();
+    }
+
+    private static long versionOf(Product product) {
+        return product.getVersion() != null ? product.getVersion() : 0L;
+    }
+
+    /**
+     * Copies a product with another stock, so the cached instance is never mutated.
+     * @param product The product to copy.
+     * @param stock The stock of the copy.
+     * @return Product The copy.
+     */
+    private static Product withStock(Product product, int stock) {
+        return Product.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .stock(stock)
+                .branchId(product.getBranchId())
+                .franchiseId(product.getFranchiseId())
+                .version(product.getVersion())
+                .build();
+    }
+
+    private Stripe stripeOf(String productId) {
+        int hash = productId.hashCode();
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+
+    /**
+     * Pending and in-flight changes of the products hashed to one stripe, guarded by the stripe's monitor.
+     */
+    private static final class Stripe {
+
+        private Map<String, StockChange> changes = new HashMap<>();
+        private Map<String, InFlight> inFlight = new HashMap<>();
+
+        /**
+         * Returns a product as it is once its in-flight change is stored.
+         * @param stored The product as stored in MongoDB.
+         * @return Product The stored product if it already reflects the in-flight change or nothing is in flight, otherwise a copy with the resulting stock.
+         */
+        private Product written(Product stored) {
+            InFlight change = inFlight.get(stored.getId());
+            if (change == null || change.isReflectedIn(stored)) {
+                return stored;
+            }
+            return withStock(stored, Math.toIntExact(resultingStock(change.change, stored.getStock())));
+        }
+
+        /**
+         * Returns a product as it is once its in-flight and pending changes are stored.
+         * @param stored The product as stored in MongoDB.
+         * @return Product The stored product if nothing applies, otherwise a copy with the resulting stock.
+         */
+        private Product current(Product stored) {
+            Product written = written(stored);
+            StockChange pending = changes.get(stored.getId());
+            if (pending == null) {
+                return written;
+            }
+            return withStock(stored, Math.toIntExact(resultingStock(pending, written.getStock())));
+        }
+    }
+
+    /**
+     * A drained change on its way to MongoDB, with the version of the product that stores it once known.
+     */
+    private static final class InFlight {
+
+        private final StockChange change;
+        private Long writtenVersion;
+
+        private InFlight(StockChange change) {
+            this.change = change;
+        }
+
+        private boolean isReflectedIn(Product stored) {
+            return writtenVersion != null && versionOf(stored) >= writtenVersion;
+        }
+    }
+}
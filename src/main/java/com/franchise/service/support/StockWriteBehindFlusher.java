@@ -0,0 +1,104 @@
+package com.franchise.service.support;
+
+import com.franchise.config.WriteBehindProperties;
+import com.franchise.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flushes the write-behind buffer every flush interval and one last time on shutdown.
+ * Flushes run one at a time on a dedicated thread, so the changes of a product are always
+ * written in the order they were accepted. The lifecycle stops after the web server, so the
+ * last flush also covers the requests that were still running when shutdown started.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockWriteBehindFlusher implements SmartLifecycle {
+
+    // Stops after the web server, whose lifecycle phases sit just below the default phase
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    // Injecting the ProductService and WriteBehindProperties using constructor injection
+    private final ProductService productService;
+    private final WriteBehindProperties properties;
+
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * Starts the periodic flush if write-behind is enabled.
+     */
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.getFlushInterval().toNanos();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.NANOSECONDS);
+        executor = scheduler;
+    }
+
+    /**
+     * Stops the periodic flush, waits for the running one and writes whatever is still pending.
+     */
+    @Override
+    public void stop() {
+        ScheduledExecutorService scheduler = executor;
+        if (scheduler == null) {
+            return;
+        }
+        executor = null;
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Timed out waiting for the running stock flush");
+            }
+            productService.flushPendingStockChanges().then().block(properties.getShutdownTimeout());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush the pending stock changes on shutdown", e);
+        }
+    }
+
+    /**
+     * Indicates whether the periodic flush is running.
+     * @return boolean True between start and stop.
+     */
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    /**
+     * Returns the lifecycle phase, lower than the web server's so that it stops later.
+     * @return int The phase.
+     */
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Writes the pending changes, keeping the periodic task alive if the write fails.
+     * The changes of a failed write stay in the buffer and are retried by the next flush.
+     */
+    private void flushQuietly() {
+        try {
+            productService.flushPendingStockChanges().then().block();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush the pending stock changes", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.franchise.web;
+
+import com.franchise.config.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted by additive increase and multiplicative decrease (AIMD).
+ * The limit grows by one for every request answered within the latency threshold while the
+ * limit is actually being used, and shrinks by the backoff ratio for every request that is
+ * slower than the threshold or failed, so it settles just below the concurrency at which
+ * the downstream resources start queueing.
+ */
+public class AimdConcurrencyLimiter {
+
+    private final ConcurrencyLimitProperties.Budget budget;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+
+    public AimdConcurrencyLimiter(ConcurrencyLimitProperties.Budget budget) {
+        this.budget = budget;
+        this.latencyThresholdNanos = budget.getLatencyThreshold().toNanos();
+        this.limit = Math.max(budget.getMinLimit(), Math.min(budget.getMaxLimit(), budget.getInitialLimit()));
+    }
+
+    /**
+     * Takes a slot if the limit allows it.
+     * @return boolean True if the request may proceed, in which case the slot must be released.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Releases a slot and adjusts the limit to how the request went.
+     * @param latencyNanos Time the request took.
+     * @param failed Whether the request failed in a way that suggests overload.
+     */
+    public void release(long latencyNanos, boolean failed) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(budget.getMinLimit(), limit * budget.getBackoffRatio());
+            } else if (current * 2 >= limit) {
+                limit = Math.min(budget.getMaxLimit(), limit + 1);
+            }
+        }
+    }
+
+    /**
+     * Releases a slot without adjusting the limit, for requests cancelled by the client.
+     */
+    public void releaseWithoutSample() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Returns the current limit.
+     * @return int The maximum number of requests in flight.
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Returns the number of requests in flight.
+     * @return int The number of slots taken.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
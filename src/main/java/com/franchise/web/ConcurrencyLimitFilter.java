@@ -0,0 +1,162 @@
+package com.franchise.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.franchise.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sheds load once the API is over its adaptive concurrency limits.
+ * Reads, writes and streaming bulk writes have separate limits, so a burst of writes saturating
+ * the MongoDB pool shrinks the write limit without starving reads, and a long import is not
+ * taken for a slow single write. Requests over the limit are rejected
+ * right away with 503 and a Retry-After header instead of queueing behind the overload.
+ * Runs right after the observation filter, so rejections still show up in the request metrics.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter implements WebFilter {
+
+    private static final String METRIC_PREFIX = "franchise.concurrency.";
+
+    private final ConcurrencyLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final List<PathPattern> exemptPaths;
+    private final List<PathPattern> bulkPaths;
+    private final Budget reads;
+    private final Budget writes;
+    private final Budget bulkWrites;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.exemptPaths = parse(properties.getExemptPaths());
+        this.bulkPaths = parse(properties.getBulkPaths());
+        this.reads = new Budget("read", new AimdConcurrencyLimiter(properties.getReads()), registry);
+        this.writes = new Budget("write", new AimdConcurrencyLimiter(properties.getWrites()), registry);
+        this.bulkWrites = new Budget("bulk-write", new AimdConcurrencyLimiter(properties.getBulkWrites()), registry);
+    }
+
+    /**
+     * Lets the request through if its budget has a free slot, and rejects it otherwise.
+     * @param exchange The current exchange.
+     * @param chain The rest of the filter chain.
+     * @return Mono<Void> A Mono completing once the response has been written.
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        PathContainer path = request.getPath().pathWithinApplication();
+        if (!properties.isEnabled() || matches(exemptPaths, path)) {
+            return chain.filter(exchange);
+        }
+        Budget budget = isRead(request.getMethod()) ? reads : matches(bulkPaths, path) ? bulkWrites : writes;
+        AimdConcurrencyLimiter limiter = budget.limiter();
+        if (!limiter.tryAcquire()) {
+            budget.rejected().increment();
+            return reject(exchange.getResponse());
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        limiter.releaseWithoutSample();
+                    } else {
+                        limiter.release(System.nanoTime() - start,
+                                signal == SignalType.ON_ERROR || isServerError(exchange.getResponse().getStatusCode()));
+                    }
+                });
+    }
+
+    /**
+     * Writes the 503 response of a rejected request, shaped like the other error responses.
+     * @param response The response to write.
+     * @return Mono<Void> A Mono completing once the response has been written.
+     */
+    private Mono<Void> reject(ServerHttpResponse response) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("message", "Server overloaded, retry later");
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(objectMapper.writeValueAsBytes(body))));
+        } catch (JsonProcessingException ex) {
+            return response.setComplete();
+        }
+    }
+
+    private long retryAfterSeconds() {
+        long millis = properties.getRetryAfter().toMillis();
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    private static List<PathPattern> parse(List<String> patterns) {
+        return patterns.stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    private static boolean matches(List<PathPattern> patterns, PathContainer path) {
+        return patterns.stream().anyMatch(pattern -> pattern.matches(path));
+    }
+
+    private static boolean isRead(HttpMethod method) {
+        return HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || HttpMethod.OPTIONS.equals(method);
+    }
+
+    private static boolean isServerError(HttpStatusCode status) {
+        return status != null && status.is5xxServerError();
+    }
+
+    /**
+     * Limiter of one kind of request with its meters.
+     * @param limiter The concurrency limiter.
+     * @param rejected Counter of the rejected requests.
+     */
+    private record Budget(AimdConcurrencyLimiter limiter, Counter rejected) {
+
+        private Budget(String name, AimdConcurrencyLimiter limiter, MeterRegistry registry) {
+            this(limiter, Counter.builder(METRIC_PREFIX + "rejected")
+                    .description("Requests rejected for being over the concurrency limit")
+                    .tag("budget", name)
+                    .register(registry));
+            Gauge.builder(METRIC_PREFIX + "limit", limiter, AimdConcurrencyLimiter::getLimit)
+                    .description("Current concurrency limit")
+                    .tag("budget", name)
+                    .register(registry);
+            Gauge.builder(METRIC_PREFIX + "in.flight", limiter, AimdConcurrencyLimiter::getInFlight)
+                    .description("Requests currently holding a slot")
+                    .tag("budget", name)
+                    .register(registry);
+        }
+    }
+}
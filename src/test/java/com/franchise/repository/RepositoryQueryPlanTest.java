@@ -0,0 +1,493 @@
+package com.franchise.repository;
+
+import com.franchise.model.Branch;
+import com.franchise.model.Franchise;
+import com.franchise.model.LowStockAlert;
+import com.franchise.model.LowStockRule;
+import com.franchise.model.Product;
+import com.franchise.repository.ProductRepositoryCustom.StockChange;
+import com.franchise.repository.support.IndexInitializer;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that every query issued by the repositories is served by an index.
+ * Each query method of the repository interfaces is called against an embedded MongoDB holding
+ * the declared indexes and a small dataset. The commands the driver sends for it are recorded,
+ * then explained with execution statistics: a winning plan with a COLLSCAN stage, or a $lookup
+ * that scanned a collection, fails the test. A query method the test does not call fails it as
+ * well, so new queries cannot skip the check.
+ * It needs a MongoDB server, so it only runs with the query-plans profile (mvn -Pquery-plans test),
+ * where it fails if the embedded MongoDB cannot be started; it runs against an existing server
+ * instead with -Dquery-plans.mongo-uri=mongodb://host:port.
+ */
+@Tag("query-plans")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.data.mongodb.database=franchise_query_plans",
+        "franchise.indexes.create-on-startup=false",
+        "franchise.migration.back-references-on-startup=false",
+        "franchise.stock-ranking.enabled=false",
+        "franchise.low-stock-alerts.enabled=false"})
+class RepositoryQueryPlanTest {
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            FranchiseRepository.class, FranchiseRepositoryCustom.class,
+            BranchRepository.class, BranchRepositoryCustom.class,
+            ProductRepository.class, ProductRepositoryCustom.class,
+            LowStockRuleRepository.class, LowStockAlertRepository.class, LowStockAlertRepositoryCustom.class);
+
+    // Methods reading a whole collection by design, such as the startup rebuild of the ranking index
+    private static final Set<String> FULL_SCANS = Set.of(
+            "FranchiseRepositoryCustom.findAllHydrated",
+            "BranchRepositoryCustom.findAllHydrated");
+
+    private static final Duration CALL_TIMEOUT = Duration.ofSeconds(30);
+
+    // Lower than any generated ObjectId, so keyset pages after it see the whole dataset
+    private static final String FIRST_ID = new ObjectId(0, 0).toHexString();
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static String mongoUri;
+
+    @Autowired
+    private ReactiveMongoTemplate mongoTemplate;
+    @Autowired
+    private IndexInitializer indexInitializer;
+    @Autowired
+    private CommandRecorder commandRecorder;
+    @Autowired
+    private FranchiseRepository franchiseRepository;
+    @Autowired
+    private BranchRepository branchRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private LowStockRuleRepository lowStockRuleRepository;
+    @Autowired
+    private LowStockAlertRepository lowStockAlertRepository;
+
+    private Franchise franchise;
+    private Branch branch;
+    private Product product;
+    private Product otherProduct;
+
+    /**
+     * Starts the embedded MongoDB, unless an existing server is configured.
+     * A failure to start it fails the test, so no plan goes unchecked unnoticed.
+     */
+    @BeforeAll
+    static void startMongo() {
+        String configured = System.getProperty("query-plans.mongo-uri", "");
+        if (!configured.isBlank()) {
+            mongoUri = configured;
+            return;
+        }
+        try {
+            mongod = Mongod.instance().start(Version.Main.V6_0);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Embedded MongoDB could not be started; "
+                    + "run against an existing server with -Dquery-plans.mongo-uri=mongodb://host:port", e);
+        }
+        ServerAddress address = mongod.current().getServerAddress();
+        mongoUri = "mongodb://" + address.getHost() + ":" + address.getPort();
+    }
+
+    /**
+     * Stops the embedded MongoDB, if one was started.
+     */
+    @AfterAll
+    static void stopMongo() {
+        if (mongod != null) {
+            mongod.close();
+        }
+    }
+
+    /**
+     * Points the application at the MongoDB of the test.
+     * @param registry The registry of the test properties.
+     */
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongoUri);
+    }
+
+    /**
+     * Recreates the database with the declared indexes and a franchise, branch, products, rule and alert.
+     */
+    @BeforeEach
+    void seed() {
+        mongoTemplate.getMongoDatabase().flatMap(database -> Mono.from(database.drop())).block(CALL_TIMEOUT);
+        indexInitializer.ensureIndexes().block(CALL_TIMEOUT);
+
+        franchise = franchiseRepository.save(Franchise.builder().name("Query plan franchise").build()).block(CALL_TIMEOUT);
+        branch = branchRepository.save(Branch.builder()
+                .name("Query plan branch")
+                .franchiseId(franchise.getId())
+                .build()).block(CALL_TIMEOUT);
+        product = productRepository.save(product("First product", 10)).block(CALL_TIMEOUT);
+        otherProduct = productRepository.save(product("Second product", 2)).block(CALL_TIMEOUT);
+        LowStockRule rule = lowStockRuleRepository.save(LowStockRule.builder()
+                .scope(LowStockRule.Scope.BRANCH)
+                .targetId(branch.getId())
+                .franchiseId(franchise.getId())
+                .threshold(5)
+                .recoveryMargin(2)
+                .build()).block(CALL_TIMEOUT);
+        lowStockAlertRepository.save(LowStockAlert.builder()
+                .type(LowStockAlert.Type.LOW_STOCK)
+                .productId(otherProduct.getId())
+                .productName(otherProduct.getName())
+                .stock(otherProduct.getStock())
+                .threshold(5)
+                .recoveryLevel(7)
+                .ruleId(rule.getId())
+                .branchId(branch.getId())
+                .franchiseId(franchise.getId())
+                .timestamp(Instant.now())
+                .build()).block(CALL_TIMEOUT);
+    }
+
+    /**
+     * Calls every repository query method and explains the commands it sent.
+     */
+    @Test
+    void everyRepositoryQueryIsServedByAnIndex() {
+        Map<String, Supplier<Publisher<?>>> calls = calls();
+        assertThat(calls.keySet())
+                .as("repository query methods called by the test")
+                .containsAll(queryMethods());
+
+        List<String> violations = new ArrayList<>();
+        calls.forEach((method, call) -> {
+            commandRecorder.start();
+            Flux.from(call.get()).then().block(CALL_TIMEOUT);
+            List<BsonDocument> commands = commandRecorder.stop();
+            assertThat(commands).as("queries sent by %s", method).isNotEmpty();
+            if (FULL_SCANS.contains(method)) {
+                return;
+            }
+            for (BsonDocument command : commands) {
+                for (BsonDocument explainable : explainable(command)) {
+                    Document plan = explain(explainable);
+                    if (scansCollection(plan)) {
+                        violations.add(method + " " + explainable.toJson() + " -> " + plan.toJson());
+                    }
+                }
+            }
+        });
+
+        assertThat(violations).as("repository queries scanning a whole collection").isEmpty();
+    }
+
+    /**
+     * Checks that the highest stock report reads the products of each branch through the
+     * { branchId, stock, _id } index, which serves both the join on branchId and the per-branch
+     * sort, rather than matching every product against the branch with an expression.
+     */
+    @Test
+    void highestStockJoinUsesTheBranchStockIndex() {
+        commandRecorder.start();
+        branchRepository.findTopProductsByStockPerBranch(franchise.getId(), 1).then().block(CALL_TIMEOUT);
+        List<BsonDocument> commands = commandRecorder.stop();
+
+        assertThat(commands).hasSize(1);
+        Document plan = explain(explainable(commands.get(0)).get(0));
+        assertThat(scansCollection(plan)).as("collection scan in %s", plan.toJson()).isFalse();
+        List<Object> indexesUsed = new ArrayList<>();
+        collectIndexesUsed(plan, indexesUsed);
+        assertThat(indexesUsed).as("indexes used by the $lookup in %s", plan.toJson()).containsOnly("branchId_stock_id");
+    }
+
+    /**
+     * Builds a call of every repository query method on the seeded dataset, keyed by interface and method name.
+     * Keyset pages are read both from the start and after an ID, and conditional writes expect the seeded version.
+     * @return Map<String, Supplier<Publisher<?>>> The calls.
+     */
+    private Map<String, Supplier<Publisher<?>>> calls() {
+        String franchiseId = franchise.getId();
+        String branchId = branch.getId();
+        String productId = product.getId();
+        List<Long> seededVersion = List.of(0L);
+
+        Map<String, Supplier<Publisher<?>>> calls = new LinkedHashMap<>();
+        calls.put("FranchiseRepository.findByName", () -> franchiseRepository.findByName(franchise.getName()));
+        calls.put("FranchiseRepository.findSummaryById", () -> franchiseRepository.findSummaryById(franchiseId));
+        calls.put("FranchiseRepository.findVersionById", () -> franchiseRepository.findVersionById(franchiseId));
+        calls.put("FranchiseRepositoryCustom.findHydratedById", () -> franchiseRepository.findHydratedById(franchiseId));
+        calls.put("FranchiseRepositoryCustom.findAllHydrated", franchiseRepository::findAllHydrated);
+        calls.put("FranchiseRepositoryCustom.findHydratedPage", () -> Flux.concat(
+                franchiseRepository.findHydratedPage(null, 10),
+                franchiseRepository.findHydratedPage(FIRST_ID, 10)));
+        calls.put("FranchiseRepositoryCustom.findSummaryPage", () -> Flux.concat(
+                franchiseRepository.findSummaryPage(null, 10),
+                franchiseRepository.findSummaryPage(FIRST_ID, 10)));
+        calls.put("FranchiseRepositoryCustom.updateName",
+                () -> franchiseRepository.updateName(franchiseId, "Renamed franchise", seededVersion));
+        calls.put("BranchRepository.findByFranchiseId", () -> branchRepository.findByFranchiseId(franchiseId));
+        calls.put("BranchRepository.findSummaryById", () -> branchRepository.findSummaryById(branchId));
+        calls.put("BranchRepository.findVersionById", () -> branchRepository.findVersionById(branchId));
+        calls.put("BranchRepository.findVersionsByFranchiseId", () -> branchRepository.findVersionsByFranchiseId(franchiseId));
+        calls.put("BranchRepository.findTopProductsByStockPerBranch",
+                () -> branchRepository.findTopProductsByStockPerBranch(franchiseId, 1));
+        calls.put("BranchRepository.summarizeInventory", () -> branchRepository.summarizeInventory(franchiseId, 5, 10));
+        calls.put("BranchRepositoryCustom.findHydratedById", () -> branchRepository.findHydratedById(branchId));
+        calls.put("BranchRepositoryCustom.findHydratedByFranchiseId", () -> branchRepository.findHydratedByFranchiseId(franchiseId));
+        calls.put("BranchRepositoryCustom.findAllHydrated", branchRepository::findAllHydrated);
+        calls.put("BranchRepositoryCustom.findHydratedPageByFranchiseId", () -> Flux.concat(
+                branchRepository.findHydratedPageByFranchiseId(franchiseId, null, 10),
+                branchRepository.findHydratedPageByFranchiseId(franchiseId, FIRST_ID, 10)));
+        calls.put("BranchRepositoryCustom.findSummaryPageByFranchiseId", () -> Flux.concat(
+                branchRepository.findSummaryPageByFranchiseId(franchiseId, null, 10),
+                branchRepository.findSummaryPageByFranchiseId(franchiseId, FIRST_ID, 10)));
+        calls.put("BranchRepositoryCustom.updateName",
+                () -> branchRepository.updateName(branchId, "Renamed branch", seededVersion));
+        calls.put("ProductRepository.findByBranchId", () -> productRepository.findByBranchId(branchId));
+        calls.put("ProductRepository.findByFranchiseId", () -> productRepository.findByFranchiseId(franchiseId));
+        calls.put("ProductRepository.findByBranchIdAndNameIn",
+                () -> productRepository.findByBranchIdAndNameIn(branchId, List.of(product.getName())));
+        calls.put("ProductRepository.findNamesByBranchId", () -> productRepository.findNamesByBranchId(branchId));
+        calls.put("ProductRepository.findInventoryByFranchiseId", () -> productRepository.findInventoryByFranchiseId(franchiseId));
+        calls.put("ProductRepository.findVersionById", () -> productRepository.findVersionById(productId));
+        calls.put("ProductRepository.findVersionsByBranchId", () -> productRepository.findVersionsByBranchId(branchId));
+        calls.put("ProductRepository.findVersionsByFranchiseId", () -> productRepository.findVersionsByFranchiseId(franchiseId));
+        calls.put("ProductRepository.deleteByIdAndBranchId",
+                () -> productRepository.deleteByIdAndBranchId(new ObjectId().toHexString(), branchId));
+        calls.put("ProductRepositoryCustom.setStock", () -> productRepository.setStock(productId, 8, seededVersion));
+        calls.put("ProductRepositoryCustom.setName", () -> productRepository.setName(productId, "Renamed product", null));
+        calls.put("ProductRepositoryCustom.incrementStock", () -> productRepository.incrementStock(productId, -1, null));
+        calls.put("ProductRepositoryCustom.applyStockChanges", () -> productRepository.applyStockChanges(List.of(
+                new StockChange(productId, null, 3),
+                new StockChange(otherProduct.getId(), 4, null))));
+        calls.put("ProductRepositoryCustom.applySnapshotChanges", () -> productRepository.applySnapshotChanges(
+                List.of(product("Imported product", 1)),
+                List.of(new StockChange(otherProduct.getId(), 6, null))));
+        calls.put("LowStockRuleRepository.findByFranchiseIdOrderByIdAsc",
+                () -> lowStockRuleRepository.findByFranchiseIdOrderByIdAsc(franchiseId));
+        calls.put("LowStockAlertRepositoryCustom.findPageByFranchiseId", () -> Flux.concat(
+                lowStockAlertRepository.findPageByFranchiseId(franchiseId, null, 10),
+                lowStockAlertRepository.findPageByFranchiseId(franchiseId, FIRST_ID, 10)));
+        return calls;
+    }
+
+    /**
+     * Lists the query methods declared by the repository interfaces, keyed by interface and method name.
+     * @return List<String> The query methods.
+     */
+    private static List<String> queryMethods() {
+        return REPOSITORIES.stream()
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods())
+                        .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                        .map(method -> repository.getSimpleName() + "." + method.getName()))
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Turns a recorded command into commands the explain command accepts.
+     * The session and routing fields added by the driver are dropped, and write commands are split
+     * into one command per statement, as only single statements can be explained.
+     * @param command The recorded command.
+     * @return List<BsonDocument> The commands to explain.
+     */
+    private static List<BsonDocument> explainable(BsonDocument command) {
+        BsonDocument base = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")) {
+                base.append(key, value);
+            }
+        });
+        String statements = switch (command.getFirstKey()) {
+            case "update" -> "updates";
+            case "delete" -> "deletes";
+            default -> null;
+        };
+        if (statements == null) {
+            return List.of(base);
+        }
+        List<BsonDocument> commands = new ArrayList<>();
+        for (BsonValue statement : base.getArray(statements)) {
+            commands.add(base.clone().append(statements, new BsonArray(List.of(statement))));
+        }
+        return commands;
+    }
+
+    /**
+     * Explains a command with execution statistics, so $lookup stages report how they read the joined collection.
+     * Writes are not applied by the explain command.
+     * @param command The command to explain.
+     * @return Document The explain output.
+     */
+    private Document explain(BsonDocument command) {
+        BsonDocument explain = new BsonDocument("explain", command)
+                .append("verbosity", new BsonString("executionStats"));
+        return mongoTemplate.getMongoDatabase()
+                .flatMap(database -> Mono.from(database.runCommand(explain)))
+                .block(CALL_TIMEOUT);
+    }
+
+    /**
+     * Looks for a full collection scan in an explain output, ignoring the rejected plans.
+     * @param node A node of the explain output.
+     * @return boolean True if the winning plan, or a $lookup, scanned a whole collection.
+     */
+    private static boolean scansCollection(Object node) {
+        if (node instanceof Document document) {
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                String key = entry.getKey();
+                Object value = entry.getValue();
+                if (key.equals("rejectedPlans")) {
+                    continue;
+                }
+                if ((key.equals("stage") && "COLLSCAN".equals(value))
+                        || (key.equals("collectionScans") && value instanceof Number scans && scans.longValue() > 0)
+                        || scansCollection(value)) {
+                    return true;
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            return list.stream().anyMatch(RepositoryQueryPlanTest::scansCollection);
+        }
+        return false;
+    }
+
+    /**
+     * Collects the indexes reported by the $lookup stages of an explain output.
+     * @param node A node of the explain output.
+     * @param target The list the index names are added to.
+     */
+    private static void collectIndexesUsed(Object node, List<Object> target) {
+        if (node instanceof Document document) {
+            document.forEach((key, value) -> {
+                if (key.equals("indexesUsed") && value instanceof List<?> indexes) {
+                    target.addAll(indexes);
+                } else {
+                    collectIndexesUsed(value, target);
+                }
+            });
+        } else if (node instanceof List<?> list) {
+            list.forEach(element -> collectIndexesUsed(element, target));
+        }
+    }
+
+    private Product product(String name, int stock) {
+        return Product.builder()
+                .name(name)
+                .stock(stock)
+                .branchId(branch.getId())
+                .franchiseId(franchise.getId())
+                .build();
+    }
+
+    /**
+     * Records the query and write commands sent by the driver while recording is on.
+     * Inserts are left out, as they read nothing and cannot be explained.
+     */
+    static final class CommandRecorder implements CommandListener {
+
+        private static final Set<String> QUERIES = Set.of(
+                "find", "aggregate", "count", "distinct", "findAndModify", "update", "delete");
+        private static final JsonWriterSettings EXTENDED_JSON = JsonWriterSettings.builder()
+                .outputMode(JsonMode.EXTENDED)
+                .build();
+
+        private final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+        private volatile boolean recording;
+
+        /**
+         * Starts recording, forgetting the commands recorded before.
+         */
+        void start() {
+            commands.clear();
+            recording = true;
+        }
+
+        /**
+         * Stops recording.
+         * @return List<BsonDocument> The commands recorded since the last start.
+         */
+        List<BsonDocument> stop() {
+            recording = false;
+            return List.copyOf(commands);
+        }
+
+        /**
+         * Records a command, copied as the driver may release its buffer once sent.
+         * @param event The started command.
+         */
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            if (recording && QUERIES.contains(event.getCommandName())) {
+                commands.add(BsonDocument.parse(event.getCommand().toJson(EXTENDED_JSON)));
+            }
+        }
+    }
+
+    /**
+     * Registers the command recorder with the MongoDB client of the application.
+     */
+    @TestConfiguration
+    static class CommandRecording {
+
+        /**
+         * The command recorder.
+         * @return CommandRecorder The recorder.
+         */
+        @Bean
+        CommandRecorder commandRecorder() {
+            return new CommandRecorder();
+        }
+
+        /**
+         * Adds the command recorder to the settings of the MongoDB client.
+         * @param commandRecorder The recorder.
+         * @return MongoClientSettingsBuilderCustomizer The customizer.
+         */
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandRecording(CommandRecorder commandRecorder) {
+            return settings -> settings.addCommandListener(commandRecorder);
+        }
+    }
+}
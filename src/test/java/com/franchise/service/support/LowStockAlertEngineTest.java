@@ -0,0 +1,160 @@
+package com.franchise.service.support;
+
+import com.franchise.config.LowStockAlertProperties;
+import com.franchise.model.LowStockAlert;
+import com.franchise.model.LowStockRule;
+import com.franchise.model.Product;
+import com.franchise.repository.LowStockAlertRepository;
+import com.franchise.repository.LowStockRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Feeds stock sequences through the low-stock alert engine and checks the alerts it raises.
+ */
+class LowStockAlertEngineTest {
+
+    // Alerts stored by the engine, in order
+    private final List<LowStockAlert> alerts = new CopyOnWriteArrayList<>();
+    private LowStockAlertProperties properties;
+    private LowStockAlertEngine engine;
+
+    /**
+     * Creates an enabled engine whose alerts are recorded instead of stored.
+     */
+    @BeforeEach
+    void setUp() {
+        LowStockAlertRepository alertRepository = mock(LowStockAlertRepository.class);
+        when(alertRepository.insert(any(LowStockAlert.class))).thenAnswer(invocation -> {
+            LowStockAlert alert = invocation.getArgument(0);
+            alerts.add(alert);
+            return Mono.just(alert);
+        });
+        properties = new LowStockAlertProperties();
+        engine = new LowStockAlertEngine(mock(LowStockRuleRepository.class), alertRepository, properties);
+    }
+
+    /**
+     * Raises exactly one alert per downward crossing and one per recovery, staying silent inside the band.
+     */
+    @Test
+    void alertsOncePerCrossing() {
+        engine.onRuleSaved(rule(LowStockRule.Scope.PRODUCT, "p1", 5, 3));
+
+        feed("p1", 10, 6, 5, 4, 3, 5, 6, 7, 5, 0);
+        assertThat(alerts).extracting(LowStockAlert::getType, LowStockAlert::getStock)
+                .containsExactly(tuple(LowStockAlert.Type.LOW_STOCK, 5));
+
+        feed("p1", 8, 9, 7, 6);
+        assertThat(alerts).extracting(LowStockAlert::getType, LowStockAlert::getStock)
+                .containsExactly(
+                        tuple(LowStockAlert.Type.LOW_STOCK, 5),
+                        tuple(LowStockAlert.Type.RECOVERED, 8));
+
+        // Re-armed by the recovery: the next drop alerts again
+        feed("p1", 4, 2, 1);
+        assertThat(alerts).extracting(LowStockAlert::getType, LowStockAlert::getStock)
+                .containsExactly(
+                        tuple(LowStockAlert.Type.LOW_STOCK, 5),
+                        tuple(LowStockAlert.Type.RECOVERED, 8),
+                        tuple(LowStockAlert.Type.LOW_STOCK, 4));
+    }
+
+    /**
+     * A product's own rule wins over the rule of its branch, which still covers the other products.
+     */
+    @Test
+    void productRuleOverridesBranchRule() {
+        engine.onRuleSaved(rule(LowStockRule.Scope.BRANCH, "b1", 10, 2));
+        engine.onRuleSaved(rule(LowStockRule.Scope.PRODUCT, "p1", 2, 2));
+
+        feed("p1", 5);
+        feed("p2", 5);
+        assertThat(alerts).extracting(LowStockAlert::getProductId, LowStockAlert::getRuleId, LowStockAlert::getThreshold)
+                .containsExactly(tuple("p2", "BRANCH:b1", 10));
+
+        feed("p1", 2);
+        assertThat(alerts).extracting(LowStockAlert::getProductId, LowStockAlert::getRuleId, LowStockAlert::getThreshold)
+                .containsExactly(
+                        tuple("p2", "BRANCH:b1", 10),
+                        tuple("p1", "PRODUCT:p1", 2));
+
+        // Without its own rule the product falls back to the branch rule, under which it stays low
+        engine.onRuleRemoved(LowStockRule.Scope.PRODUCT, "p1");
+        feed("p1", 3);
+        assertThat(alerts).hasSize(2);
+        feed("p1", 12);
+        assertThat(alerts).last()
+                .extracting(LowStockAlert::getType, LowStockAlert::getRuleId)
+                .containsExactly(LowStockAlert.Type.RECOVERED, "BRANCH:b1");
+    }
+
+    /**
+     * A product leaving its rule, or removed, drops its low state silently and alerts afresh later.
+     */
+    @Test
+    void forgetsTheLowStateSilently() {
+        engine.onRuleSaved(rule(LowStockRule.Scope.PRODUCT, "p1", 5, 3));
+        feed("p1", 1);
+
+        engine.onRuleRemoved(LowStockRule.Scope.PRODUCT, "p1");
+        feed("p1", 1);
+        engine.onRuleSaved(rule(LowStockRule.Scope.PRODUCT, "p1", 5, 3));
+        feed("p1", 2);
+
+        engine.forget("p1");
+        feed("p1", 3);
+
+        assertThat(alerts).extracting(LowStockAlert::getType, LowStockAlert::getStock)
+                .containsExactly(
+                        tuple(LowStockAlert.Type.LOW_STOCK, 1),
+                        tuple(LowStockAlert.Type.LOW_STOCK, 2),
+                        tuple(LowStockAlert.Type.LOW_STOCK, 3));
+    }
+
+    /**
+     * A disabled engine raises nothing.
+     */
+    @Test
+    void staysSilentWhenDisabled() {
+        properties.setEnabled(false);
+        engine.onRuleSaved(rule(LowStockRule.Scope.PRODUCT, "p1", 5, 3));
+
+        feed("p1", 10, 1, 10);
+
+        assertThat(alerts).isEmpty();
+    }
+
+    private void feed(String productId, int... stocks) {
+        for (int stock : stocks) {
+            engine.evaluate(Product.builder()
+                    .id(productId)
+                    .name("Product " + productId)
+                    .stock(stock)
+                    .branchId("b1")
+                    .franchiseId("f1")
+                    .build());
+        }
+    }
+
+    private static LowStockRule rule(LowStockRule.Scope scope, String targetId, int threshold, int recoveryMargin) {
+        return LowStockRule.builder()
+                .id(LowStockRule.idOf(scope, targetId))
+                .scope(scope)
+                .targetId(targetId)
+                .franchiseId("f1")
+                .threshold(threshold)
+                .recoveryMargin(recoveryMargin)
+                .build();
+    }
+}
@@ -0,0 +1,295 @@
+package com.franchise.service.support;
+
+import com.franchise.config.StockRankingProperties;
+import com.franchise.dto.ProductDetailsDTO;
+import com.franchise.model.Branch;
+import com.franchise.model.Product;
+import com.franchise.repository.BranchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks the stock ranking index against a full per-branch sort of the same products.
+ */
+class StockRankingIndexTest {
+
+    private static final Map<String, String> FRANCHISE_BY_BRANCH = Map.of(
+            "b1", "f1",
+            "b2", "f1",
+            "b3", "f1",
+            "b4", "f2");
+
+    // Same order as the aggregation: stock descending with missing stock last, ties by ID
+    private static final Comparator<Product> RANKING_ORDER = Comparator
+            .comparing(Product::getStock, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+            .reversed()
+            .thenComparing(Product::getId);
+
+    // Stored products by branch, standing in for MongoDB
+    private final Map<String, Map<String, Product>> stored = new ConcurrentHashMap<>();
+    private StockRankingIndex index;
+
+    /**
+     * Creates an enabled index and empty branches.
+     */
+    @BeforeEach
+    void setUp() {
+        index = new StockRankingIndex(mock(BranchRepository.class), new StockRankingProperties());
+        FRANCHISE_BY_BRANCH.keySet().forEach(branchId -> stored.put(branchId, new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * Applies random additions, removals and updates, comparing the index after every step.
+     */
+    @Test
+    void matchesFullSortAfterRandomChanges() {
+        Random random = new Random(42);
+        for (int i = 0; i < 60; i++) {
+            String branchId = randomBranch(random);
+            storeProduct(branchId, product("p" + i, random.nextInt(20)));
+        }
+        index.rebuild(Flux.defer(() -> Flux.fromIterable(storedBranches()))).block();
+        assertMatchesStored();
+
+        int nextId = 60;
+        for (int step = 0; step < 2_000; step++) {
+            int operation = random.nextInt(4);
+            if (operation == 0) {
+                String branchId = randomBranch(random);
+                Product product = product("p" + nextId++, random.nextInt(10) == 0 ? null : random.nextInt(20));
+                storeProduct(branchId, product);
+                index.onProductAdded(branchId, product);
+            } else if (operation == 1) {
+                Product product = randomStoredProduct(random);
+                if (product != null) {
+                    stored.get(product.getBranchId()).remove(product.getId());
+                    index.onProductRemoved(product.getBranchId(), product.getId());
+                }
+            } else if (operation == 2) {
+                Product product = randomStoredProduct(random);
+                if (product != null) {
+                    Product updated = product(product.getId(), random.nextInt(20));
+                    updated.setName(random.nextBoolean() ? product.getName() : "renamed-" + step);
+                    storeProduct(product.getBranchId(), updated);
+                    index.onProductUpdated(updated);
+                }
+            } else {
+                // Updates of products the index never saw, such as deleted ones, are ignored
+                index.onProductUpdated(product("missing-" + step, random.nextInt(20)));
+            }
+            assertMatchesStored();
+        }
+    }
+
+    /**
+     * Changes the entity after handing it to the index, which must have kept its own copy.
+     */
+    @Test
+    void ignoresLaterMutationsOfTheEntity() {
+        index.rebuild(Flux.fromIterable(storedBranches())).block();
+        Product product = product("p1", 5);
+        storeProduct("b1", product(product.getId(), 5));
+        index.onProductAdded("b1", product);
+
+        product.setStock(50);
+
+        assertMatchesStored();
+    }
+
+    /**
+     * Races the update of a product against its removal; the removed product must never come back.
+     */
+    @Test
+    void removedProductIsNotRestoredByConcurrentUpdate() throws Exception {
+        index.rebuild(Flux.fromIterable(storedBranches())).block();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 500; i++) {
+                String productId = "p" + i;
+                index.onProductAdded("b1", product(productId, 1));
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicBoolean removed = new AtomicBoolean();
+                // The updates keep running until the removal is over, so both overlap
+                Future<?> updates = executor.submit(() -> {
+                    await(start);
+                    for (int stock = 0; !removed.get() || stock < 20; stock++) {
+                        index.onProductUpdated(product(productId, stock));
+                    }
+                });
+                Future<?> removal = executor.submit(() -> {
+                    await(start);
+                    index.onProductRemoved("b1", productId);
+                    removed.set(true);
+                });
+                start.countDown();
+                updates.get(10, TimeUnit.SECONDS);
+                removal.get(10, TimeUnit.SECONDS);
+
+                assertThat(index.findTopProductsPerBranch("f1", Integer.MAX_VALUE).orElseThrow())
+                        .extracting(ProductDetailsDTO::getProductId)
+                        .doesNotContain(productId);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Applies changes from several threads while the index is rebuilt over and over;
+     * every change must survive the rebuilds.
+     */
+    @Test
+    void keepsChangesAppliedDuringRebuilds() throws Exception {
+        index.rebuild(Flux.fromIterable(storedBranches())).block();
+        int writers = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        try {
+            CountDownLatch done = new CountDownLatch(writers);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                // Every writer owns its products, so the changes to one product keep their order
+                String prefix = "w" + writer + "-";
+                Random random = new Random(writer);
+                futures.add(executor.submit(() -> {
+                    try {
+                        for (int step = 0; step < 2_000; step++) {
+                            String productId = prefix + random.nextInt(30);
+                            Product current = storedProduct(productId);
+                            if (current == null) {
+                                String branchId = randomBranch(random);
+                                Product product = product(productId, random.nextInt(50));
+                                storeProduct(branchId, product);
+                                index.onProductAdded(branchId, product);
+                            } else if (random.nextInt(4) == 0) {
+                                stored.get(current.getBranchId()).remove(productId);
+                                index.onProductRemoved(current.getBranchId(), productId);
+                            } else {
+                                Product updated = product(productId, random.nextInt(50));
+                                storeProduct(current.getBranchId(), updated);
+                                index.onProductUpdated(updated);
+                            }
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }));
+            }
+            futures.add(executor.submit(() -> {
+                while (done.getCount() > 0) {
+                    index.rebuild(Flux.defer(() -> Flux.fromIterable(storedBranches()))).block();
+                }
+            }));
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+
+            assertMatchesStored();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertMatchesStored() {
+        for (String franchiseId : List.of("f1", "f2")) {
+            for (int top : List.of(1, 3, Integer.MAX_VALUE)) {
+                assertThat(index.findTopProductsPerBranch(franchiseId, top).orElseThrow())
+                        .as("top %d of %s", top, franchiseId)
+                        .containsExactlyElementsOf(expectedTop(franchiseId, top));
+            }
+        }
+    }
+
+    private List<ProductDetailsDTO> expectedTop(String franchiseId, int top) {
+        List<ProductDetailsDTO> expected = new ArrayList<>();
+        new TreeMap<>(FRANCHISE_BY_BRANCH).forEach((branchId, owner) -> {
+            if (owner.equals(franchiseId)) {
+                stored.get(branchId).values().stream()
+                        .sorted(RANKING_ORDER)
+                        .limit(top)
+                        .map(product -> ProductDetailsDTO.builder()
+                                .productId(product.getId())
+                                .productName(product.getName())
+                                .stock(product.getStock())
+                                .branchId(branchId)
+                                .branchName("Branch " + branchId)
+                                .build())
+                        .forEach(expected::add);
+            }
+        });
+        return expected;
+    }
+
+    private List<Branch> storedBranches() {
+        List<Branch> branches = new ArrayList<>();
+        stored.forEach((branchId, products) -> {
+            Branch branch = Branch.builder()
+                    .id(branchId)
+                    .name("Branch " + branchId)
+                    .franchiseId(FRANCHISE_BY_BRANCH.get(branchId))
+                    .build();
+            branch.setProducts(new ArrayList<>(products.values()));
+            branches.add(branch);
+        });
+        return branches;
+    }
+
+    private void storeProduct(String branchId, Product product) {
+        product.setBranchId(branchId);
+        stored.get(branchId).put(product.getId(), product);
+    }
+
+    private Product storedProduct(String productId) {
+        return stored.values().stream()
+                .map(products -> products.get(productId))
+                .filter(product -> product != null)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private Product randomStoredProduct(Random random) {
+        List<Product> products = stored.values().stream()
+                .flatMap(byId -> byId.values().stream())
+                .sorted(Comparator.comparing(Product::getId))
+                .toList();
+        return products.isEmpty() ? null : products.get(random.nextInt(products.size()));
+    }
+
+    private static String randomBranch(Random random) {
+        List<String> branchIds = FRANCHISE_BY_BRANCH.keySet().stream().sorted().toList();
+        return branchIds.get(random.nextInt(branchIds.size()));
+    }
+
+    private static Product product(String id, Integer stock) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .stock(stock)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.franchise.service.support;
+
+import com.franchise.config.WriteBehindProperties;
+import com.franchise.model.Product;
+import com.franchise.repository.ProductRepositoryCustom.StockChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that drained stock changes keep counting until the stored products reflect them.
+ */
+class StockWriteBehindBufferTest {
+
+    private StockWriteBehindBuffer buffer;
+
+    /**
+     * Creates an enabled buffer.
+     */
+    @BeforeEach
+    void setUp() {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setEnabled(true);
+        buffer = new StockWriteBehindBuffer(properties);
+    }
+
+    /**
+     * Reads and validations between the drain and the read back see the drained change.
+     */
+    @Test
+    void countsDrainedChangesUntilWritten() {
+        Product stored = product(10, 1L);
+        buffer.apply(new StockChange("p1", null, -8), stored);
+
+        assertThat(buffer.drain()).containsExactly(new StockChange("p1", null, -8));
+        assertThat(buffer.withPending(stored).getStock()).isEqualTo(2);
+        assertThat(buffer.apply(new StockChange("p1", null, -3), stored)).isEmpty();
+        assertThat(buffer.apply(new StockChange("p1", null, -2), stored)).hasValueSatisfying(
+                product -> assertThat(product.getStock()).isZero());
+
+        buffer.markWritten(product(2, 2L));
+
+        // The stale copy still gets the drained change, the written one only the pending change
+        assertThat(buffer.withPending(stored).getStock()).isZero();
+        assertThat(buffer.withPending(product(2, 2L)).getStock()).isZero();
+        assertThat(buffer.drain()).containsExactly(new StockChange("p1", null, -2));
+        assertThat(buffer.withPending(product(2, 2L)).getStock()).isZero();
+    }
+
+    /**
+     * A failed write puts the drained change back ahead of the later ones, counted once.
+     */
+    @Test
+    void restoresFailedChangesOnce() {
+        Product stored = product(10, 1L);
+        buffer.apply(new StockChange("p1", null, -4), stored);
+        List<StockChange> drained = buffer.drain();
+        buffer.apply(new StockChange("p1", null, -1), stored);
+
+        buffer.restore(drained);
+        buffer.release(List.of("p1"));
+
+        assertThat(buffer.withPending(stored).getStock()).isEqualTo(5);
+        assertThat(buffer.drain()).containsExactly(new StockChange("p1", null, -5));
+    }
+
+    /**
+     * Released and discarded changes no longer count.
+     */
+    @Test
+    void dropsReleasedAndDiscardedChanges() {
+        Product stored = product(10, 1L);
+        buffer.apply(new StockChange("p1", null, -4), stored);
+        buffer.drain();
+        buffer.release(List.of("p1"));
+        assertThat(buffer.withPending(stored)).isSameAs(stored);
+
+        buffer.apply(new StockChange("p1", null, -4), stored);
+        buffer.drain();
+        buffer.apply(new StockChange("p1", null, -1), stored);
+        buffer.discard("p1");
+        assertThat(buffer.withPending(stored)).isSameAs(stored);
+        assertThat(buffer.drain()).isEmpty();
+    }
+
+    private static Product product(int stock, Long version) {
+        return Product.builder()
+                .id("p1")
+                .name("Product p1")
+                .stock(stock)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.franchise.web;
+
+import com.franchise.config.ConcurrencyLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks how the AIMD limiter hands out slots and adjusts its limit.
+ */
+class AimdConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofMillis(500).toNanos();
+
+    /**
+     * Slots are handed out up to the limit and given back on release.
+     */
+    @Test
+    void rejectsOverTheLimit() {
+        AimdConcurrencyLimiter limiter = limiter(2, 1, 10);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        limiter.release(FAST, false);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    /**
+     * Fast requests grow the limit by one while at least half of it is in use, and not otherwise.
+     */
+    @Test
+    void increasesAdditivelyWhileTheLimitIsUsed() {
+        AimdConcurrencyLimiter limiter = limiter(4, 1, 10);
+        acquire(limiter, 2);
+
+        limiter.release(FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        // One request in flight out of five: the limit is not used enough to grow
+        limiter.release(FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    /**
+     * Slow and failed requests multiply the limit by the backoff ratio.
+     */
+    @Test
+    void backsOffMultiplicatively() {
+        AimdConcurrencyLimiter limiter = limiter(100, 1, 200);
+        acquire(limiter, 2);
+
+        limiter.release(SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(90);
+
+        limiter.release(FAST, true);
+        assertThat(limiter.getLimit()).isEqualTo(81);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    /**
+     * The limit never leaves the configured bounds, the initial limit included.
+     */
+    @Test
+    void clampsToTheMinimumAndMaximum() {
+        assertThat(limiter(50, 1, 10).getLimit()).isEqualTo(10);
+        assertThat(limiter(0, 3, 10).getLimit()).isEqualTo(3);
+
+        AimdConcurrencyLimiter limiter = limiter(4, 3, 5);
+        for (int i = 0; i < 10; i++) {
+            acquire(limiter, 4);
+            for (int j = 0; j < 4; j++) {
+                limiter.release(FAST, false);
+            }
+        }
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        for (int i = 0; i < 10; i++) {
+            acquire(limiter, 1);
+            limiter.release(SLOW, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(3);
+    }
+
+    /**
+     * A cancelled request gives its slot back without moving the limit.
+     */
+    @Test
+    void releasesWithoutSample() {
+        AimdConcurrencyLimiter limiter = limiter(4, 1, 10);
+        acquire(limiter, 4);
+
+        limiter.releaseWithoutSample();
+
+        assertThat(limiter.getInFlight()).isEqualTo(3);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    private static AimdConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+        return new AimdConcurrencyLimiter(
+                new ConcurrencyLimitProperties.Budget(initialLimit, minLimit, maxLimit, Duration.ofMillis(250)));
+    }
+
+    private static void acquire(AimdConcurrencyLimiter limiter, int slots) {
+        for (int i = 0; i < slots; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+    }
+}